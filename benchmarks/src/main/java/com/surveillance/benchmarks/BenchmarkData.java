@@ -0,0 +1,123 @@
+package com.surveillance.benchmarks;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import com.surveillance.data.Dictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded, time-ordered input data for the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final long BASE_NANOS = 1_704_067_200L * 1_000_000_000L; // 2024-01-01T00:00:00Z
+    static final int ACCOUNTS = 2_000;
+    static final int SYMBOLS = 500;
+    static final int EMPLOYEE_ACCOUNTS = 50;
+
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Trades arriving on average every 100 microseconds, with a buy/sell pair
+     * of matching size and price about one time in ten.
+     */
+    static TradeStore trades(int count, long seed) {
+        Random random = new Random(seed);
+        TradeStore store = new TradeStore(new Dictionary(), new Dictionary(), count);
+        long ts = BASE_NANOS;
+        long id = 1;
+        while (store.size() < count) {
+            ts += random.nextInt(200_000);
+            String account = account(random.nextInt(ACCOUNTS));
+            String symbol = symbol(random.nextInt(SYMBOLS));
+            double price = 10 + random.nextInt(49_000) / 100.0;
+            long quantity = 100L * (1 + random.nextInt(50));
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            store.append(id++, account, symbol, side, ts, price, quantity);
+            if (random.nextInt(10) == 0 && store.size() < count) {
+                ts += random.nextInt(1_000_000_000);
+                store.append(id++, account, symbol, side.opposite(), ts, price, quantity);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Order lifecycle events: each new order is later cancelled (mostly quickly)
+     * or filled, and a small share of orders are large.
+     */
+    static OrderStore orders(int count, long seed) {
+        Random random = new Random(seed);
+        OrderStore store = new OrderStore(new Dictionary(), new Dictionary(), count);
+        long[] openIds = new long[1024];
+        String[] openAccounts = new String[openIds.length];
+        String[] openSymbols = new String[openIds.length];
+        Side[] openSides = new Side[openIds.length];
+        double[] openPrices = new double[openIds.length];
+        long[] openQuantities = new long[openIds.length];
+        int open = 0;
+        long ts = BASE_NANOS;
+        long id = 1;
+        while (store.size() < count) {
+            ts += random.nextInt(200_000);
+            if (open == openIds.length || (open > 0 && random.nextInt(2) == 0)) {
+                int i = random.nextInt(open);
+                OrderEvent.Type type = random.nextInt(10) < 8 ? OrderEvent.Type.CANCEL : OrderEvent.Type.FILL;
+                store.append(openIds[i], openAccounts[i], openSymbols[i], openSides[i], type, ts,
+                    openPrices[i], openQuantities[i]);
+                open--;
+                openIds[i] = openIds[open];
+                openAccounts[i] = openAccounts[open];
+                openSymbols[i] = openSymbols[open];
+                openSides[i] = openSides[open];
+                openPrices[i] = openPrices[open];
+                openQuantities[i] = openQuantities[open];
+            } else {
+                openIds[open] = id++;
+                openAccounts[open] = account(random.nextInt(ACCOUNTS));
+                openSymbols[open] = symbol(random.nextInt(SYMBOLS));
+                openSides[open] = random.nextBoolean() ? Side.BUY : Side.SELL;
+                openPrices[open] = 10 + random.nextInt(49_000) / 100.0;
+                openQuantities[open] = random.nextInt(100) == 0 ? 20_000 : 100L * (1 + random.nextInt(20));
+                store.append(openIds[open], openAccounts[open], openSymbols[open], openSides[open],
+                    OrderEvent.Type.NEW, ts, openPrices[open], openQuantities[open]);
+                open++;
+            }
+        }
+        return store;
+    }
+
+    static Map<String, String> employeeAccounts() {
+        Map<String, String> employees = new HashMap<>();
+        for (int i = 0; i < EMPLOYEE_ACCOUNTS; i++) {
+            employees.put(account(i), "EMP-" + i);
+        }
+        return employees;
+    }
+
+    /**
+     * Silence the detectors' console progress output inside the benchmark JVM.
+     */
+    static PrintStream silenceStdout() {
+        PrintStream original = System.out;
+        System.setOut(DISCARD);
+        return original;
+    }
+
+    static String account(int i) {
+        return "ACC-" + i;
+    }
+
+    static String symbol(int i) {
+        return "SYM" + i;
+    }
+}
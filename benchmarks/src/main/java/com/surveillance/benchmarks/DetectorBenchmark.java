@@ -0,0 +1,85 @@
+package com.surveillance.benchmarks;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.detectors.FrontRunningDetector;
+import com.surveillance.detectors.SpoofingDetector;
+import com.surveillance.detectors.WashTradeDetector;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of each detector over columnar in-memory input.
+ * The "events" secondary metric is input events per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectorBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private TradeStore trades;
+    private OrderStore orders;
+    private Map<String, String> employeeAccounts;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        trades = BenchmarkData.trades(size, 42);
+        orders = BenchmarkData.orders(size, 43);
+        employeeAccounts = BenchmarkData.employeeAccounts();
+        stdout = BenchmarkData.silenceStdout();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public DetectionResult washTrade(EventCounter counter) {
+        WashTradeDetector detector = new WashTradeDetector();
+        detector.setTrades(trades);
+        counter.events += trades.size();
+        return detector.detect();
+    }
+
+    @Benchmark
+    public DetectionResult spoofing(EventCounter counter) {
+        SpoofingDetector detector = new SpoofingDetector();
+        detector.setOrders(orders);
+        counter.events += orders.size();
+        return detector.detect();
+    }
+
+    @Benchmark
+    public DetectionResult frontRunning(EventCounter counter) {
+        FrontRunningDetector detector = new FrontRunningDetector();
+        detector.setEmployeeAccounts(employeeAccounts);
+        detector.setTimeWindowBeforeSeconds(300);
+        detector.setTrades(trades);
+        detector.setOrders(orders);
+        counter.events += trades.size() + orders.size();
+        return detector.detect();
+    }
+}
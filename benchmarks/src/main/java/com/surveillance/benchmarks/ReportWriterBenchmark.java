@@ -0,0 +1,89 @@
+package com.surveillance.benchmarks;
+
+import com.surveillance.core.AlertType;
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Severity;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of ReportGenerator writing CSV and JSON reports to a temp
+ * directory. The "events" secondary metric is alerts written per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportWriterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int alerts;
+
+    private DetectionResult result;
+    private Path outputDirectory;
+    private ReportGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        result = new DetectionResult("wash_trade");
+        for (int i = 0; i < alerts; i++) {
+            result.addAlert(AlertType.WASH_TRADE, i % 3 == 0 ? Severity.HIGH : Severity.MEDIUM, i,
+                BenchmarkData.account(i % 2_000), BenchmarkData.symbol(i % 500), 1_709_288_130_000_000_000L,
+                (long) i, (long) i + 1, 12L, 0.25, 1_709_288_118_000_000_000L, 1_709_288_130_000_000_000L,
+                100L, 100.0, 100.25);
+        }
+        outputDirectory = Files.createTempDirectory("report-bench");
+        generator = new ReportGenerator(outputDirectory.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String csv(EventCounter counter) {
+        counter.events += alerts;
+        return generator.generateReport(result, "csv", "bench");
+    }
+
+    @Benchmark
+    public String json(EventCounter counter) {
+        counter.events += alerts;
+        return generator.generateReport(result, "json", "bench");
+    }
+
+    @Benchmark
+    public String ndjson(EventCounter counter) {
+        counter.events += alerts;
+        return generator.generateReport(result, "ndjson", "bench");
+    }
+
+    @Benchmark
+    public String csvGzip(EventCounter counter) {
+        counter.events += alerts;
+        return generator.generateReport(result, "csv.gz", "bench");
+    }
+}
@@ -3,11 +3,11 @@ Java Executor Module
 Executes Java test processes and manages report generation.
 """
 
+import json
 import os
 import re
 import subprocess
-import tempfile
-import shutil
+import threading
 from dataclasses import dataclass, field
 from typing import List, Dict, Any, Optional, Tuple
 from pathlib import Path
@@ -173,6 +173,170 @@ class JavaCodeModifier:
         return parameters
 
 
+class JavaDaemonError(Exception):
+    """Error returned by the surveillance server for a JSON-RPC request."""
+
+    def __init__(self, code: int, message: str):
+        super().__init__(f'{message} (code {code})')
+        self.code = code
+
+
+class JavaDaemonClient:
+    """
+    Client for the long-lived surveillance JVM (com.surveillance.server.SurveillanceServer).
+    
+    Starts the server once with stdio transport and sends line-delimited
+    JSON-RPC 2.0 requests, so detectors and loaded data stay warm between
+    reports instead of paying Maven and JVM startup for every inquiry.
+    
+    Metadata:
+        - component: java_daemon_client
+        - capability: execute_reports, keep_jvm_warm
+        - domain: trade_surveillance
+    """
+    
+    SERVER_CLASS = 'com.surveillance.server.SurveillanceServer'
+    CLASSPATH_FILE = 'target/daemon.classpath'
+    
+    def __init__(self,
+                 project_dir: Optional[str] = None,
+                 java_home: Optional[str] = None,
+                 maven_cmd: str = 'mvn',
+                 classpath: Optional[List[str]] = None,
+                 reports_dir: Optional[str] = None,
+                 data_dir: Optional[str] = None,
+                 employee_accounts: Optional[Dict[str, str]] = None):
+        self.project_dir = project_dir or os.getcwd()
+        self.java_home = java_home or os.environ.get('JAVA_HOME')
+        self.maven_cmd = maven_cmd
+        self.classpath = classpath
+        self.reports_dir = reports_dir or os.path.join(self.project_dir, 'reports')
+        self.data_dir = os.path.abspath(data_dir) if data_dir else None
+        self.employee_accounts = employee_accounts or {}
+        self._process: Optional[subprocess.Popen] = None
+        self._lock = threading.RLock()
+        self._next_id = 1
+    
+    def start(self) -> None:
+        """Start the server if it is not already running and load data_dir into it."""
+        with self._lock:
+            if self._process is not None and self._process.poll() is None:
+                return
+            java_cmd = os.path.join(self.java_home, 'bin', 'java') if self.java_home else 'java'
+            cmd = [java_cmd, '-cp', os.pathsep.join(self._resolve_classpath()),
+                   self.SERVER_CLASS, '--reports', self.reports_dir]
+            self._process = subprocess.Popen(
+                cmd,
+                cwd=self.project_dir,
+                stdin=subprocess.PIPE,
+                stdout=subprocess.PIPE,
+                stderr=subprocess.DEVNULL,
+                text=True,
+                bufsize=1,
+            )
+            if self.data_dir:
+                try:
+                    self.load_segments(self.data_dir, self.employee_accounts)
+                except (JavaDaemonError, OSError):
+                    self._process.kill()
+                    self._process = None
+                    raise
+    
+    def call(self, method: str, params: Optional[Dict[str, Any]] = None) -> Any:
+        """
+        Send one request and wait for its result.
+        
+        Raises:
+            JavaDaemonError: if the server returns a JSON-RPC error
+        """
+        with self._lock:
+            self.start()
+            request_id = self._next_id
+            self._next_id += 1
+            request = {'jsonrpc': '2.0', 'id': request_id, 'method': method, 'params': params or {}}
+            self._process.stdin.write(json.dumps(request) + '\n')
+            self._process.stdin.flush()
+            line = self._process.stdout.readline()
+            if not line:
+                self._process = None
+                raise JavaDaemonError(-32000, 'Surveillance server exited')
+            response = json.loads(line)
+        if 'error' in response:
+            error = response['error']
+            raise JavaDaemonError(error.get('code', -32000), error.get('message', 'Unknown error'))
+        return response.get('result')
+    
+    def run_report(self,
+                   report_type: str,
+                   parameters: Optional[Dict[str, Any]] = None,
+                   output_format: str = 'csv',
+                   report_name: Optional[str] = None,
+                   columns: Optional[Any] = None) -> Dict[str, Any]:
+        """Run a detector on the loaded data and write its report.
+        
+        columns selects CSV columns: a list of names, or "config" for the
+        detector config's output.columns.
+        """
+        params = {
+            'reportType': report_type,
+            'parameters': parameters or {},
+            'outputFormat': output_format,
+        }
+        if report_name:
+            params['reportName'] = report_name
+        if columns:
+            params['columns'] = columns
+        return self.call('run', params)
+    
+    def load_segments(self, directory: str, employee_accounts: Optional[Dict[str, str]] = None) -> Dict[str, Any]:
+        """Load trade and order segment files into the server; they are reloaded on restart."""
+        directory = os.path.abspath(directory)
+        employee_accounts = employee_accounts or {}
+        result = self.call('loadSegments', {'directory': directory, 'employeeAccounts': employee_accounts})
+        self.data_dir = directory
+        self.employee_accounts = employee_accounts
+        return result
+    
+    def stop(self) -> None:
+        """Ask the server to shut down and wait for it to exit."""
+        if self._process is None or self._process.poll() is not None:
+            self._process = None
+            return
+        try:
+            self.call('shutdown')
+            self._process.wait(timeout=10)
+        except (JavaDaemonError, OSError, subprocess.TimeoutExpired):
+            self._process.kill()
+        finally:
+            self._process = None
+    
+    def __enter__(self) -> 'JavaDaemonClient':
+        self.start()
+        return self
+    
+    def __exit__(self, *exc_info) -> None:
+        self.stop()
+    
+    def _resolve_classpath(self) -> List[str]:
+        """Compiled classes plus Maven runtime dependencies, resolved once and cached."""
+        if self.classpath:
+            return self.classpath
+        project_path = Path(self.project_dir)
+        classpath_file = project_path / self.CLASSPATH_FILE
+        if not (project_path / 'target' / 'classes').exists() or not classpath_file.exists():
+            subprocess.run(
+                [self.maven_cmd, '-q', 'compile', 'dependency:build-classpath',
+                 '-Dmdep.includeScope=runtime', f'-Dmdep.outputFile={self.CLASSPATH_FILE}'],
+                cwd=self.project_dir,
+                check=True,
+                capture_output=True,
+            )
+        dependencies = classpath_file.read_text(encoding='utf-8').strip()
+        self.classpath = [str(project_path / 'target' / 'classes')] + \
+            [entry for entry in dependencies.split(os.pathsep) if entry]
+        return self.classpath
+
+
 class JavaExecutor:
     """
     Executes Java test processes to generate reports.
@@ -190,7 +354,8 @@ class JavaExecutor:
                  java_home: Optional[str] = None,
                  maven_home: Optional[str] = None,
                  gradle_home: Optional[str] = None,
-                 project_dir: Optional[str] = None):
+                 project_dir: Optional[str] = None,
+                 data_dir: Optional[str] = None):
         """
         Initialize the Java executor.
         
@@ -199,12 +364,15 @@ class JavaExecutor:
             maven_home: Path to Maven installation
             gradle_home: Path to Gradle installation
             project_dir: Path to the Java project directory
+            data_dir: Segment directory that run_report scans
         """
         self.java_home = java_home or os.environ.get('JAVA_HOME')
         self.maven_home = maven_home or os.environ.get('MAVEN_HOME')
         self.gradle_home = gradle_home or os.environ.get('GRADLE_HOME')
         self.project_dir = project_dir or os.getcwd()
+        self.data_dir = data_dir or os.environ.get('TRADE_SURVEILLANCE_DATA_DIR')
         self.modifier = JavaCodeModifier()
+        self._daemon: Optional[JavaDaemonClient] = None
     
     def execute_test(self, config: JavaTestConfig) -> ExecutionResult:
         """
@@ -250,7 +418,12 @@ class JavaExecutor:
                                    modifications: Dict[str, Any],
                                    config: JavaTestConfig) -> Tuple[ExecutionResult, str]:
         """
-        Modify Java code and execute the test.
+        Execute a test with modified parameters.
+        
+        The modifications are passed as system properties, which the test binds
+        to its @Parameter fields at startup (ParameterBinder), so the test source
+        is not rewritten or recompiled. The rewritten source is still returned
+        as a preview of the effective parameters.
         
         Args:
             java_file_path: Path to the Java test file
@@ -264,39 +437,105 @@ class JavaExecutor:
         with open(java_file_path, 'r', encoding='utf-8') as f:
             original_content = f.read()
         
-        # Modify the code
+        # Preview of the code with the modifications applied
         modified_content = self.modifier.modify_parameters(original_content, modifications)
         
-        # Create a temporary modified file
-        temp_dir = tempfile.mkdtemp()
-        try:
-            # Preserve package structure
-            rel_path = self._get_relative_path(java_file_path, config.working_dir or self.project_dir)
-            temp_file = Path(temp_dir) / rel_path
-            temp_file.parent.mkdir(parents=True, exist_ok=True)
-            
-            with open(temp_file, 'w', encoding='utf-8') as f:
-                f.write(modified_content)
+        system_properties = dict(config.system_properties)
+        for name, value in modifications.items():
+            if value is None:
+                continue
+            if isinstance(value, bool):
+                value = 'true' if value else 'false'
+            elif isinstance(value, datetime):
+                value = value.strftime('%Y-%m-%d')
+            system_properties[name] = str(value)
+        
+        modified_config = JavaTestConfig(
+            class_name=config.class_name,
+            method_name=config.method_name,
+            arguments=config.arguments,
+            system_properties=system_properties,
+            classpath=config.classpath,
+            java_home=config.java_home,
+            working_dir=config.working_dir,
+            timeout_seconds=config.timeout_seconds,
+            output_dir=config.output_dir,
+        )
+        
+        result = self.execute_test(modified_config)
+        return result, modified_content
+    
+    def run_report(self,
+                   report_type: str,
+                   parameters: Optional[Dict[str, Any]] = None,
+                   output_format: str = 'csv',
+                   output_dir: Optional[str] = None,
+                   data_dir: Optional[str] = None) -> ExecutionResult:
+        """
+        Run a detector in the persistent surveillance JVM.
+        
+        Parameters are applied by name on the Java side, so no source
+        modification or recompilation is needed. The segment directory is
+        loaded when the server starts and again only when it changes.
+        
+        Args:
+            report_type: Report type, e.g. "wash_trade"
+            parameters: Detector parameters such as startDate or cancelRateThreshold
+            output_format: Report format (csv, json or ndjson, optionally with .gz)
+            output_dir: Directory for reports; fixed when the server first starts
+            data_dir: Segment directory to scan; defaults to the executor's data_dir
             
-            # Update config to use temp directory
-            modified_config = JavaTestConfig(
-                class_name=config.class_name,
-                method_name=config.method_name,
-                arguments=config.arguments,
-                system_properties=config.system_properties,
-                classpath=config.classpath + [str(temp_dir)],
-                java_home=config.java_home,
-                working_dir=config.working_dir,
-                timeout_seconds=config.timeout_seconds,
-                output_dir=config.output_dir,
+        Returns:
+            ExecutionResult with the report path
+        """
+        start_time = datetime.now()
+        data_dir = data_dir or self.data_dir
+        if not data_dir:
+            message = 'No data directory: pass data_dir or set TRADE_SURVEILLANCE_DATA_DIR'
+            return ExecutionResult(
+                success=False,
+                exit_code=-1,
+                stdout='',
+                stderr=message,
+                execution_time_ms=0,
+                error_message=message,
             )
-            
-            result = self.execute_test(modified_config)
-            return result, modified_content
-            
-        finally:
-            # Cleanup temp directory
-            shutil.rmtree(temp_dir, ignore_errors=True)
+        try:
+            if self._daemon is None:
+                self._daemon = JavaDaemonClient(
+                    project_dir=self.project_dir,
+                    java_home=self.java_home,
+                    maven_cmd=self._get_maven_command(),
+                    reports_dir=output_dir,
+                    data_dir=data_dir,
+                )
+                self._daemon.start()
+            elif os.path.abspath(data_dir) != self._daemon.data_dir:
+                self._daemon.load_segments(data_dir)
+            result = self._daemon.run_report(report_type, parameters, output_format)
+            return ExecutionResult(
+                success=True,
+                exit_code=0,
+                stdout=result.get('summary') or '',
+                stderr='',
+                execution_time_ms=(datetime.now() - start_time).total_seconds() * 1000,
+                report_path=result.get('reportPath'),
+            )
+        except (JavaDaemonError, OSError, subprocess.CalledProcessError) as e:
+            return ExecutionResult(
+                success=False,
+                exit_code=-1,
+                stdout='',
+                stderr=str(e),
+                execution_time_ms=(datetime.now() - start_time).total_seconds() * 1000,
+                error_message=str(e),
+            )
+    
+    def close(self) -> None:
+        """Stop the persistent surveillance JVM, if one was started."""
+        if self._daemon is not None:
+            self._daemon.stop()
+            self._daemon = None
     
     def _detect_build_tool(self, project_dir: str) -> str:
         """Detect which build tool is used in the project."""
@@ -0,0 +1,54 @@
+package com.surveillance.config;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of parsed configs of one watched directory at a point in
+ * time. A new snapshot with a higher version replaces the old one whenever a
+ * config file changes; readers holding the old snapshot are unaffected.
+ */
+public final class ConfigSnapshot {
+
+    private final long version;
+    private final Map<Path, DetectorConfig> configs;
+
+    ConfigSnapshot(long version, Map<Path, DetectorConfig> configs) {
+        this.version = version;
+        this.configs = Collections.unmodifiableMap(new HashMap<>(configs));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Config for an absolute, normalized file path, or {@code null} if the
+     * directory has no such config.
+     */
+    public DetectorConfig get(Path path) {
+        return configs.get(path);
+    }
+
+    public Map<Path, DetectorConfig> getConfigs() {
+        return configs;
+    }
+
+    /**
+     * Next snapshot with the given configs replaced; a {@code null} config
+     * removes the file.
+     */
+    ConfigSnapshot with(Map<Path, DetectorConfig> changes) {
+        Map<Path, DetectorConfig> next = new HashMap<>(configs);
+        for (Map.Entry<Path, DetectorConfig> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                next.put(change.getKey(), change.getValue());
+            } else {
+                next.remove(change.getKey());
+            }
+        }
+        return new ConfigSnapshot(version + 1, next);
+    }
+}
@@ -0,0 +1,174 @@
+package com.surveillance.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Watches a config directory and publishes a new {@link ConfigSnapshot}
+ * whenever a {@code *.yml} file is created, changed or deleted.
+ *
+ * Files are re-parsed on the watcher's own thread and the new snapshot is
+ * swapped in through an {@link AtomicReference}, so readers never lock and
+ * never see a half-updated set. While a watcher is running,
+ * {@link DetectorConfigLoader#load} serves configs in its directory from the
+ * current snapshot without touching the file system. Detectors copy their
+ * thresholds when created, so a run in progress finishes with the config it
+ * started with and the next run picks up the change.
+ *
+ * A file that fails to parse keeps its previous config and the error is
+ * logged; compliance can fix the file without a restart.
+ */
+public class ConfigWatcher implements Closeable {
+
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Path directory;
+    private final WatchService watchService;
+    private final AtomicReference<ConfigSnapshot> snapshot;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private ConfigWatcher(Path directory) throws IOException {
+        this.directory = directory;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.snapshot = new AtomicReference<>(new ConfigSnapshot(1, loadAll(directory)));
+        this.thread = new Thread(this::run, "config-watcher-" + directory.getFileName());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Load every config in a directory and start watching it for changes.
+     */
+    public static ConfigWatcher start(Path directory) throws IOException {
+        ConfigWatcher watcher = new ConfigWatcher(directory.toAbsolutePath().normalize());
+        DetectorConfigLoader.register(watcher);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The latest published snapshot.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        DetectorConfigLoader.unregister(this);
+        watchService.close();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                // Editors often write a file in several steps; let them finish
+                Thread.sleep(SETTLE_MILLIS);
+                Map<Path, Boolean> changed = new HashMap<>();
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Events were lost: recheck every known and present file
+                            markAll(changed);
+                            continue;
+                        }
+                        Path file = directory.resolve((Path) event.context());
+                        if (isConfig(file)) {
+                            changed.put(file, event.kind() != StandardWatchEventKinds.ENTRY_DELETE);
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                    key = watchService.poll();
+                } while (key != null);
+                if (!changed.isEmpty()) {
+                    reload(changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void reload(Map<Path, Boolean> changed) {
+        Map<Path, DetectorConfig> changes = new HashMap<>();
+        for (Map.Entry<Path, Boolean> entry : changed.entrySet()) {
+            Path file = entry.getKey();
+            if (!entry.getValue() || !Files.exists(file)) {
+                changes.put(file, null);
+                continue;
+            }
+            try {
+                changes.put(file, DetectorConfigLoader.parse(file));
+            } catch (RuntimeException e) {
+                System.err.println("Keeping previous config for " + file + ": " + e.getMessage());
+            }
+        }
+        if (!changes.isEmpty()) {
+            ConfigSnapshot next = snapshot.updateAndGet(current -> current.with(changes));
+            System.err.println("Config reloaded (version " + next.getVersion() + "): " + changes.keySet());
+        }
+    }
+
+    private void markAll(Map<Path, Boolean> changed) {
+        for (Path path : snapshot.get().getConfigs().keySet()) {
+            changed.put(path, true);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(ConfigWatcher::isConfig).forEach(file -> changed.put(file, true));
+        } catch (IOException e) {
+            System.err.println("Cannot list " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<Path, DetectorConfig> loadAll(Path directory) {
+        Map<Path, DetectorConfig> configs = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(ConfigWatcher::isConfig).forEach(file -> {
+                try {
+                    configs.put(file, DetectorConfigLoader.parse(file));
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping invalid config " + file + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return configs;
+    }
+
+    private static boolean isConfig(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+}
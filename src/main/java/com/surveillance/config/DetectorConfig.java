@@ -0,0 +1,102 @@
+package com.surveillance.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, typed view of one detector YML config: metadata, parameters,
+ * thresholds, SQL and output settings. Instances are shared between runs
+ * through {@link DetectorConfigLoader}'s cache.
+ */
+public final class DetectorConfig {
+
+    private final String path;
+    private final String name;
+    private final String reportType;
+    private final String domain;
+    private final String version;
+    private final Map<String, Object> parameters;
+    private final Map<String, Object> thresholds;
+    private final String sql;
+    private final String outputFormat;
+    private final List<String> outputColumns;
+
+    DetectorConfig(String path, String name, String reportType, String domain, String version,
+                   Map<String, Object> parameters, Map<String, Object> thresholds, String sql,
+                   String outputFormat, List<String> outputColumns) {
+        this.path = path;
+        this.name = name;
+        this.reportType = reportType;
+        this.domain = domain;
+        this.version = version;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.thresholds = Collections.unmodifiableMap(new LinkedHashMap<>(thresholds));
+        this.sql = sql;
+        this.outputFormat = outputFormat;
+        this.outputColumns = List.copyOf(outputColumns);
+    }
+
+    public String getPath() { return path; }
+    public String getName() { return name; }
+    public String getReportType() { return reportType; }
+    public String getDomain() { return domain; }
+    public String getVersion() { return version; }
+    public Map<String, Object> getParameters() { return parameters; }
+    public Map<String, Object> getThresholds() { return thresholds; }
+    public String getSql() { return sql; }
+    public String getOutputFormat() { return outputFormat; }
+    public List<String> getOutputColumns() { return outputColumns; }
+
+    /**
+     * Whether a key is set in the parameters or thresholds section.
+     */
+    public boolean has(String key) {
+        return value(key) != null;
+    }
+
+    /**
+     * Numeric setting from the parameters section, falling back to thresholds.
+     */
+    public double getDouble(String key, double defaultValue) {
+        Object value = value(key);
+        return value != null ? toNumber(key, value).doubleValue() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = value(key);
+        return value != null ? toNumber(key, value).intValue() : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = value(key);
+        return value != null ? toNumber(key, value).longValue() : defaultValue;
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = value(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private Object value(String key) {
+        Object value = parameters.get(key);
+        return value != null ? value : thresholds.get(key);
+    }
+
+    private Number toNumber(String key, Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        try {
+            return Double.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Config " + path + ": " + key + " is not a number: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + reportType + " v" + version + ", " + path + ")";
+    }
+}
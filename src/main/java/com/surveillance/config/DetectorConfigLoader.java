@@ -0,0 +1,172 @@
+package com.surveillance.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+/**
+ * Parses detector YML configs into {@link DetectorConfig}s and caches them
+ * keyed by absolute path. A cached config is reused while the file's
+ * modification time and size are unchanged, so repeated runs cost one file
+ * stat instead of a YAML parse. Configs in a directory watched by a
+ * {@link ConfigWatcher} come from its current snapshot instead.
+ */
+public final class DetectorConfigLoader {
+
+    private static final Map<Path, Entry> CACHE = new ConcurrentHashMap<>();
+    private static final Map<Path, ConfigWatcher> WATCHERS = new ConcurrentHashMap<>();
+
+    private DetectorConfigLoader() {
+    }
+
+    /**
+     * Cached config for a path, or {@code null} if the file does not exist.
+     *
+     * @throws UncheckedIOException  if the file cannot be read
+     * @throws IllegalStateException if the file is not a valid detector config
+     */
+    public static DetectorConfig load(String path) {
+        return load(Paths.get(path));
+    }
+
+    public static DetectorConfig load(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        if (!WATCHERS.isEmpty()) {
+            ConfigWatcher watcher = WATCHERS.get(key.getParent());
+            if (watcher != null) {
+                return watcher.getSnapshot().get(key);
+            }
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            CACHE.remove(key);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        Entry entry = CACHE.get(key);
+        if (entry != null && entry.modified == modified && entry.size == size) {
+            return entry.config;
+        }
+        DetectorConfig config = parse(key);
+        CACHE.put(key, new Entry(config, modified, size));
+        return config;
+    }
+
+    /**
+     * Parse a config file without consulting the cache.
+     */
+    public static DetectorConfig parse(Path path) {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(path.toString(), reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parse a config document. The document has a single top-level key (the
+     * config name) holding metadata, parameters, thresholds, sql and output.
+     */
+    public static DetectorConfig parse(String path, Reader reader) {
+        Object document = new Yaml(new SafeConstructor(new LoaderOptions())).load(reader);
+        if (!(document instanceof Map) || ((Map<?, ?>) document).size() != 1) {
+            throw new IllegalStateException("Config " + path + " must have a single top-level section");
+        }
+        Map.Entry<?, ?> root = ((Map<?, ?>) document).entrySet().iterator().next();
+        Map<String, Object> body = section(path, root.getValue(), root.getKey().toString());
+        Map<String, Object> metadata = section(path, body.get("metadata"), "metadata");
+        Map<String, Object> output = section(path, body.get("output"), "output");
+
+        Object name = metadata.getOrDefault("name", root.getKey());
+        Object reportType = metadata.get("report_type");
+        if (reportType == null) {
+            throw new IllegalStateException("Config " + path + " has no metadata.report_type");
+        }
+        return new DetectorConfig(
+            path,
+            name.toString(),
+            reportType.toString(),
+            string(metadata.get("domain")),
+            string(metadata.get("version")),
+            section(path, body.get("parameters"), "parameters"),
+            section(path, body.get("thresholds"), "thresholds"),
+            string(body.get("sql")),
+            string(output.get("format")),
+            columns(path, output.get("columns")));
+    }
+
+    /**
+     * Drop all cached configs.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    static void register(ConfigWatcher watcher) {
+        WATCHERS.put(watcher.getDirectory(), watcher);
+    }
+
+    static void unregister(ConfigWatcher watcher) {
+        WATCHERS.remove(watcher.getDirectory(), watcher);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(String path, Object value, String name) {
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalStateException("Config " + path + ": " + name + " must be a mapping");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static List<String> columns(String path, Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalStateException("Config " + path + ": output.columns must be a list");
+        }
+        List<String> columns = new ArrayList<>();
+        for (Object column : (List<?>) value) {
+            columns.add(column.toString());
+        }
+        return columns;
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static final class Entry {
+        final DetectorConfig config;
+        final long modified;
+        final long size;
+
+        Entry(DetectorConfig config, long modified, long size) {
+            this.config = config;
+            this.modified = modified;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.surveillance.core;
+
+import com.surveillance.data.Dictionary;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Column store behind {@link DetectionResult}. Each alert is a row of
+ * primitives: type and severity ordinals, dictionary ids for account and
+ * symbol, the trade or order id, the timestamp, and its arguments packed
+ * into a shared {@code long[]}. A row takes about 60 bytes instead of an
+ * object with seven strings, and descriptions are only formatted when a row
+ * is read back as an {@link DetectionResult.Alert}.
+ */
+final class AlertColumns {
+
+    private static final AlertType[] TYPES = AlertType.values();
+    private static final Severity[] SEVERITIES = Severity.values();
+    private static final int INITIAL_CAPACITY = 64;
+    /** Fixed bytes per row: type, severity, two dictionary ids, id, timestamp, arg offset. */
+    private static final int ROW_BYTES = 1 + 1 + 4 + 4 + 8 + 8 + 4;
+    /** Rough heap cost of one dictionary entry: the string, its map entry and list slot. */
+    private static final int DICTIONARY_ENTRY_BYTES = 96;
+
+    private final Dictionary accounts = new Dictionary();
+    private final Dictionary symbols = new Dictionary();
+    private final Dictionary strings = new Dictionary();
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] severities = new byte[INITIAL_CAPACITY];
+    private int[] accountIds = new int[INITIAL_CAPACITY];
+    private int[] symbolIds = new int[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] argStarts = new int[INITIAL_CAPACITY];
+    private long[] args = new long[INITIAL_CAPACITY * 4];
+    private int size;
+    private int argSize;
+
+    void add(AlertType type, Severity severity, long id, String accountId, String symbol,
+             long timestampNanos, Object[] descriptionArgs) {
+        int argCount = type.getArgCount();
+        if (descriptionArgs.length != argCount) {
+            throw new IllegalArgumentException(type + " takes " + argCount
+                + " arguments, got " + descriptionArgs.length);
+        }
+        if (size == types.length) {
+            grow();
+        }
+        if (argSize + argCount > args.length) {
+            args = Arrays.copyOf(args, Math.max(args.length * 2, argSize + argCount));
+        }
+        types[size] = (byte) type.ordinal();
+        severities[size] = (byte) severity.ordinal();
+        accountIds[size] = accounts.encode(accountId);
+        symbolIds[size] = symbols.encode(symbol);
+        ids[size] = id;
+        timestamps[size] = timestampNanos;
+        argStarts[size] = argSize;
+        for (int i = 0; i < argCount; i++) {
+            args[argSize++] = encodeArg(type.getArgKind(i), descriptionArgs[i]);
+        }
+        size++;
+    }
+
+    DetectionResult.Alert get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Alert " + row + " of " + size);
+        }
+        AlertType type = TYPES[types[row]];
+        Object[] descriptionArgs = new Object[type.getArgCount()];
+        for (int i = 0; i < descriptionArgs.length; i++) {
+            descriptionArgs[i] = decodeArg(type.getArgKind(i), args[argStarts[row] + i]);
+        }
+        return new DetectionResult.Alert(type, SEVERITIES[severities[row]], ids[row],
+            accounts.decode(accountIds[row]), symbols.decode(symbolIds[row]), timestamps[row], descriptionArgs);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap used by the stored rows and their dictionaries.
+     */
+    long estimatedBytes() {
+        long dictionaryEntries = (long) accounts.size() + symbols.size() + strings.size();
+        return (long) size * ROW_BYTES + (long) argSize * Long.BYTES + dictionaryEntries * DICTIONARY_ENTRY_BYTES;
+    }
+
+    /**
+     * Row numbers in timestamp order, ties in insertion order. Each row is
+     * packed with its timestamp into one long, the time offset from the
+     * earliest row in the high bits and the row number in the low bits, and
+     * the longs are sorted as primitives. When the time span is too wide to
+     * share a long with the row number, timestamps are replaced by their rank.
+     */
+    int[] sortedRows() {
+        if (size == 0) {
+            return new int[0];
+        }
+        int rowBits = 64 - Long.numberOfLeadingZeros(size - 1);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, timestamps[i]);
+            max = Math.max(max, timestamps[i]);
+        }
+        long[] keys = new long[size];
+        long span = max - min;
+        if (span >>> (63 - rowBits) == 0) {
+            for (int i = 0; i < size; i++) {
+                keys[i] = (timestamps[i] - min) << rowBits | i;
+            }
+        } else {
+            long[] ranks = Arrays.copyOf(timestamps, size);
+            Arrays.sort(ranks);
+            for (int i = 0; i < size; i++) {
+                keys[i] = (long) Arrays.binarySearch(ranks, timestamps[i]) << rowBits | i;
+            }
+        }
+        Arrays.sort(keys);
+        long rowMask = (1L << rowBits) - 1;
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (int) (keys[i] & rowMask);
+        }
+        return sorted;
+    }
+
+    /**
+     * Drop all rows and dictionary entries, keeping the allocated arrays.
+     */
+    void clear() {
+        accounts.clear();
+        symbols.clear();
+        strings.clear();
+        size = 0;
+        argSize = 0;
+    }
+
+    /**
+     * Write one row with its strings inline, in the format read by {@link #readAlert}.
+     */
+    void writeRow(DataOutput out, int row) throws IOException {
+        AlertType type = TYPES[types[row]];
+        out.writeByte(types[row]);
+        out.writeByte(severities[row]);
+        out.writeLong(ids[row]);
+        out.writeLong(timestamps[row]);
+        writeString(out, accounts.decode(accountIds[row]));
+        writeString(out, symbols.decode(symbolIds[row]));
+        for (int i = 0; i < type.getArgCount(); i++) {
+            long value = args[argStarts[row] + i];
+            if (type.getArgKind(i) == AlertType.ArgKind.STRING) {
+                writeString(out, strings.decode((int) value));
+            } else {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    static DetectionResult.Alert readAlert(DataInput in) throws IOException {
+        AlertType type = TYPES[in.readByte()];
+        Severity severity = SEVERITIES[in.readByte()];
+        long id = in.readLong();
+        long timestampNanos = in.readLong();
+        String accountId = readString(in);
+        String symbol = readString(in);
+        Object[] descriptionArgs = new Object[type.getArgCount()];
+        for (int i = 0; i < descriptionArgs.length; i++) {
+            AlertType.ArgKind kind = type.getArgKind(i);
+            if (kind == AlertType.ArgKind.STRING) {
+                descriptionArgs[i] = readString(in);
+            } else if (kind == AlertType.ArgKind.DOUBLE) {
+                descriptionArgs[i] = Double.longBitsToDouble(in.readLong());
+            } else {
+                descriptionArgs[i] = in.readLong();
+            }
+        }
+        return new DetectionResult.Alert(type, severity, id, accountId, symbol, timestampNanos, descriptionArgs);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private long encodeArg(AlertType.ArgKind kind, Object value) {
+        switch (kind) {
+            case LONG:
+            case TIMESTAMP:
+                return ((Number) value).longValue();
+            case DOUBLE:
+                return Double.doubleToRawLongBits(((Number) value).doubleValue());
+            default:
+                return strings.encode(String.valueOf(value));
+        }
+    }
+
+    private Object decodeArg(AlertType.ArgKind kind, long value) {
+        switch (kind) {
+            case LONG:
+            case TIMESTAMP:
+                return value;
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            default:
+                return strings.decode((int) value);
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        severities = Arrays.copyOf(severities, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        argStarts = Arrays.copyOf(argStarts, capacity);
+    }
+}
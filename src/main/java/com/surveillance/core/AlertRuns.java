@@ -0,0 +1,205 @@
+package com.surveillance.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted runs of alerts spilled to temp files by a {@link DetectionResult}
+ * that went over its memory budget. Each run holds the rows that were in
+ * memory at the time, in timestamp order; reading merges the runs and the
+ * rows still in memory into one timestamp-ordered stream, holding a single
+ * buffered alert per run.
+ */
+final class AlertRuns {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<Path> files = new ArrayList<>();
+
+    /**
+     * Write the rows in timestamp order to a new run file and clear them.
+     */
+    void spill(AlertColumns columns) {
+        try {
+            Path file = Files.createTempFile("alerts-", ".run");
+            files.add(file);
+            try (DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+                for (int row : columns.sortedRows()) {
+                    columns.writeRow(out, row);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        columns.clear();
+    }
+
+    int size() {
+        return files.size();
+    }
+
+    /**
+     * Merge all runs with the rows still in memory. Each source closes its
+     * file once exhausted, and closing the merge closes the rest;
+     * {@link #delete()} removes the files.
+     */
+    Merge merge(AlertColumns tail) {
+        PriorityQueue<Source> queue = new PriorityQueue<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                offer(queue, new FileSource(i, files.get(i)));
+            }
+        } catch (IOException e) {
+            queue.forEach(Source::close);
+            throw new UncheckedIOException(e);
+        }
+        offer(queue, new TailSource(files.size(), tail));
+        return new Merge(queue);
+    }
+
+    static final class Merge implements Iterator<DetectionResult.Alert>, AutoCloseable {
+        private final PriorityQueue<Source> queue;
+
+        private Merge(PriorityQueue<Source> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public DetectionResult.Alert next() {
+            Source source = queue.poll();
+            if (source == null) {
+                throw new NoSuchElementException();
+            }
+            DetectionResult.Alert alert = source.current;
+            if (source.advance()) {
+                queue.add(source);
+            } else {
+                source.close();
+            }
+            return alert;
+        }
+
+        @Override
+        public void close() {
+            queue.forEach(Source::close);
+            queue.clear();
+        }
+    }
+
+    private static void offer(PriorityQueue<Source> queue, Source source) {
+        if (source.current != null) {
+            queue.add(source);
+        } else {
+            source.close();
+        }
+    }
+
+    void delete() {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete alert run " + file + ": " + e.getMessage());
+            }
+        }
+        files.clear();
+    }
+
+    /**
+     * One sorted input to the merge; ties go to the earlier run so alerts
+     * with equal timestamps keep their insertion order.
+     */
+    private abstract static class Source implements Comparable<Source> {
+        final int order;
+        DetectionResult.Alert current;
+
+        Source(int order) {
+            this.order = order;
+        }
+
+        abstract boolean advance();
+
+        void close() {
+        }
+
+        @Override
+        public int compareTo(Source other) {
+            int byTime = Long.compare(current.getTimestampNanos(), other.current.getTimestampNanos());
+            return byTime != 0 ? byTime : Integer.compare(order, other.order);
+        }
+    }
+
+    private static final class FileSource extends Source {
+        private final DataInputStream in;
+
+        FileSource(int order, Path file) throws IOException {
+            super(order);
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            advance();
+        }
+
+        @Override
+        boolean advance() {
+            try {
+                current = AlertColumns.readAlert(in);
+                return true;
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // read-only; nothing to flush
+            }
+        }
+    }
+
+    private static final class TailSource extends Source {
+        private final AlertColumns columns;
+        private final int[] rows;
+        private int next;
+
+        TailSource(int order, AlertColumns columns) {
+            super(order);
+            this.columns = columns;
+            this.rows = columns.sortedRows();
+            advance();
+        }
+
+        @Override
+        boolean advance() {
+            if (next == rows.length) {
+                current = null;
+                return false;
+            }
+            current = columns.get(rows[next++]);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.surveillance.core;
+
+import java.io.Closeable;
+
+/**
+ * Receives alerts as detectors find them.
+ * A {@link DetectionResult} created with a sink forwards every alert to it
+ * instead of keeping it in memory, so report output can start while detection
+ * is still running and memory stays flat regardless of alert volume.
+ *
+ * Write failures are reported as {@link java.io.UncheckedIOException}.
+ */
+public interface AlertSink extends Closeable {
+
+    /**
+     * Write one alert.
+     */
+    void accept(DetectionResult.Alert alert);
+
+    /**
+     * Write any trailer for the finished run (counts, timings). Called once,
+     * after the last alert and before {@link #close()}.
+     */
+    void complete(DetectionResult result);
+}
@@ -0,0 +1,158 @@
+package com.surveillance.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Kind of alert. Each type knows the prefix of the trade or order id it
+ * refers to and the template its description is formatted from, so a
+ * {@link DetectionResult} only needs to keep the template arguments. The
+ * arguments are named so reports can project them as columns; after the
+ * template arguments come report-only columns (times, prices) that the
+ * description does not use.
+ */
+public enum AlertType {
+    WASH_TRADE("TRD-", "trade_id",
+        "Potential wash trade detected: BUY TRD-%d matched SELL TRD-%d within %ds (price diff %.4f%%)",
+        names("buy_trade_id", "sell_trade_id", "time_gap_seconds", "price_diff_pct"),
+        column("buy_time", ArgKind.TIMESTAMP), column("sell_time", ArgKind.TIMESTAMP),
+        column("quantity", ArgKind.LONG), column("buy_price", ArgKind.DOUBLE), column("sell_price", ArgKind.DOUBLE)),
+    SPOOFING("ORD-", "order_id",
+        "High cancel rate detected: %s order cancelled after %dms at %.1fx average size (cancel rate %.0f%% over %d orders)",
+        names("side", "order_lifetime_ms", "size_multiplier", "cancel_rate_pct", "total_orders"),
+        column("order_time", ArgKind.TIMESTAMP), column("cancel_time", ArgKind.TIMESTAMP),
+        column("quantity", ArgKind.LONG), column("price", ArgKind.DOUBLE)),
+    FRONT_RUNNING("TRD-", "trade_id",
+        "Potential front running: employee %s %s %d traded %dms before customer order ORD-%d for %d",
+        names("employee_id", "employee_side", "employee_quantity", "time_before_large_order",
+            "large_order_id", "large_order_quantity"),
+        column("employee_trade_time", ArgKind.TIMESTAMP), column("large_order_time", ArgKind.TIMESTAMP));
+
+    private final String idPrefix;
+    private final String idColumn;
+    private final String template;
+    private final ArgKind[] templateKinds;
+    private final List<String> argNames;
+    private final ArgKind[] columnKinds;
+
+    AlertType(String idPrefix, String idColumn, String template, String[] templateArgNames, Column... columns) {
+        this.idPrefix = idPrefix;
+        this.idColumn = idColumn;
+        this.template = template;
+        this.templateKinds = argKinds(template);
+        if (templateArgNames.length != templateKinds.length) {
+            throw new IllegalStateException(name() + " names " + templateArgNames.length
+                + " of " + templateKinds.length + " template arguments");
+        }
+        List<String> names = new ArrayList<>(List.of(templateArgNames));
+        this.columnKinds = new ArgKind[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names.add(columns[i].name);
+            columnKinds[i] = columns[i].kind;
+        }
+        this.argNames = List.copyOf(names);
+    }
+
+    public String getIdPrefix() {
+        return idPrefix;
+    }
+
+    /**
+     * Report column name of the prefixed id, e.g. {@code order_id}.
+     */
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * Report column names of the arguments: the template arguments in
+     * template order, then the report-only columns.
+     */
+    public List<String> getArgNames() {
+        return argNames;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Number of arguments an alert of this type carries, template arguments
+     * and report-only columns together.
+     */
+    public int getArgCount() {
+        return argNames.size();
+    }
+
+    ArgKind getArgKind(int index) {
+        int templateArgs = templateKinds.length;
+        return index < templateArgs ? templateKinds[index] : columnKinds[index - templateArgs];
+    }
+
+    /**
+     * Format the description from its template arguments in {@link Locale#ROOT},
+     * so descriptions do not depend on the default locale. Report-only columns
+     * after the template arguments are ignored.
+     */
+    public String describe(Object... args) {
+        return String.format(Locale.ROOT, template, args);
+    }
+
+    /**
+     * How an argument is stored: {@code %d} as a long, {@code %f} as the bits
+     * of a double, anything else as a dictionary-encoded string. A timestamp
+     * column is epoch nanoseconds stored as a long and formatted by reports.
+     */
+    enum ArgKind {
+        LONG,
+        DOUBLE,
+        STRING,
+        TIMESTAMP
+    }
+
+    private static ArgKind[] argKinds(String template) {
+        List<ArgKind> kinds = new ArrayList<>();
+        // Enum constants are built before static fields, so compile here
+        Matcher matcher = Pattern.compile("%[-#+ 0,(]*\\d*(?:\\.\\d+)?([a-zA-Z%])").matcher(template);
+        while (matcher.find()) {
+            switch (matcher.group(1)) {
+                case "%":
+                case "n":
+                    break;
+                case "d":
+                case "x":
+                    kinds.add(ArgKind.LONG);
+                    break;
+                case "f":
+                case "e":
+                case "g":
+                    kinds.add(ArgKind.DOUBLE);
+                    break;
+                default:
+                    kinds.add(ArgKind.STRING);
+            }
+        }
+        return kinds.toArray(new ArgKind[0]);
+    }
+
+    private static String[] names(String... names) {
+        return names;
+    }
+
+    private static Column column(String name, ArgKind kind) {
+        return new Column(name, kind);
+    }
+
+    private static final class Column {
+        final String name;
+        final ArgKind kind;
+
+        Column(String name, ArgKind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+}
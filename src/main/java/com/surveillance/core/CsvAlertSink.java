@@ -0,0 +1,182 @@
+package com.surveillance.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Writes alerts as CSV rows as they arrive, followed by a commented summary.
+ * Values are quoted per RFC 4180 by a commons-csv {@link CSVPrinter}.
+ *
+ * The columns can be projected: besides the default columns, any name in an
+ * {@link AlertType}'s id column or argument names (e.g. {@code sell_trade_id},
+ * {@code cancel_rate_pct}, {@code buy_time}) can be selected, as listed in a
+ * detector config's {@code output.columns}. Names match ignoring case and
+ * underscores, so {@code account_id} and {@code AccountId} are the same
+ * column. Time columns are formatted like {@code Timestamp}. A column an
+ * alert type does not carry is left empty, so the header always matches the
+ * requested list.
+ */
+public class CsvAlertSink implements AlertSink {
+
+    /** Columns written when no projection is given. */
+    public static final List<String> DEFAULT_COLUMNS = List.of(
+        "TradeId", "AccountId", "Symbol", "AlertType", "Severity", "Description", "Timestamp");
+
+    private static final CSVFormat FORMAT = CSVFormat.RFC4180.builder()
+        .setRecordSeparator('\n')
+        .setCommentMarker('#')
+        .build();
+    private static final AlertType[] TYPES = AlertType.values();
+
+    // Column codes; arguments are resolved per alert type
+    private static final int TRADE_ID = 0;
+    private static final int ACCOUNT_ID = 1;
+    private static final int SYMBOL = 2;
+    private static final int ALERT_TYPE = 3;
+    private static final int SEVERITY = 4;
+    private static final int DESCRIPTION = 5;
+    private static final int TIMESTAMP = 6;
+    private static final int TYPED = 7;
+
+    private final CSVPrinter printer;
+    private final int[] columns;
+    /** Per alert type and column: -2 for the id, the argument index, or -1 if absent. */
+    private final int[][] typedColumns;
+
+    public CsvAlertSink(Writer out) {
+        this(out, null);
+    }
+
+    /**
+     * @param columns column names to write, in order; {@code null} or empty
+     *                for {@link #DEFAULT_COLUMNS}
+     */
+    public CsvAlertSink(Writer out, List<String> columns) {
+        List<String> names = columns == null || columns.isEmpty() ? DEFAULT_COLUMNS : columns;
+        this.columns = new int[names.size()];
+        this.typedColumns = new int[TYPES.length][names.size()];
+        for (int c = 0; c < names.size(); c++) {
+            String key = key(names.get(c));
+            this.columns[c] = builtIn(key);
+            if (this.columns[c] == TYPED) {
+                resolveTyped(key, c);
+            }
+        }
+        try {
+            this.printer = new CSVPrinter(new BufferedWriter(out, JsonAlertSink.BUFFER_SIZE), FORMAT);
+            printer.printRecord(names);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(DetectionResult.Alert alert) {
+        try {
+            int[] typed = typedColumns[alert.getType().ordinal()];
+            for (int c = 0; c < columns.length; c++) {
+                printer.print(value(alert, columns[c], typed[c]));
+            }
+            printer.println();
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException("Error writing CSV report", e));
+        }
+    }
+
+    @Override
+    public void complete(DetectionResult result) {
+        try {
+            printer.println();
+            printer.printComment("Summary");
+            printer.printComment("Report Type: " + result.getReportType());
+            printer.printComment("Total Alerts: " + result.getAlertCount());
+            printer.printComment("Execution Time: " + result.getExecutionTimeMs() + " ms");
+            printer.printComment("Generated: " + Timestamps.format(Timestamps.now()));
+            printer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException("Error writing CSV report", e));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        printer.close();
+    }
+
+    private Object value(DetectionResult.Alert alert, int column, int typed) {
+        switch (column) {
+            case TRADE_ID:
+                return alert.getTradeId();
+            case ACCOUNT_ID:
+                return alert.getAccountId();
+            case SYMBOL:
+                return alert.getSymbol();
+            case ALERT_TYPE:
+                return alert.getAlertType();
+            case SEVERITY:
+                return alert.getSeverity();
+            case DESCRIPTION:
+                return alert.getDescription();
+            case TIMESTAMP:
+                return Timestamps.format(alert.getTimestampNanos());
+            default:
+                if (typed == -2) {
+                    return alert.getTradeId();
+                }
+                if (typed < 0) {
+                    return null;
+                }
+                Object arg = alert.getArg(typed);
+                return alert.getType().getArgKind(typed) == AlertType.ArgKind.TIMESTAMP
+                    ? Timestamps.format((Long) arg) : arg;
+        }
+    }
+
+    private void resolveTyped(String key, int column) {
+        for (AlertType type : TYPES) {
+            int index = -1;
+            if (key(type.getIdColumn()).equals(key)) {
+                index = -2;
+            } else {
+                List<String> argNames = type.getArgNames();
+                for (int a = 0; a < argNames.size(); a++) {
+                    if (key(argNames.get(a)).equals(key)) {
+                        index = a;
+                    }
+                }
+            }
+            typedColumns[type.ordinal()][column] = index;
+        }
+    }
+
+    private static int builtIn(String key) {
+        switch (key) {
+            case "tradeid":
+                return TRADE_ID;
+            case "accountid":
+                return ACCOUNT_ID;
+            case "symbol":
+                return SYMBOL;
+            case "alerttype":
+                return ALERT_TYPE;
+            case "severity":
+                return SEVERITY;
+            case "description":
+                return DESCRIPTION;
+            case "timestamp":
+                return TIMESTAMP;
+            default:
+                return TYPED;
+        }
+    }
+
+    private static String key(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
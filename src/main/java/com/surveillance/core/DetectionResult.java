@@ -1,29 +1,96 @@
 package com.surveillance.core;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents the result of a surveillance detection run.
+ * Alerts are kept column-wise (see {@link AlertColumns}) and read back as
+ * {@link Alert} views through {@link #getAlerts()}.
+ * When created with an {@link AlertSink}, alerts are forwarded to the sink as
+ * they are added and only counted here; such a result has no alerts to read,
+ * so {@link #getAlerts()} and {@link #readAlerts()} throw.
+ *
+ * Kept alerts that outgrow the memory budget are spilled to temp files as
+ * timestamp-sorted runs (see {@link AlertRuns}). A spilled result is read
+ * back with {@link #readAlerts()}, which merges the runs in timestamp order,
+ * and its files are removed by {@link #deleteSpillFiles()}, which whoever
+ * consumes the result calls: {@link ReportGenerator#generateReport} and the
+ * merge in {@link ParallelScanDriver} do.
  */
 public class DetectionResult {
+
+    /**
+     * Default memory budget for kept alerts, overridable with the
+     * {@code surveillance.alertMemoryBudget} system property (bytes).
+     */
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES =
+        Long.getLong("surveillance.alertMemoryBudget", 256L * 1024 * 1024);
+
     private String reportType;
     private int alertCount;
-    private List<Alert> alerts;
+    private AlertColumns alerts;
+    private final AlertRuns runs = new AlertRuns();
+    private long memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES;
     private String summary;
     private long executionTimeMs;
+    private AlertSink sink;
+    private boolean spillDeleted;
 
     public DetectionResult(String reportType) {
         this.reportType = reportType;
-        this.alerts = new ArrayList<>();
+        this.alerts = new AlertColumns();
         this.alertCount = 0;
     }
 
-    public void addAlert(Alert alert) {
-        alerts.add(alert);
+    public DetectionResult(String reportType, AlertSink sink) {
+        this(reportType);
+        this.sink = sink;
+    }
+
+    /**
+     * Add an alert. The description is not formatted here; the arguments
+     * are kept and applied to the type's template when the alert is read.
+     *
+     * @param id              trade or order id, without the type's prefix
+     * @param descriptionArgs arguments for {@link AlertType#getTemplate()} followed by the
+     *                        type's report-only columns; see {@link AlertType#getArgNames()}
+     */
+    public void addAlert(AlertType type, Severity severity, long id, String accountId, String symbol,
+                         long timestampNanos, Object... descriptionArgs) {
+        if (sink != null) {
+            sink.accept(new Alert(type, severity, id, accountId, symbol, timestampNanos, descriptionArgs));
+        } else {
+            alerts.add(type, severity, id, accountId, symbol, timestampNanos, descriptionArgs);
+            if (alerts.estimatedBytes() > memoryBudgetBytes) {
+                runs.spill(alerts);
+            }
+        }
         alertCount++;
     }
 
+    public void addAlert(Alert alert) {
+        addAlert(alert.type, alert.severity, alert.id, alert.accountId, alert.symbol,
+            alert.timestampNanos, alert.descriptionArgs);
+    }
+
+    /**
+     * Add every alert kept by another result.
+     */
+    public void addAll(DetectionResult other) {
+        try (AlertReader reader = other.readAlerts()) {
+            for (Alert alert : reader) {
+                addAlert(alert);
+            }
+        }
+    }
+
+    public boolean isStreaming() {
+        return sink != null;
+    }
+
     public String getReportType() {
         return reportType;
     }
@@ -32,8 +99,77 @@ public class DetectionResult {
         return alertCount;
     }
 
+    /**
+     * Read-only view of the kept alerts; each element is materialized on access.
+     *
+     * @throws IllegalStateException if alerts were spilled to disk, in which
+     *                               case use {@link #readAlerts()}, or
+     *                               streamed to a sink
+     */
     public List<Alert> getAlerts() {
-        return alerts;
+        checkReadable();
+        if (isSpilled()) {
+            throw new IllegalStateException(alertCount + " " + reportType
+                + " alerts were spilled to disk; read them with readAlerts()");
+        }
+        return new AlertList();
+    }
+
+    /**
+     * All kept alerts in timestamp order, ties in insertion order, whether
+     * or not they were spilled. The reader holds the spill files open until
+     * it is exhausted or closed, so close it, also when it is not read to
+     * the end.
+     *
+     * @throws java.io.UncheckedIOException if a spill file cannot be read
+     * @throws IllegalStateException if the spill files were deleted or the
+     *                               alerts were streamed to a sink
+     */
+    public AlertReader readAlerts() {
+        checkReadable();
+        return new AlertReader(runs.merge(alerts));
+    }
+
+    public boolean isSpilled() {
+        return runs.size() > 0;
+    }
+
+    /**
+     * Number of runs written to disk so far.
+     */
+    public int getSpillCount() {
+        return runs.size();
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    /**
+     * Spill kept alerts to disk once their estimated size exceeds this many bytes.
+     */
+    public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Remove the spill files. The alerts in them are no longer readable, so
+     * reading this result afterwards fails.
+     */
+    public void deleteSpillFiles() {
+        spillDeleted |= isSpilled();
+        runs.delete();
+    }
+
+    private void checkReadable() {
+        if (sink != null) {
+            throw new IllegalStateException(alertCount + " " + reportType
+                + " alerts were streamed to a sink and not kept");
+        }
+        if (spillDeleted) {
+            throw new IllegalStateException(alertCount + " " + reportType
+                + " alerts were spilled to disk and their files deleted");
+        }
     }
 
     public String getSummary() {
@@ -52,46 +188,122 @@ public class DetectionResult {
         this.executionTimeMs = executionTimeMs;
     }
 
+    /**
+     * One pass over the alerts of a result; see {@link #readAlerts()}.
+     */
+    public static final class AlertReader implements Iterable<Alert>, AutoCloseable {
+        private final AlertRuns.Merge merge;
+        private boolean iterated;
+
+        private AlertReader(AlertRuns.Merge merge) {
+            this.merge = merge;
+        }
+
+        /**
+         * @throws IllegalStateException on a second call; open another reader instead
+         */
+        @Override
+        public Iterator<Alert> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("An alert reader can be iterated once");
+            }
+            iterated = true;
+            return merge;
+        }
+
+        @Override
+        public void close() {
+            merge.close();
+        }
+    }
+
+    private final class AlertList extends AbstractList<Alert> implements RandomAccess {
+        @Override
+        public Alert get(int index) {
+            return alerts.get(index);
+        }
+
+        @Override
+        public int size() {
+            return alerts.size();
+        }
+    }
+
     /**
      * Represents a single surveillance alert.
      */
     public static class Alert {
-        private String tradeId;
-        private String accountId;
-        private String symbol;
-        private String alertType;
-        private String severity;
+        private final AlertType type;
+        private final Severity severity;
+        private final long id;
+        private final String accountId;
+        private final String symbol;
+        private final long timestampNanos;
+        private final Object[] descriptionArgs;
         private String description;
-        private String timestamp;
 
-        public Alert(String tradeId, String accountId, String symbol, String alertType) {
-            this.tradeId = tradeId;
+        public Alert(AlertType type, Severity severity, long id, String accountId, String symbol,
+                     long timestampNanos, Object... descriptionArgs) {
+            this.type = type;
+            this.severity = severity;
+            this.id = id;
             this.accountId = accountId;
             this.symbol = symbol;
-            this.alertType = alertType;
-            this.severity = "MEDIUM";
+            this.timestampNanos = timestampNanos;
+            this.descriptionArgs = descriptionArgs;
         }
 
-        // Getters and setters
-        public String getTradeId() { return tradeId; }
-        public void setTradeId(String tradeId) { this.tradeId = tradeId; }
-        
+        /**
+         * Alert with MEDIUM severity, no event time and no description
+         * arguments, as built before alerts carried their type's arguments.
+         * Its description is {@code null}, and it cannot be added to a
+         * result, which needs the arguments.
+         *
+         * @param tradeId   prefixed id, e.g. {@code TRD-42}
+         * @param alertType name of an {@link AlertType}
+         * @deprecated use {@link #Alert(AlertType, Severity, long, String, String, long, Object...)}
+         */
+        @Deprecated
+        public Alert(String tradeId, String accountId, String symbol, String alertType) {
+            this(AlertType.valueOf(alertType), Severity.MEDIUM, parseId(AlertType.valueOf(alertType), tradeId),
+                accountId, symbol, 0L);
+        }
+
+        private static long parseId(AlertType type, String tradeId) {
+            if (!tradeId.startsWith(type.getIdPrefix())) {
+                throw new IllegalArgumentException("Expected a " + type.getIdPrefix() + " id: " + tradeId);
+            }
+            return Long.parseLong(tradeId.substring(type.getIdPrefix().length()));
+        }
+
+        public AlertType getType() { return type; }
+        public Severity getSeverityLevel() { return severity; }
+
+        /** Trade or order id without its prefix. */
+        public long getId() { return id; }
+
+        /** Prefixed id, e.g. {@code TRD-42}. */
+        public String getTradeId() { return type.getIdPrefix() + id; }
+
         public String getAccountId() { return accountId; }
-        public void setAccountId(String accountId) { this.accountId = accountId; }
-        
         public String getSymbol() { return symbol; }
-        public void setSymbol(String symbol) { this.symbol = symbol; }
-        
-        public String getAlertType() { return alertType; }
-        public void setAlertType(String alertType) { this.alertType = alertType; }
-        
-        public String getSeverity() { return severity; }
-        public void setSeverity(String severity) { this.severity = severity; }
-        
-        public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
-        
-        public String getTimestamp() { return timestamp; }
-        public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+        public String getAlertType() { return type.name(); }
+        public String getSeverity() { return severity.name(); }
+
+        public String getDescription() {
+            if (description == null && descriptionArgs.length > 0) {
+                description = type.describe(descriptionArgs);
+            }
+            return description;
+        }
+
+        /** Event time in epoch nanoseconds; see {@link Timestamps#format}. */
+        public long getTimestampNanos() { return timestampNanos; }
+
+        /** Event time as {@code yyyy-MM-dd HH:mm:ss}; see {@link Timestamps#format}. */
+        public String getTimestamp() { return Timestamps.format(timestampNanos); }
+
+        /** Argument by position; see {@link AlertType#getArgNames()}. */
+        public Object getArg(int index) { return descriptionArgs[index]; }
     }
 }
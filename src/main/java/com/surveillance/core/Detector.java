@@ -0,0 +1,67 @@
+package com.surveillance.core;
+
+import com.surveillance.config.DetectorConfig;
+
+/**
+ * Service provider interface for surveillance detectors.
+ * A run is {@link #begin()}, any number of {@link #onTrade} and {@link #onOrder}
+ * calls in time order, then {@link #finish()}. Implementations are discovered by
+ * {@link DetectorRegistry} and can share a single pass over the event stream
+ * through {@link ScanDriver}.
+ *
+ * Events passed to a detector may be reused by the caller once the call
+ * returns, so implementations must copy anything they keep.
+ */
+public interface Detector {
+
+    /**
+     * Report type produced by this detector, e.g. "wash_trade".
+     */
+    String getReportType();
+
+    /**
+     * YML config the detector's defaults came from, or {@code null} if it has none.
+     */
+    default DetectorConfig getConfig() {
+        return null;
+    }
+
+    /**
+     * Trades the configured run can use. Callers holding partitioned data
+     * may skip trades the filter rules out; the detector still checks every
+     * trade it is given.
+     */
+    default ScanFilter getTradeFilter() {
+        return ScanFilter.ALL;
+    }
+
+    /**
+     * Order events the configured run can use.
+     */
+    default ScanFilter getOrderFilter() {
+        return ScanFilter.ALL;
+    }
+
+    /**
+     * Stream alerts of subsequent runs to the given sink instead of holding
+     * them in the result; {@code null} restores in-memory results. The detector
+     * calls {@link AlertSink#complete} from {@link #finish()}; the caller closes it.
+     */
+    void setAlertSink(AlertSink sink);
+
+    /**
+     * Start a new detection run with the currently configured parameters.
+     */
+    void begin();
+
+    default void onTrade(Trade trade) {
+    }
+
+    default void onOrder(OrderEvent order) {
+    }
+
+    /**
+     * Complete the current run and return its result.
+     */
+    DetectionResult finish();
+}
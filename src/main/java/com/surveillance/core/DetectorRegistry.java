@@ -0,0 +1,65 @@
+package com.surveillance.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Discovers {@link Detector} implementations through {@link ServiceLoader}.
+ * Detectors are stateful, so every lookup returns fresh instances.
+ */
+public class DetectorRegistry {
+
+    private final ClassLoader classLoader;
+
+    public DetectorRegistry() {
+        this(Thread.currentThread().getContextClassLoader());
+    }
+
+    public DetectorRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Create one instance of every registered detector.
+     */
+    public List<Detector> createAll() {
+        List<Detector> detectors = new ArrayList<>();
+        for (Detector detector : ServiceLoader.load(Detector.class, classLoader)) {
+            detectors.add(detector);
+        }
+        return detectors;
+    }
+
+    /**
+     * Create detectors for the given report types, in the order requested.
+     *
+     * @throws IllegalArgumentException if a report type has no registered detector
+     */
+    public List<Detector> create(Collection<String> reportTypes) {
+        List<Detector> available = createAll();
+        List<Detector> detectors = new ArrayList<>();
+        for (String reportType : reportTypes) {
+            Detector match = null;
+            for (Detector detector : available) {
+                if (detector.getReportType().equals(reportType)) {
+                    match = detector;
+                    break;
+                }
+            }
+            if (match == null) {
+                throw new IllegalArgumentException("No detector registered for report type: " + reportType);
+            }
+            detectors.add(match);
+        }
+        return detectors;
+    }
+
+    /**
+     * Create the detector for a single report type.
+     */
+    public Detector create(String reportType) {
+        return create(List.of(reportType)).get(0);
+    }
+}
@@ -0,0 +1,74 @@
+package com.surveillance.core;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes a JSON report incrementally. The alerts array is streamed first and
+ * the counts follow it, since they are only known once detection finishes.
+ * Output goes through a Gson {@link JsonWriter}, so strings are escaped and
+ * no format strings are parsed per field.
+ */
+public class JsonAlertSink implements AlertSink {
+
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    private final JsonWriter json;
+
+    public JsonAlertSink(Writer out, String reportType) {
+        this.json = new JsonWriter(new BufferedWriter(out, BUFFER_SIZE));
+        json.setIndent("  ");
+        try {
+            json.beginObject();
+            json.name("reportType").value(reportType);
+            json.name("alerts").beginArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(DetectionResult.Alert alert) {
+        try {
+            writeAlert(json, alert);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void complete(DetectionResult result) {
+        try {
+            json.endArray();
+            json.name("alertCount").value(result.getAlertCount());
+            json.name("executionTimeMs").value(result.getExecutionTimeMs());
+            json.endObject();
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+    /**
+     * Write one alert as a JSON object; shared with {@link NdjsonAlertSink}.
+     */
+    static void writeAlert(JsonWriter json, DetectionResult.Alert alert) throws IOException {
+        json.beginObject();
+        json.name("tradeId").value(alert.getTradeId());
+        json.name("accountId").value(alert.getAccountId());
+        json.name("symbol").value(alert.getSymbol());
+        json.name("alertType").value(alert.getAlertType());
+        json.name("severity").value(alert.getSeverity());
+        json.name("description").value(alert.getDescription());
+        json.name("timestamp").value(Timestamps.format(alert.getTimestampNanos()));
+        json.endObject();
+    }
+}
@@ -0,0 +1,56 @@
+package com.surveillance.core;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes newline-delimited JSON: one compact alert object per line, with the
+ * same fields as {@link JsonAlertSink}, and a final line holding the report
+ * type, alert count and execution time. Each line can be parsed on its own,
+ * so the file can be split or tailed while it is written.
+ */
+public class NdjsonAlertSink implements AlertSink {
+
+    private final Writer writer;
+    private final JsonWriter json;
+
+    public NdjsonAlertSink(Writer out) {
+        this.writer = new BufferedWriter(out, JsonAlertSink.BUFFER_SIZE);
+        this.json = new JsonWriter(writer);
+        // Lenient mode allows one top-level value per line
+        json.setLenient(true);
+    }
+
+    @Override
+    public void accept(DetectionResult.Alert alert) {
+        try {
+            JsonAlertSink.writeAlert(json, alert);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void complete(DetectionResult result) {
+        try {
+            json.beginObject();
+            json.name("reportType").value(result.getReportType());
+            json.name("alertCount").value(result.getAlertCount());
+            json.name("executionTimeMs").value(result.getExecutionTimeMs());
+            json.endObject();
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.surveillance.core;
+
+/**
+ * A single order lifecycle event (new order, cancel or fill).
+ * Timestamps are epoch nanoseconds.
+ */
+public interface OrderEvent {
+
+    /**
+     * Lifecycle event types.
+     */
+    enum Type {
+        NEW,
+        CANCEL,
+        FILL
+    }
+
+    long getOrderId();
+
+    String getAccountId();
+
+    String getSymbol();
+
+    Side getSide();
+
+    Type getType();
+
+    long getTimestampNanos();
+
+    double getPrice();
+
+    long getQuantity();
+
+    /**
+     * Create an immutable order event.
+     */
+    static OrderEvent of(long orderId, String accountId, String symbol, Side side, Type type,
+                         long timestampNanos, double price, long quantity) {
+        return new Simple(orderId, accountId, symbol, side, type, timestampNanos, price, quantity);
+    }
+
+    /**
+     * Plain value implementation returned by {@link #of}.
+     */
+    final class Simple implements OrderEvent {
+        private final long orderId;
+        private final String accountId;
+        private final String symbol;
+        private final Side side;
+        private final Type type;
+        private final long timestampNanos;
+        private final double price;
+        private final long quantity;
+
+        private Simple(long orderId, String accountId, String symbol, Side side, Type type,
+                       long timestampNanos, double price, long quantity) {
+            this.orderId = orderId;
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.side = side;
+            this.type = type;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public long getOrderId() { return orderId; }
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public Side getSide() { return side; }
+        public Type getType() { return type; }
+        public long getTimestampNanos() { return timestampNanos; }
+        public double getPrice() { return price; }
+        public long getQuantity() { return quantity; }
+    }
+}
@@ -0,0 +1,164 @@
+package com.surveillance.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip output compressed in parallel, pigz style. Written bytes are cut into
+ * fixed-size blocks and each block is compressed on the executor as its own
+ * gzip member; members are written to the underlying stream in order. A
+ * concatenation of gzip members is a single valid gzip stream (RFC 1952), so
+ * {@code gzip -d}, {@code zcat} and {@link java.util.zip.GZIPInputStream}
+ * read the result as one file.
+ *
+ * Each block starts with an empty dictionary, which costs a little ratio
+ * next to single-threaded gzip; with the default 1 MiB blocks the loss is
+ * well under one percent. At most a few blocks per worker are in flight, so
+ * memory stays bounded however large the report is. Not thread-safe.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxPending;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int count;
+    private boolean written;
+    private boolean closed;
+
+    public ParallelGzipOutputStream(OutputStream out) {
+        this(out, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param executor  runs the block compressions
+     * @param blockSize uncompressed bytes per gzip member
+     */
+    public ParallelGzipOutputStream(OutputStream out, Executor executor, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.out = out;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        int workers = executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.maxPending = 2 * Math.max(1, workers);
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == blockSize) {
+            submit();
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == blockSize) {
+                submit();
+            }
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Compress the buffered bytes as a (possibly short) member and wait for
+     * every member to reach the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            submit();
+        }
+        drain(0);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (count > 0 || !written) {
+                // An empty stream still gets one member, so the file is valid gzip
+                submit();
+            }
+            drain(0);
+        } finally {
+            closed = true;
+            block = null;
+            out.close();
+        }
+    }
+
+    private void submit() throws IOException {
+        byte[] data = block;
+        int length = count;
+        pending.add(CompletableFuture.supplyAsync(() -> compress(data, length), executor));
+        written = true;
+        block = new byte[blockSize];
+        count = 0;
+        drain(maxPending);
+    }
+
+    /**
+     * Write completed members in order until at most {@code limit} remain.
+     */
+    private void drain(int limit) throws IOException {
+        while (pending.size() > limit) {
+            byte[] member;
+            try {
+                member = pending.peek().join();
+            } catch (CompletionException e) {
+                pending.forEach(future -> future.cancel(false));
+                pending.clear();
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException("Gzip compression failed", cause);
+            }
+            pending.poll();
+            out.write(member);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private static byte[] compress(byte[] data, int length) {
+        // Sized for typical report text; grows on poorly compressible blocks
+        ByteArrayOutputStream member = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member, 64 * 1024)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return member.toByteArray();
+    }
+}
@@ -0,0 +1,206 @@
+package com.surveillance.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Runs detectors in parallel over symbol partitions.
+ * Every detector is keyed by symbol (and wash trade and spoofing also by
+ * account), so partitions by symbol hash are independent. The calling thread
+ * merges the two time-ordered streams once, as {@link ScanDriver} does, and
+ * hands each partition its events in batches; a partition's batches run one
+ * after another on a {@link ForkJoinPool} while other partitions run
+ * alongside, so scanning starts with the first batch and only a bounded
+ * number of batches per partition is held at a time. Events are passed on
+ * unchanged, or as immutable copies when the input reuses its objects.
+ * The per-partition results are merged in partition order so the output is
+ * deterministic for a given input and partition count.
+ */
+public class ParallelScanDriver {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    private final Supplier<List<Detector>> detectorFactory;
+    private final ForkJoinPool pool;
+    private final int partitions;
+
+    /**
+     * @param detectorFactory creates a fresh, fully configured detector list without
+     *                        alert sinks; called once per partition
+     */
+    public ParallelScanDriver(Supplier<List<Detector>> detectorFactory) {
+        this(detectorFactory, ForkJoinPool.commonPool());
+    }
+
+    public ParallelScanDriver(Supplier<List<Detector>> detectorFactory, ForkJoinPool pool) {
+        this(detectorFactory, pool, pool.getParallelism());
+    }
+
+    public ParallelScanDriver(Supplier<List<Detector>> detectorFactory, ForkJoinPool pool, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be at least 1: " + partitions);
+        }
+        this.detectorFactory = detectorFactory;
+        this.pool = pool;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Partition both time-ordered streams by symbol, scan every partition in
+     * parallel and return one merged result per detector, in factory order.
+     */
+    public List<DetectionResult> scan(Iterable<? extends Trade> trades, Iterable<? extends OrderEvent> orders) {
+        long startTime = System.currentTimeMillis();
+
+        Partition[] parts = new Partition[partitions];
+        for (int p = 0; p < partitions; p++) {
+            parts[p] = new Partition(detectorFactory.get());
+        }
+        List<CompletableFuture<List<DetectionResult>>> finished = new ArrayList<>(partitions);
+        try {
+            Iterator<? extends Trade> tradeIt = trades.iterator();
+            Iterator<? extends OrderEvent> orderIt = orders.iterator();
+            Trade trade = tradeIt.hasNext() ? tradeIt.next() : null;
+            OrderEvent order = orderIt.hasNext() ? orderIt.next() : null;
+            while (trade != null || order != null) {
+                if (order == null || (trade != null && trade.getTimestampNanos() <= order.getTimestampNanos())) {
+                    parts[partitionOf(trade.getSymbol())].add(immutable(trade));
+                    trade = tradeIt.hasNext() ? tradeIt.next() : null;
+                } else {
+                    parts[partitionOf(order.getSymbol())].add(immutable(order));
+                    order = orderIt.hasNext() ? orderIt.next() : null;
+                }
+            }
+            for (Partition part : parts) {
+                finished.add(part.finish());
+            }
+            List<List<DetectionResult>> partResults = new ArrayList<>(partitions);
+            for (CompletableFuture<List<DetectionResult>> future : finished) {
+                partResults.add(future.join());
+            }
+
+            List<DetectionResult> merged = merge(partResults);
+            long executionTime = System.currentTimeMillis() - startTime;
+            for (DetectionResult result : merged) {
+                result.setExecutionTimeMs(executionTime);
+                result.setSummary(String.format("%s detection completed. Found %d alerts in %d ms across %d partitions.",
+                    result.getReportType(), result.getAlertCount(), executionTime, partitions));
+            }
+            return merged;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    private int partitionOf(String symbol) {
+        return Math.floorMod(symbol.hashCode(), partitions);
+    }
+
+    private static Trade immutable(Trade trade) {
+        if (trade instanceof Trade.Simple) {
+            return trade;
+        }
+        return Trade.of(trade.getTradeId(), trade.getAccountId(), trade.getSymbol(), trade.getSide(),
+            trade.getTimestampNanos(), trade.getPrice(), trade.getQuantity());
+    }
+
+    private static OrderEvent immutable(OrderEvent order) {
+        if (order instanceof OrderEvent.Simple) {
+            return order;
+        }
+        return OrderEvent.of(order.getOrderId(), order.getAccountId(), order.getSymbol(), order.getSide(),
+            order.getType(), order.getTimestampNanos(), order.getPrice(), order.getQuantity());
+    }
+
+    private static List<DetectionResult> merge(List<List<DetectionResult>> partResults) {
+        List<DetectionResult> merged = new ArrayList<>();
+        for (List<DetectionResult> results : partResults) {
+            for (int d = 0; d < results.size(); d++) {
+                DetectionResult part = results.get(d);
+                if (merged.size() <= d) {
+                    merged.add(new DetectionResult(part.getReportType()));
+                }
+                merged.get(d).addAll(part);
+                part.deleteSpillFiles();
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * One partition's detectors and the chain of batches queued for them.
+     * Each batch runs after the previous one, so the detectors are only ever
+     * used by one thread at a time.
+     */
+    private final class Partition {
+        private final List<Detector> detectors;
+        private final ArrayDeque<CompletableFuture<Void>> pending = new ArrayDeque<>();
+        private CompletableFuture<Void> tail;
+        private Object[] batch = new Object[BATCH_SIZE];
+        private int size;
+
+        Partition(List<Detector> detectors) {
+            this.detectors = detectors;
+            this.tail = CompletableFuture.runAsync(() -> detectors.forEach(Detector::begin), pool);
+        }
+
+        void add(Object event) {
+            batch[size++] = event;
+            if (size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        CompletableFuture<List<DetectionResult>> finish() {
+            flush();
+            return tail.thenApplyAsync(ignored -> {
+                List<DetectionResult> results = new ArrayList<>(detectors.size());
+                for (Detector detector : detectors) {
+                    results.add(detector.finish());
+                }
+                return results;
+            }, pool);
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+            Object[] events = batch;
+            int count = size;
+            batch = new Object[BATCH_SIZE];
+            size = 0;
+            tail = tail.thenRunAsync(() -> feed(events, count), pool);
+            pending.add(tail);
+            while (pending.size() > MAX_PENDING_BATCHES) {
+                pending.poll().join();
+            }
+        }
+
+        private void feed(Object[] events, int count) {
+            for (int i = 0; i < count; i++) {
+                Object event = events[i];
+                if (event instanceof Trade) {
+                    for (Detector detector : detectors) {
+                        detector.onTrade((Trade) event);
+                    }
+                } else {
+                    for (Detector detector : detectors) {
+                        detector.onOrder((OrderEvent) event);
+                    }
+                }
+            }
+        }
+    }
+}
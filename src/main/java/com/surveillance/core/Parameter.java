@@ -6,11 +6,13 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Annotation to mark configurable test parameters.
- * Used by the MCP agent to identify parameters that can be modified.
+ * Annotation to mark configurable test and detector parameters.
+ * Used by the MCP agent to identify parameters that can be modified, and by
+ * {@link ParameterBinder} to set them at runtime. On a method, the method
+ * must take the parameter value as its only argument.
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.METHOD})
 public @interface Parameter {
     String value();
 }
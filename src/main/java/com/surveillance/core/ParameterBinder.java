@@ -0,0 +1,234 @@
+package com.surveillance.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Applies named parameters to an object through its {@link Parameter}
+ * annotated fields and single-argument methods.
+ *
+ * The annotations of a class are scanned once and turned into setter
+ * {@link MethodHandle}s plus a value converter per parameter, cached per class,
+ * so binding a run's parameters is a map lookup and a direct handle call per
+ * value. This replaces rewriting {@code @Parameter} fields in test sources and
+ * recompiling them.
+ *
+ * Values may be strings, which are converted to the target type (String, int,
+ * long, double, boolean or a {@code yyyy-MM-dd} {@link Date}), or values of the
+ * target type itself.
+ */
+public final class ParameterBinder {
+
+    private static final ClassValue<ParameterBinder> BINDERS = new ClassValue<ParameterBinder>() {
+        @Override
+        protected ParameterBinder computeValue(Class<?> type) {
+            return new ParameterBinder(type);
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final Map<String, Binding> bindings;
+
+    private ParameterBinder(Class<?> type) {
+        this.type = type;
+        Map<String, Binding> found = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            MethodHandles.Lookup lookup = lookupFor(c);
+            for (Field field : c.getDeclaredFields()) {
+                Parameter parameter = field.getAnnotation(Parameter.class);
+                if (parameter == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    MethodHandle setter = lookup.unreflectSetter(field);
+                    found.putIfAbsent(parameter.value(), new Binding(parameter.value(), field.getType(), setter));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot bind parameter field " + field, e);
+                }
+            }
+            for (Method method : c.getDeclaredMethods()) {
+                Parameter parameter = method.getAnnotation(Parameter.class);
+                if (parameter == null || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                if (method.getParameterCount() != 1) {
+                    throw new IllegalStateException("@Parameter method must take one argument: " + method);
+                }
+                try {
+                    MethodHandle setter = MethodHandles.dropReturn(lookup.unreflect(method));
+                    found.putIfAbsent(parameter.value(),
+                        new Binding(parameter.value(), method.getParameterTypes()[0], setter));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot bind parameter method " + method, e);
+                }
+            }
+        }
+        this.bindings = found;
+    }
+
+    /**
+     * Binder for a class, built on first use and cached.
+     */
+    public static ParameterBinder forClass(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Apply parameters to a target through the binder of its class.
+     */
+    public static void bind(Object target, Map<String, ?> values) {
+        forClass(target.getClass()).apply(target, values);
+    }
+
+    /**
+     * Apply every parameter of the target that is set as a system property,
+     * ignoring unresolved Maven placeholders such as {@code ${symbol}}.
+     */
+    public static void bindSystemProperties(Object target) {
+        ParameterBinder binder = forClass(target.getClass());
+        Properties properties = System.getProperties();
+        Map<String, String> values = new HashMap<>();
+        for (String name : binder.getParameterNames()) {
+            String value = properties.getProperty(name);
+            if (value != null && !value.startsWith("${")) {
+                values.put(name, value);
+            }
+        }
+        binder.apply(target, values);
+    }
+
+    /**
+     * Apply the given parameters to a target of this binder's class.
+     *
+     * @throws IllegalArgumentException for an unknown parameter or a value that
+     *                                  cannot be converted to the parameter's type
+     */
+    public void apply(Object target, Map<String, ?> values) {
+        if (!type.isInstance(target)) {
+            throw new IllegalArgumentException("Binder for " + type.getName() + " cannot bind " + target.getClass().getName());
+        }
+        if (values == null) {
+            return;
+        }
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            Binding binding = bindings.get(entry.getKey());
+            if (binding == null) {
+                throw new IllegalArgumentException("Unknown parameter for " + type.getSimpleName() + ": " + entry.getKey());
+            }
+            binding.set(target, entry.getValue());
+        }
+    }
+
+    public Set<String> getParameterNames() {
+        return Collections.unmodifiableSet(bindings.keySet());
+    }
+
+    /**
+     * Type of a parameter, or {@code null} if the class has no such parameter.
+     */
+    public Class<?> getParameterType(String name) {
+        Binding binding = bindings.get(name);
+        return binding != null ? binding.valueType : null;
+    }
+
+    private static MethodHandles.Lookup lookupFor(Class<?> c) {
+        try {
+            return MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access parameters of " + c.getName(), e);
+        }
+    }
+
+    private static Function<String, Object> parserFor(Class<?> valueType) {
+        if (valueType == String.class) return s -> s;
+        if (valueType == int.class || valueType == Integer.class) return Integer::valueOf;
+        if (valueType == long.class || valueType == Long.class) return Long::valueOf;
+        if (valueType == double.class || valueType == Double.class) return Double::valueOf;
+        if (valueType == boolean.class || valueType == Boolean.class) return Boolean::valueOf;
+        if (valueType == Date.class) {
+            return s -> Date.from(LocalDate.parse(s).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        return null;
+    }
+
+    private static Class<?> boxed(Class<?> valueType) {
+        if (valueType == int.class) return Integer.class;
+        if (valueType == long.class) return Long.class;
+        if (valueType == double.class) return Double.class;
+        if (valueType == boolean.class) return Boolean.class;
+        return valueType;
+    }
+
+    /**
+     * One parameter: a setter taking (target, value) and the conversion from strings.
+     */
+    private static final class Binding {
+        private final String name;
+        private final Class<?> valueType;
+        private final Class<?> boxedType;
+        private final MethodHandle setter;
+        private final Function<String, Object> parser;
+
+        Binding(String name, Class<?> valueType, MethodHandle setter) {
+            this.name = name;
+            this.valueType = valueType;
+            this.boxedType = boxed(valueType);
+            this.setter = setter.asType(SETTER_TYPE);
+            this.parser = parserFor(valueType);
+        }
+
+        void set(Object target, Object value) {
+            Object converted = convert(value);
+            try {
+                setter.invokeExact(target, converted);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot set parameter " + name, e);
+            }
+        }
+
+        private Object convert(Object value) {
+            if (value == null) {
+                if (valueType.isPrimitive()) {
+                    throw new IllegalArgumentException("Parameter " + name + " requires a value");
+                }
+                return null;
+            }
+            if (boxedType.isInstance(value)) {
+                return value;
+            }
+            if (value instanceof Number && parser != null && valueType != String.class && valueType != Date.class) {
+                Number number = (Number) value;
+                if (boxedType == Integer.class) return number.intValue();
+                if (boxedType == Long.class) return number.longValue();
+                if (boxedType == Double.class) return number.doubleValue();
+            }
+            if (parser == null) {
+                throw new IllegalArgumentException("Parameter " + name + " of type "
+                    + valueType.getSimpleName() + " cannot be bound from " + value.getClass().getSimpleName());
+            }
+            try {
+                return parser.apply(value.toString().trim());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for parameter " + name + ": " + value);
+            }
+        }
+    }
+}
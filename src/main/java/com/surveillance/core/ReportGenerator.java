@@ -1,17 +1,25 @@
 package com.surveillance.core;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
 
 /**
- * Generates surveillance reports in various formats.
+ * Generates surveillance reports as csv, json or ndjson (one JSON object per line).
+ * Any format with a {@code .gz} suffix, e.g. {@code csv.gz}, is written
+ * gzip-compressed by a {@link ParallelGzipOutputStream}.
  */
 public class ReportGenerator {
     
+    private static final String GZIP_SUFFIX = ".gz";
+
     private String outputDirectory = "reports";
 
     public ReportGenerator() {
@@ -25,87 +33,95 @@ public class ReportGenerator {
     }
 
     /**
-     * Generate a report from detection results.
+     * Generate a report from detection results. Spilled results are streamed
+     * from disk by merging their runs, so the report never needs all alerts
+     * in memory; the run files are deleted afterwards, so a spilled result
+     * can be reported once.
      */
     public String generateReport(DetectionResult result, String format, String reportName) {
-        String fileName = reportName + "." + format;
-        String filePath = outputDirectory + "/" + fileName;
+        return generateReport(result, format, reportName, null);
+    }
+
+    /**
+     * Generate a report with the given CSV columns; see {@link CsvAlertSink}.
+     * Other formats write every field.
+     */
+    public String generateReport(DetectionResult result, String format, String reportName, List<String> columns) {
+        String filePath = getReportPath(format, reportName);
 
-        try {
-            switch (format.toLowerCase()) {
-                case "csv":
-                    generateCsvReport(result, filePath);
-                    break;
-                case "json":
-                    generateJsonReport(result, filePath);
-                    break;
-                default:
-                    generateCsvReport(result, filePath);
+        try (DetectionResult.AlertReader alerts = result.readAlerts();
+             AlertSink sink = openSink(format, filePath, result.getReportType(), columns)) {
+            for (DetectionResult.Alert alert : alerts) {
+                sink.accept(alert);
             }
+            sink.complete(result);
             return filePath;
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error generating report: " + e.getMessage());
             return null;
+        } finally {
+            result.deleteSpillFiles();
         }
     }
 
-    private void generateCsvReport(DetectionResult result, String filePath) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            // Header
-            writer.println("TradeId,AccountId,Symbol,AlertType,Severity,Description,Timestamp");
-            
-            // Data rows
-            for (DetectionResult.Alert alert : result.getAlerts()) {
-                writer.printf("%s,%s,%s,%s,%s,%s,%s%n",
-                    nullSafe(alert.getTradeId()),
-                    nullSafe(alert.getAccountId()),
-                    nullSafe(alert.getSymbol()),
-                    nullSafe(alert.getAlertType()),
-                    nullSafe(alert.getSeverity()),
-                    nullSafe(alert.getDescription()),
-                    nullSafe(alert.getTimestamp())
-                );
-            }
-            
-            // Summary
-            writer.println();
-            writer.println("# Summary");
-            writer.printf("# Report Type: %s%n", result.getReportType());
-            writer.printf("# Total Alerts: %d%n", result.getAlertCount());
-            writer.printf("# Execution Time: %d ms%n", result.getExecutionTimeMs());
-            writer.printf("# Generated: %s%n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+    /**
+     * Open a streaming sink for a report, for use with
+     * {@link DetectionResult#DetectionResult(String, AlertSink)}. The caller
+     * owns the sink and must close it after detection finishes.
+     */
+    public AlertSink openReportSink(String reportType, String format, String reportName) throws IOException {
+        return openReportSink(reportType, format, reportName, null);
+    }
+
+    public AlertSink openReportSink(String reportType, String format, String reportName,
+                                    List<String> columns) throws IOException {
+        return openSink(format, getReportPath(format, reportName), reportType, columns);
+    }
+
+    /**
+     * Path of the report file for the given format and name.
+     *
+     * @throws IllegalArgumentException if the name or format holds a path
+     *         separator or {@code ..}, which could place the file outside the
+     *         output directory
+     */
+    public String getReportPath(String format, String reportName) {
+        checkFileNamePart("report name", reportName);
+        checkFileNamePart("format", format);
+        return outputDirectory + "/" + reportName + "." + format;
+    }
+
+    private static void checkFileNamePart(String what, String value) {
+        if (value.isEmpty() || value.contains("/") || value.contains("\\") || value.contains("..")
+                || value.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + value);
         }
     }
 
-    private void generateJsonReport(DetectionResult result, String filePath) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            writer.println("{");
-            writer.printf("  \"reportType\": \"%s\",%n", result.getReportType());
-            writer.printf("  \"alertCount\": %d,%n", result.getAlertCount());
-            writer.printf("  \"executionTimeMs\": %d,%n", result.getExecutionTimeMs());
-            writer.println("  \"alerts\": [");
-            
-            var alerts = result.getAlerts();
-            for (int i = 0; i < alerts.size(); i++) {
-                var alert = alerts.get(i);
-                writer.println("    {");
-                writer.printf("      \"tradeId\": \"%s\",%n", nullSafe(alert.getTradeId()));
-                writer.printf("      \"accountId\": \"%s\",%n", nullSafe(alert.getAccountId()));
-                writer.printf("      \"symbol\": \"%s\",%n", nullSafe(alert.getSymbol()));
-                writer.printf("      \"alertType\": \"%s\",%n", nullSafe(alert.getAlertType()));
-                writer.printf("      \"severity\": \"%s\",%n", nullSafe(alert.getSeverity()));
-                writer.printf("      \"description\": \"%s\"%n", nullSafe(alert.getDescription()));
-                writer.print("    }");
-                if (i < alerts.size() - 1) writer.print(",");
-                writer.println();
-            }
-            
-            writer.println("  ]");
-            writer.println("}");
+    private AlertSink openSink(String format, String filePath, String reportType,
+                               List<String> columns) throws IOException {
+        String name = format.toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(GZIP_SUFFIX);
+        if (gzip) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        Writer out = openWriter(filePath, gzip);
+        switch (name) {
+            case "json":
+                return new JsonAlertSink(out, reportType);
+            case "ndjson":
+                return new NdjsonAlertSink(out);
+            case "csv":
+            default:
+                return new CsvAlertSink(out, columns);
         }
     }
 
-    private String nullSafe(String value) {
-        return value != null ? value : "";
+    private static Writer openWriter(String filePath, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(filePath);
+        if (gzip) {
+            out = new ParallelGzipOutputStream(out);
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,68 @@
+package com.surveillance.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the trade and order streams once and fans every event out to all
+ * detectors, so several report types over the same date range share one scan.
+ * Both inputs must be in time order; they are merged by timestamp, with trades
+ * delivered before orders on ties.
+ */
+public class ScanDriver {
+
+    private final List<Detector> detectors;
+    private long tradeCount;
+    private long orderCount;
+
+    public ScanDriver(List<Detector> detectors) {
+        this.detectors = new ArrayList<>(detectors);
+    }
+
+    /**
+     * Run every detector over the given streams and return their results in
+     * detector order.
+     */
+    public List<DetectionResult> scan(Iterable<? extends Trade> trades, Iterable<? extends OrderEvent> orders) {
+        tradeCount = 0;
+        orderCount = 0;
+        for (Detector detector : detectors) {
+            detector.begin();
+        }
+
+        Iterator<? extends Trade> tradeIt = trades.iterator();
+        Iterator<? extends OrderEvent> orderIt = orders.iterator();
+        Trade trade = tradeIt.hasNext() ? tradeIt.next() : null;
+        OrderEvent order = orderIt.hasNext() ? orderIt.next() : null;
+        while (trade != null || order != null) {
+            if (order == null || (trade != null && trade.getTimestampNanos() <= order.getTimestampNanos())) {
+                for (Detector detector : detectors) {
+                    detector.onTrade(trade);
+                }
+                tradeCount++;
+                trade = tradeIt.hasNext() ? tradeIt.next() : null;
+            } else {
+                for (Detector detector : detectors) {
+                    detector.onOrder(order);
+                }
+                orderCount++;
+                order = orderIt.hasNext() ? orderIt.next() : null;
+            }
+        }
+
+        List<DetectionResult> results = new ArrayList<>(detectors.size());
+        for (Detector detector : detectors) {
+            results.add(detector.finish());
+        }
+        return results;
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+}
@@ -0,0 +1,97 @@
+package com.surveillance.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Conditions every event a detector run can use must meet, published by the
+ * detector so that storage can skip data that cannot match before reading
+ * it. A filter only narrows the input: the detector still checks each event
+ * itself, and a source may ignore the filter and deliver everything.
+ *
+ * All bounds are inclusive. Filters are immutable; the {@code with} methods
+ * return narrowed copies.
+ */
+public final class ScanFilter {
+
+    /** Every event. */
+    public static final ScanFilter ALL = new ScanFilter(Timestamps.MIN, Timestamps.MAX, null, null,
+        Long.MIN_VALUE, Long.MAX_VALUE);
+    /** No event; for a detector that does not read a stream at all. */
+    public static final ScanFilter NONE = new ScanFilter(Timestamps.MAX, Timestamps.MIN, null, null,
+        Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private final long fromNanos;
+    private final long toNanos;
+    private final Set<String> accounts;
+    private final String symbol;
+    private final long minQuantity;
+    private final long maxQuantity;
+
+    private ScanFilter(long fromNanos, long toNanos, Set<String> accounts, String symbol,
+                       long minQuantity, long maxQuantity) {
+        this.fromNanos = fromNanos;
+        this.toNanos = toNanos;
+        this.accounts = accounts;
+        this.symbol = symbol;
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Events with timestamps in [fromNanos, toNanos].
+     */
+    public static ScanFilter between(long fromNanos, long toNanos) {
+        return ALL.withTimeRange(fromNanos, toNanos);
+    }
+
+    public ScanFilter withTimeRange(long fromNanos, long toNanos) {
+        return new ScanFilter(fromNanos, toNanos, accounts, symbol, minQuantity, maxQuantity);
+    }
+
+    /**
+     * Only events of the given account; {@code null} for any account.
+     */
+    public ScanFilter withAccount(String account) {
+        return withAccounts(account != null ? Collections.singleton(account) : null);
+    }
+
+    /**
+     * Only events of one of the given accounts; {@code null} for any account.
+     * An empty collection matches nothing.
+     */
+    public ScanFilter withAccounts(Collection<String> accounts) {
+        Set<String> copy = accounts != null ? Collections.unmodifiableSet(new TreeSet<>(accounts)) : null;
+        return new ScanFilter(fromNanos, toNanos, copy, symbol, minQuantity, maxQuantity);
+    }
+
+    /**
+     * Only events of the given symbol; {@code null} for any symbol.
+     */
+    public ScanFilter withSymbol(String symbol) {
+        return new ScanFilter(fromNanos, toNanos, accounts, symbol, minQuantity, maxQuantity);
+    }
+
+    public ScanFilter withQuantityRange(long minQuantity, long maxQuantity) {
+        return new ScanFilter(fromNanos, toNanos, accounts, symbol, minQuantity, maxQuantity);
+    }
+
+    /**
+     * Whether no event can match.
+     */
+    public boolean isEmpty() {
+        return fromNanos > toNanos || minQuantity > maxQuantity
+            || (accounts != null && accounts.isEmpty());
+    }
+
+    public long getFromNanos() { return fromNanos; }
+    public long getToNanos() { return toNanos; }
+    /** Accepted accounts, or {@code null} for any. */
+    public Set<String> getAccounts() { return accounts; }
+    /** Accepted symbol, or {@code null} for any. */
+    public String getSymbol() { return symbol; }
+    public long getMinQuantity() { return minQuantity; }
+    public long getMaxQuantity() { return maxQuantity; }
+}
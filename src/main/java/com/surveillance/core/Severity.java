@@ -0,0 +1,11 @@
+package com.surveillance.core;
+
+/**
+ * Severity of an alert, lowest first.
+ */
+public enum Severity {
+    LOW,
+    MEDIUM,
+    HIGH,
+    CRITICAL
+}
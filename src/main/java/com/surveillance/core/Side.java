@@ -0,0 +1,13 @@
+package com.surveillance.core;
+
+/**
+ * Side of a trade or order.
+ */
+public enum Side {
+    BUY,
+    SELL;
+
+    public Side opposite() {
+        return this == BUY ? SELL : BUY;
+    }
+}
@@ -0,0 +1,88 @@
+package com.surveillance.core;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+/**
+ * Epoch-nanosecond time helpers. Events, alerts and detector date ranges are
+ * plain {@code long} nanoseconds; they are turned into text only when a
+ * report is written, using formatters that are built once and shared, since
+ * {@link DateTimeFormatter} is immutable and thread-safe.
+ *
+ * Dates are interpreted and formatted in the JVM's default time zone, as
+ * {@code java.util.Date} and {@code SimpleDateFormat} were.
+ */
+public final class Timestamps {
+
+    public static final long NANOS_PER_MILLI = 1_000_000L;
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** Start of a range with no lower bound. */
+    public static final long MIN = Long.MIN_VALUE;
+    /** End of a range with no upper bound. */
+    public static final long MAX = Long.MAX_VALUE;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZONE);
+    private static final DateTimeFormatter DATE =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZONE);
+    private static final DateTimeFormatter FILE_STAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS").withZone(ZONE);
+
+    private Timestamps() {
+    }
+
+    /**
+     * Current time in epoch nanoseconds, at the clock's resolution.
+     */
+    public static long now() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+    }
+
+    /**
+     * Epoch nanoseconds of a {@link Date}, or {@code unbounded} if it is null.
+     */
+    public static long fromDate(Date date, long unbounded) {
+        return date != null ? date.getTime() * NANOS_PER_MILLI : unbounded;
+    }
+
+    /**
+     * {@code yyyy-MM-dd HH:mm:ss}.
+     */
+    public static String format(long nanos) {
+        return TIMESTAMP.format(toInstant(nanos));
+    }
+
+    /**
+     * {@code yyyy-MM-dd}, or {@code N/A} for an unbounded range end.
+     */
+    public static String formatDate(long nanos) {
+        if (nanos == MIN || nanos == MAX) return "N/A";
+        return DATE.format(toInstant(nanos));
+    }
+
+    /**
+     * {@code yyyyMMdd_HHmmss_SSS}, for report file names.
+     */
+    public static String formatFileStamp(long nanos) {
+        return FILE_STAMP.format(toInstant(nanos));
+    }
+
+    /**
+     * Epoch nanoseconds at which the trading day after the one containing
+     * {@code nanos} starts, i.e. the next local midnight.
+     */
+    public static long nextDayStart(long nanos) {
+        LocalDate day = LocalDate.ofInstant(toInstant(nanos), ZONE);
+        return day.plusDays(1).atStartOfDay(ZONE).toEpochSecond() * NANOS_PER_SECOND;
+    }
+
+    private static Instant toInstant(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+}
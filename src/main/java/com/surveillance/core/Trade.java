@@ -0,0 +1,62 @@
+package com.surveillance.core;
+
+/**
+ * An executed trade as seen by the detectors.
+ * Timestamps are epoch nanoseconds.
+ */
+public interface Trade {
+
+    long getTradeId();
+
+    String getAccountId();
+
+    String getSymbol();
+
+    Side getSide();
+
+    long getTimestampNanos();
+
+    double getPrice();
+
+    long getQuantity();
+
+    /**
+     * Create an immutable trade.
+     */
+    static Trade of(long tradeId, String accountId, String symbol, Side side,
+                    long timestampNanos, double price, long quantity) {
+        return new Simple(tradeId, accountId, symbol, side, timestampNanos, price, quantity);
+    }
+
+    /**
+     * Plain value implementation returned by {@link #of}.
+     */
+    final class Simple implements Trade {
+        private final long tradeId;
+        private final String accountId;
+        private final String symbol;
+        private final Side side;
+        private final long timestampNanos;
+        private final double price;
+        private final long quantity;
+
+        private Simple(long tradeId, String accountId, String symbol, Side side,
+                       long timestampNanos, double price, long quantity) {
+            this.tradeId = tradeId;
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.side = side;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public long getTradeId() { return tradeId; }
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public Side getSide() { return side; }
+        public long getTimestampNanos() { return timestampNanos; }
+        public double getPrice() { return price; }
+        public long getQuantity() { return quantity; }
+    }
+}
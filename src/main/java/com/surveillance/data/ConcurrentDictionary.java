@@ -0,0 +1,31 @@
+package com.surveillance.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Dictionary} that several threads may encode into at once. Lookups of
+ * known values, {@link #decode} and {@link #size} take no lock; assigning a
+ * new id does, so ids stay dense and in first-seen order across all threads.
+ */
+public class ConcurrentDictionary extends Dictionary {
+
+    public ConcurrentDictionary() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public int encode(String value) {
+        int id = lookup(value);
+        return id != NOT_FOUND ? id : assign(value);
+    }
+
+    private synchronized int assign(String value) {
+        int id = lookup(value);
+        return id != NOT_FOUND ? id : add(value);
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package com.surveillance.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for repeated string keys such as accounts and symbols.
+ * Ids are dense and assigned in first-seen order starting at 0, so they can
+ * index arrays directly.
+ *
+ * Values are kept in an array published through volatile fields, so
+ * {@link #decode} and {@link #size} never lock even when a subclass such as
+ * {@link ConcurrentDictionary} encodes from several threads.
+ */
+public class Dictionary {
+
+    /** Returned by {@link #lookup} for values that were never encoded. */
+    public static final int NOT_FOUND = -1;
+
+    private final Map<String, Integer> ids;
+    private volatile String[] values = new String[16];
+    private volatile int size;
+
+    public Dictionary() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * Dictionary that indexes values by id in {@code ids}, e.g. a concurrent
+     * map.
+     */
+    protected Dictionary(Map<String, Integer> ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Return the id for a value, assigning the next id if it is new.
+     */
+    public int encode(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    /**
+     * Assign the next id to a value that is not encoded yet. The value is
+     * stored before the size is raised, and indexed after, so a reader that
+     * finds an id can always decode it.
+     */
+    protected int add(String value) {
+        int id = size;
+        String[] array = values;
+        if (id == array.length) {
+            array = Arrays.copyOf(array, id * 2);
+            values = array;
+        }
+        array[id] = value;
+        size = id + 1;
+        ids.put(value, id);
+        return id;
+    }
+
+    /**
+     * Return the id for a value, or {@link #NOT_FOUND} without assigning one.
+     */
+    public int lookup(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : NOT_FOUND;
+    }
+
+    public String decode(int id) {
+        int count = size;
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("Id " + id + " of " + count);
+        }
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forget all values; ids are assigned from 0 again.
+     */
+    public void clear() {
+        ids.clear();
+        values = new String[16];
+        size = 0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.surveillance.data;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Columnar in-memory store of order lifecycle events.
+ * Same layout as {@link TradeStore} with an extra event type byte; a row
+ * costs 42 bytes. Iteration yields a single reused {@link OrderEvent} view
+ * per iterator.
+ */
+public class OrderStore implements Iterable<OrderEvent> {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Side[] SIDES = Side.values();
+    private static final OrderEvent.Type[] TYPES = OrderEvent.Type.values();
+
+    private final Dictionary accounts;
+    private final Dictionary symbols;
+    private long[] orderIds;
+    private long[] timestamps;
+    private int[] accountIds;
+    private int[] symbolIds;
+    private long[] priceTicks;
+    private long[] quantities;
+    private byte[] sides;
+    private byte[] types;
+    private int size;
+
+    public OrderStore() {
+        this(new Dictionary(), new Dictionary());
+    }
+
+    public OrderStore(Dictionary accounts, Dictionary symbols) {
+        this(accounts, symbols, DEFAULT_CAPACITY);
+    }
+
+    public OrderStore(Dictionary accounts, Dictionary symbols, int initialCapacity) {
+        this.accounts = accounts;
+        this.symbols = symbols;
+        int capacity = Math.max(initialCapacity, 1);
+        orderIds = new long[capacity];
+        timestamps = new long[capacity];
+        accountIds = new int[capacity];
+        symbolIds = new int[capacity];
+        priceTicks = new long[capacity];
+        quantities = new long[capacity];
+        sides = new byte[capacity];
+        types = new byte[capacity];
+    }
+
+    /**
+     * Append an order event, dictionary-encoding its account and symbol.
+     */
+    public int append(long orderId, String accountId, String symbol, Side side, OrderEvent.Type type,
+                      long timestampNanos, double price, long quantity) {
+        return appendEncoded(orderId, accounts.encode(accountId), symbols.encode(symbol),
+            (byte) side.ordinal(), (byte) type.ordinal(), timestampNanos, Prices.toTicks(price), quantity);
+    }
+
+    public int append(OrderEvent order) {
+        return append(order.getOrderId(), order.getAccountId(), order.getSymbol(), order.getSide(),
+            order.getType(), order.getTimestampNanos(), order.getPrice(), order.getQuantity());
+    }
+
+    /**
+     * Append an order event whose keys are already encoded against this store's dictionaries.
+     */
+    public int appendEncoded(long orderId, int accountId, int symbolId, byte side, byte type,
+                             long timestampNanos, long priceTick, long quantity) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int row = size++;
+        orderIds[row] = orderId;
+        timestamps[row] = timestampNanos;
+        accountIds[row] = accountId;
+        symbolIds[row] = symbolId;
+        priceTicks[row] = priceTick;
+        quantities[row] = quantity;
+        sides[row] = side;
+        types[row] = type;
+        return row;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+        priceTicks = Arrays.copyOf(priceTicks, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    public int size() { return size; }
+    public Dictionary getAccounts() { return accounts; }
+    public Dictionary getSymbols() { return symbols; }
+
+    // Column accessors by row
+    public long getOrderId(int row) { return orderIds[row]; }
+    public long getTimestampNanos(int row) { return timestamps[row]; }
+    public int getAccountId(int row) { return accountIds[row]; }
+    public int getSymbolId(int row) { return symbolIds[row]; }
+    public long getPriceTicks(int row) { return priceTicks[row]; }
+    public long getQuantity(int row) { return quantities[row]; }
+    public byte getSideCode(int row) { return sides[row]; }
+    public byte getTypeCode(int row) { return types[row]; }
+
+    /**
+     * Approximate heap used by the column arrays, excluding the dictionaries.
+     */
+    public long memoryBytes() {
+        return (long) timestamps.length * (8 + 8 + 4 + 4 + 8 + 8 + 1 + 1);
+    }
+
+    /**
+     * Return a reusable view positioned at the given row.
+     */
+    public Row row(int row) {
+        Row view = new Row();
+        view.row = row;
+        return view;
+    }
+
+    @Override
+    public Iterator<OrderEvent> iterator() {
+        Row view = new Row();
+        return new Iterator<OrderEvent>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public OrderEvent next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                view.row = next++;
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Flyweight {@link OrderEvent} over one row of the store. Repositioning the view
+     * changes the values it returns.
+     */
+    public class Row implements OrderEvent {
+        private int row;
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public long getOrderId() { return orderIds[row]; }
+        public String getAccountId() { return accounts.decode(accountIds[row]); }
+        public String getSymbol() { return symbols.decode(symbolIds[row]); }
+        public Side getSide() { return SIDES[sides[row]]; }
+        public Type getType() { return TYPES[types[row]]; }
+        public long getTimestampNanos() { return timestamps[row]; }
+        public double getPrice() { return Prices.fromTicks(priceTicks[row]); }
+        public long getQuantity() { return quantities[row]; }
+    }
+}
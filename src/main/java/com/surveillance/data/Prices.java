@@ -0,0 +1,21 @@
+package com.surveillance.data;
+
+/**
+ * Fixed-point price representation used by the columnar stores.
+ * Prices are held as a whole number of ticks of 1/10,000 of a currency unit.
+ */
+public final class Prices {
+
+    public static final long TICKS_PER_UNIT = 10_000L;
+
+    private Prices() {
+    }
+
+    public static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+
+    public static double fromTicks(long ticks) {
+        return (double) ticks / TICKS_PER_UNIT;
+    }
+}
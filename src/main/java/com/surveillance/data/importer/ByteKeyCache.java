@@ -0,0 +1,77 @@
+package com.surveillance.data.importer;
+
+import com.surveillance.data.Dictionary;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps field bytes to dictionary ids without decoding them. Each distinct
+ * key is decoded to a String once, on its first miss, and encoded through
+ * the (shared) dictionary; later occurrences are found by hashing and
+ * comparing bytes. One cache per parsing thread; not thread-safe.
+ */
+final class ByteKeyCache {
+
+    private final Dictionary dictionary;
+    private byte[][] keys = new byte[256][];
+    private int[] hashes = new int[256];
+    private int[] ids = new int[256];
+    private int size;
+
+    ByteKeyCache(Dictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Id of the key {@code bytes[start, end)}, whose doubled quotes are
+     * unescaped if {@code escaped}.
+     */
+    int encode(byte[] bytes, int start, int end, boolean escaped) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, bytes, start, end)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        String value = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        int id = dictionary.encode(escaped ? value.replace("\"\"", "\"") : value);
+        keys[slot] = Arrays.copyOfRange(bytes, start, end);
+        hashes[slot] = hash;
+        ids[slot] = id;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return id;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldIds = ids;
+        keys = new byte[oldKeys.length * 2][];
+        hashes = new int[keys.length];
+        ids = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = mix(oldHashes[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
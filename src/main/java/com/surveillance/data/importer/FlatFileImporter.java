@@ -0,0 +1,456 @@
+package com.surveillance.data.importer;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import com.surveillance.data.ConcurrentDictionary;
+import com.surveillance.data.Dictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.segment.PartitionedSegmentWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Imports delimited trade and order extracts into a day-partitioned segment
+ * directory (see {@link PartitionedSegmentWriter}).
+ *
+ * Each file starts with a header line naming its columns, matched ignoring
+ * case and underscores; other columns are skipped.
+ * <pre>
+ * trades  TradeId, Timestamp, AccountId, Symbol, Side, Price, Quantity
+ * orders  OrderId, Timestamp, AccountId, Symbol, Side, Type, Price, Quantity
+ * </pre>
+ * Timestamps are epoch nanoseconds, prices decimals (rounded to ticks), sides
+ * {@code BUY}/{@code SELL} and types {@code NEW}/{@code CANCEL}/{@code FILL}
+ * in any case. Rows must be in time order: a row whose timestamp is before the
+ * previous row's is malformed. Fields are tokenized as described in
+ * {@link LineTokenizer}.
+ *
+ * A file is cut into byte ranges of about {@link #setChunkBytes chunkBytes}
+ * that end at line breaks, and the ranges are parsed in parallel on the pool
+ * into columnar stores. Accounts and symbols are encoded through a per-chunk
+ * {@link ByteKeyCache} in front of a {@link ConcurrentDictionary} shared by
+ * all chunks, so a String is made only when a chunk first meets a value.
+ * Parsed chunks are written in file order while later ones are still being
+ * parsed; at most two per worker are held at a time.
+ */
+public class FlatFileImporter {
+
+    public static final int DEFAULT_CHUNK_BYTES = 8 << 20;
+    public static final int DEFAULT_ROWS_PER_SEGMENT = 1 << 22;
+
+    private static final String[] TRADE_COLUMNS = {"tradeid", "timestamp", "accountid", "symbol", "side", "price", "quantity"};
+    private static final String[] ORDER_COLUMNS = {"orderid", "timestamp", "accountid", "symbol", "side", "type", "price", "quantity"};
+    private static final byte[][] SIDES = names(Side.values());
+    private static final byte[][] TYPES = names(OrderEvent.Type.values());
+    private static final int SCAN_BYTES = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private byte delimiter = ',';
+    private int chunkBytes = DEFAULT_CHUNK_BYTES;
+    private int rowsPerSegment = DEFAULT_ROWS_PER_SEGMENT;
+
+    public FlatFileImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FlatFileImporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Field delimiter, e.g. {@code '|'} or {@code '\t'} for flat files;
+     * {@code ','} by default.
+     */
+    public void setDelimiter(char delimiter) {
+        if (delimiter > 0x7F || delimiter == '"' || delimiter == ' ' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+    }
+
+    public void setChunkBytes(int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkBytes);
+        }
+        this.chunkBytes = chunkBytes;
+    }
+
+    public void setRowsPerSegment(int rowsPerSegment) {
+        if (rowsPerSegment <= 0) {
+            throw new IllegalArgumentException("Rows per segment must be positive: " + rowsPerSegment);
+        }
+        this.rowsPerSegment = rowsPerSegment;
+    }
+
+    /**
+     * Import a trade file and an order file, either of which may be
+     * {@code null}, into segments and a manifest in {@code directory}. A
+     * manifest from an earlier import is removed first; if the import fails,
+     * the segments it wrote are deleted and no manifest is written.
+     */
+    public Summary importFiles(Path tradeFile, Path orderFile, Path directory) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Dictionary accounts = new ConcurrentDictionary();
+        Dictionary symbols = new ConcurrentDictionary();
+        PartitionedSegmentWriter writer = new PartitionedSegmentWriter(directory, rowsPerSegment, accounts, symbols);
+        long trades = 0;
+        long orders = 0;
+        try {
+            if (tradeFile != null) {
+                trades = importFile(tradeFile, TRADE_COLUMNS, new TradeChunks(writer));
+            }
+            if (orderFile != null) {
+                orders = importFile(orderFile, ORDER_COLUMNS, new OrderChunks(writer));
+            }
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            try {
+                writer.abort();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return new Summary(trades, orders, accounts.size(), symbols.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private <S> long importFile(Path file, String[] columnNames, Chunks<S> chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long headerEnd = lineEnd(channel, 0, size);
+            int[] columns = resolveColumns(file, readHeader(channel, headerEnd), columnNames);
+
+            ArrayDeque<CompletableFuture<Parsed<S>>> pending = new ArrayDeque<>();
+            int maxPending = 2 * Math.max(1, pool.getParallelism());
+            long rows = 0;
+            try {
+                long start = headerEnd;
+                while (start < size) {
+                    long chunkStart = start;
+                    long chunkEnd = lineEnd(channel, Math.min(size, start + chunkBytes), size);
+                    pending.add(CompletableFuture.supplyAsync(
+                        () -> chunks.parse(file, read(channel, chunkStart, chunkEnd), chunkStart, columns), pool));
+                    start = chunkEnd;
+                    while (pending.size() > maxPending) {
+                        rows += chunks.write(file, pending.poll().join());
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    rows += chunks.write(file, pending.poll().join());
+                }
+            } catch (CompletionException e) {
+                pending.forEach(future -> future.cancel(false));
+                Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Position just past the first line break at or after {@code from - 1},
+     * or {@code size} if there is none; a chunk ending there ends with a
+     * whole line.
+     */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        if (from >= size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        long position = Math.max(0, from - 1);
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    private static byte[] read(FileChannel channel, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("File shrank while importing");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
+    }
+
+    private LineTokenizer readHeader(FileChannel channel, long headerEnd) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = read(channel, 0, headerEnd);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // Skip a UTF-8 byte order mark
+        int offset = bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF ? 3 : 0;
+        return new LineTokenizer(bytes, offset, bytes.length, delimiter);
+    }
+
+    /**
+     * Field index of each required column in the header.
+     */
+    private static int[] resolveColumns(Path file, LineTokenizer header, String[] names) throws IOException {
+        try {
+            if (!header.nextLine()) {
+                throw new IOException("Missing header line: " + file);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed header of " + file + ": " + e.getMessage());
+        }
+        int[] columns = new int[names.length];
+        for (int c = 0; c < names.length; c++) {
+            columns[c] = -1;
+            for (int field = 0; field < header.fieldCount(); field++) {
+                if (normalize(header.string(field)).equals(names[c])) {
+                    columns[c] = field;
+                    break;
+                }
+            }
+            if (columns[c] < 0) {
+                throw new IOException("Missing column " + names[c] + " in " + file);
+            }
+        }
+        return columns;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    private static int requiredFields(int[] columns) {
+        int max = 0;
+        for (int column : columns) {
+            max = Math.max(max, column + 1);
+        }
+        return max;
+    }
+
+    private static UncheckedIOException malformed(Path file, String kind, long offset, String reason) {
+        return new UncheckedIOException(new IOException(
+            "Malformed " + kind + " in " + file + " at byte " + offset + ": " + reason));
+    }
+
+    private static String outOfOrder(long timestamp, long previous) {
+        return "timestamp " + timestamp + " is before the previous row's " + previous;
+    }
+
+    /**
+     * Rows parsed from one chunk, with the file offset of the first and the
+     * timestamps of the first and last.
+     */
+    private static final class Parsed<S> {
+        final S rows;
+        final long firstOffset;
+        final long firstTimestamp;
+        final long lastTimestamp;
+
+        Parsed(S rows, long firstOffset, long firstTimestamp, long lastTimestamp) {
+            this.rows = rows;
+            this.firstOffset = firstOffset;
+            this.firstTimestamp = firstTimestamp;
+            this.lastTimestamp = lastTimestamp;
+        }
+    }
+
+    /**
+     * Parses chunks of one kind of file into stores and writes them in file
+     * order. Each chunk checks its own rows are in time order; writing checks
+     * that a chunk does not start before the previous one ended.
+     */
+    private abstract static class Chunks<S> {
+        private final String kind;
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        Chunks(String kind) {
+            this.kind = kind;
+        }
+
+        /** Parse one chunk; runs on the pool. */
+        abstract Parsed<S> parse(Path file, byte[] bytes, long fileOffset, int[] columns);
+
+        abstract long append(S rows) throws IOException;
+
+        /** Write the next parsed chunk, returning its row count. */
+        final long write(Path file, Parsed<S> chunk) throws IOException {
+            if (chunk.firstTimestamp < lastTimestamp) {
+                throw malformed(file, kind, chunk.firstOffset, outOfOrder(chunk.firstTimestamp, lastTimestamp)).getCause();
+            }
+            lastTimestamp = Math.max(lastTimestamp, chunk.lastTimestamp);
+            return append(chunk.rows);
+        }
+    }
+
+    private final class TradeChunks extends Chunks<TradeStore> {
+        private final PartitionedSegmentWriter writer;
+
+        TradeChunks(PartitionedSegmentWriter writer) {
+            super("trade");
+            this.writer = writer;
+        }
+
+        @Override
+        Parsed<TradeStore> parse(Path file, byte[] bytes, long fileOffset, int[] columns) {
+            TradeStore store = new TradeStore(writer.getAccounts(), writer.getSymbols(), bytes.length / 48 + 1);
+            ByteKeyCache accounts = new ByteKeyCache(writer.getAccounts());
+            ByteKeyCache symbols = new ByteKeyCache(writer.getSymbols());
+            int fields = requiredFields(columns);
+            LineTokenizer line = new LineTokenizer(bytes, 0, bytes.length, delimiter);
+            long firstOffset = fileOffset;
+            long previous = Long.MIN_VALUE;
+            try {
+                while (line.nextLine()) {
+                    if (line.fieldCount() < fields) {
+                        throw new IllegalArgumentException("expected " + fields + " fields, found " + line.fieldCount());
+                    }
+                    long timestamp = line.parseLong(columns[1]);
+                    if (store.size() == 0) {
+                        firstOffset = fileOffset + line.lineStart();
+                    } else if (timestamp < previous) {
+                        throw new IllegalArgumentException(outOfOrder(timestamp, previous));
+                    }
+                    previous = timestamp;
+                    store.appendEncoded(line.parseLong(columns[0]), line.encode(columns[2], accounts),
+                        line.encode(columns[3], symbols), (byte) line.parseName(columns[4], SIDES),
+                        timestamp, line.parseTicks(columns[5]), line.parseLong(columns[6]));
+                }
+            } catch (IllegalArgumentException e) {
+                throw malformed(file, "trade", fileOffset + line.lineStart(), e.getMessage());
+            }
+            return store.size() == 0 ? new Parsed<>(store, firstOffset, Long.MAX_VALUE, Long.MIN_VALUE)
+                : new Parsed<>(store, firstOffset, store.getTimestampNanos(0), previous);
+        }
+
+        @Override
+        long append(TradeStore rows) throws IOException {
+            writer.append(rows);
+            return rows.size();
+        }
+    }
+
+    private final class OrderChunks extends Chunks<OrderStore> {
+        private final PartitionedSegmentWriter writer;
+
+        OrderChunks(PartitionedSegmentWriter writer) {
+            super("order");
+            this.writer = writer;
+        }
+
+        @Override
+        Parsed<OrderStore> parse(Path file, byte[] bytes, long fileOffset, int[] columns) {
+            OrderStore store = new OrderStore(writer.getAccounts(), writer.getSymbols(), bytes.length / 56 + 1);
+            ByteKeyCache accounts = new ByteKeyCache(writer.getAccounts());
+            ByteKeyCache symbols = new ByteKeyCache(writer.getSymbols());
+            int fields = requiredFields(columns);
+            LineTokenizer line = new LineTokenizer(bytes, 0, bytes.length, delimiter);
+            long firstOffset = fileOffset;
+            long previous = Long.MIN_VALUE;
+            try {
+                while (line.nextLine()) {
+                    if (line.fieldCount() < fields) {
+                        throw new IllegalArgumentException("expected " + fields + " fields, found " + line.fieldCount());
+                    }
+                    long timestamp = line.parseLong(columns[1]);
+                    if (store.size() == 0) {
+                        firstOffset = fileOffset + line.lineStart();
+                    } else if (timestamp < previous) {
+                        throw new IllegalArgumentException(outOfOrder(timestamp, previous));
+                    }
+                    previous = timestamp;
+                    store.appendEncoded(line.parseLong(columns[0]), line.encode(columns[2], accounts),
+                        line.encode(columns[3], symbols), (byte) line.parseName(columns[4], SIDES),
+                        (byte) line.parseName(columns[5], TYPES), timestamp,
+                        line.parseTicks(columns[6]), line.parseLong(columns[7]));
+                }
+            } catch (IllegalArgumentException e) {
+                throw malformed(file, "order", fileOffset + line.lineStart(), e.getMessage());
+            }
+            return store.size() == 0 ? new Parsed<>(store, firstOffset, Long.MAX_VALUE, Long.MIN_VALUE)
+                : new Parsed<>(store, firstOffset, store.getTimestampNanos(0), previous);
+        }
+
+        @Override
+        long append(OrderStore rows) throws IOException {
+            writer.append(rows);
+            return rows.size();
+        }
+    }
+
+    /**
+     * Row and key counts of an import.
+     */
+    public static final class Summary {
+        private final long tradeCount;
+        private final long orderCount;
+        private final int accountCount;
+        private final int symbolCount;
+        private final long executionTimeMs;
+
+        Summary(long tradeCount, long orderCount, int accountCount, int symbolCount, long executionTimeMs) {
+            this.tradeCount = tradeCount;
+            this.orderCount = orderCount;
+            this.accountCount = accountCount;
+            this.symbolCount = symbolCount;
+            this.executionTimeMs = executionTimeMs;
+        }
+
+        public long getTradeCount() { return tradeCount; }
+        public long getOrderCount() { return orderCount; }
+        public int getAccountCount() { return accountCount; }
+        public int getSymbolCount() { return symbolCount; }
+        public long getExecutionTimeMs() { return executionTimeMs; }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: FlatFileImporter <outputDir> <trades-file|-> <orders-file|-> [delimiter]");
+            System.exit(1);
+        }
+        FlatFileImporter importer = new FlatFileImporter();
+        if (args.length > 3) {
+            importer.setDelimiter(args[3].equals("\\t") ? '\t' : args[3].charAt(0));
+        }
+        Summary summary = importer.importFiles(args[1].equals("-") ? null : Paths.get(args[1]),
+            args[2].equals("-") ? null : Paths.get(args[2]), Paths.get(args[0]));
+        System.out.printf("Imported %d trades and %d order events (%d accounts, %d symbols) in %d ms%n",
+            summary.getTradeCount(), summary.getOrderCount(), summary.getAccountCount(), summary.getSymbolCount(),
+            summary.getExecutionTimeMs());
+    }
+}
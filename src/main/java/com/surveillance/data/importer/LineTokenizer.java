@@ -0,0 +1,250 @@
+package com.surveillance.data.importer;
+
+import com.surveillance.data.Prices;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits delimited lines of a byte array into fields in place. A field is a
+ * range of the array; numbers are parsed from the bytes and keys go through a
+ * {@link ByteKeyCache}, so no String is made per field.
+ *
+ * Lines end with LF or CRLF and blank lines are skipped. Spaces around a
+ * field are ignored. A field may be quoted, with {@code ""} for a quote
+ * inside it, but may not contain a line break. Malformed input raises
+ * {@link IllegalArgumentException}.
+ */
+final class LineTokenizer {
+
+    private static final long[] TICK_SCALE = {Prices.TICKS_PER_UNIT / 10, Prices.TICKS_PER_UNIT / 100,
+        Prices.TICKS_PER_UNIT / 1_000, Prices.TICKS_PER_UNIT / 10_000};
+
+    private final byte[] bytes;
+    private final int limit;
+    private final byte delimiter;
+    private int next;
+    private int lineStart;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int count;
+
+    /**
+     * Tokenize the lines of {@code bytes[offset, limit)}.
+     */
+    LineTokenizer(byte[] bytes, int offset, int limit, byte delimiter) {
+        this.bytes = bytes;
+        this.next = offset;
+        this.limit = limit;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Advance to the next non-blank line, returning false at the end.
+     */
+    boolean nextLine() {
+        while (next < limit) {
+            int start = next;
+            int end = start;
+            while (end < limit && bytes[end] != '\n') {
+                end++;
+            }
+            next = end + 1;
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            if (end > start) {
+                lineStart = start;
+                split(start, end);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void split(int pos, int stop) {
+        count = 0;
+        while (true) {
+            while (pos < stop && bytes[pos] == ' ') {
+                pos++;
+            }
+            int start;
+            int end;
+            boolean quoted = false;
+            boolean doubled = false;
+            if (pos < stop && bytes[pos] == '"') {
+                quoted = true;
+                start = ++pos;
+                while (true) {
+                    if (pos >= stop) {
+                        throw new IllegalArgumentException("unterminated quote in field " + (count + 1));
+                    }
+                    if (bytes[pos] == '"') {
+                        if (pos + 1 < stop && bytes[pos + 1] == '"') {
+                            doubled = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos++;
+                while (pos < stop && bytes[pos] == ' ') {
+                    pos++;
+                }
+                if (pos < stop && bytes[pos] != delimiter) {
+                    throw new IllegalArgumentException("text after closing quote in field " + (count + 1));
+                }
+            } else {
+                start = pos;
+                while (pos < stop && bytes[pos] != delimiter) {
+                    pos++;
+                }
+                end = pos;
+            }
+            if (!quoted) {
+                while (end > start && bytes[end - 1] == ' ') {
+                    end--;
+                }
+            }
+            add(start, end, doubled);
+            if (pos >= stop) {
+                return;
+            }
+            pos++;
+            if (pos == stop) {
+                // Trailing delimiter: the last field is empty
+                add(stop, stop, false);
+                return;
+            }
+        }
+    }
+
+    private void add(int start, int end, boolean doubled) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            escaped = Arrays.copyOf(escaped, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count] = doubled;
+        count++;
+    }
+
+    /** Offset of the current line in the array. */
+    int lineStart() {
+        return lineStart;
+    }
+
+    int fieldCount() {
+        return count;
+    }
+
+    String string(int field) {
+        String value = new String(bytes, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        return escaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    int encode(int field, ByteKeyCache cache) {
+        if (starts[field] == ends[field]) {
+            throw new IllegalArgumentException("empty field " + (field + 1));
+        }
+        return cache.encode(bytes, starts[field], ends[field], escaped[field]);
+    }
+
+    /**
+     * A decimal integer with an optional sign.
+     */
+    long parseLong(int field) {
+        int pos = starts[field];
+        int end = ends[field];
+        boolean negative = pos < end && bytes[pos] == '-';
+        if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+            pos++;
+        }
+        if (pos == end) {
+            throw new IllegalArgumentException("expected a number in field " + (field + 1));
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = bytes[pos] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("expected a number in field " + (field + 1) + ": " + string(field));
+            }
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new IllegalArgumentException("number out of range in field " + (field + 1) + ": " + string(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * A decimal price in ticks (see {@link Prices}), rounding half up on the
+     * digit after the last whole tick.
+     */
+    long parseTicks(int field) {
+        int pos = starts[field];
+        int end = ends[field];
+        boolean negative = pos < end && bytes[pos] == '-';
+        if (pos < end && (bytes[pos] == '-' || bytes[pos] == '+')) {
+            pos++;
+        }
+        long units = 0;
+        long fraction = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; pos < end; pos++) {
+            byte b = bytes[pos];
+            if (b == '.' && !point) {
+                point = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("expected a price in field " + (field + 1) + ": " + string(field));
+            }
+            digits++;
+            if (!point) {
+                if (units > (Long.MAX_VALUE / Prices.TICKS_PER_UNIT - digit) / 10) {
+                    throw new IllegalArgumentException("price out of range in field " + (field + 1) + ": " + string(field));
+                }
+                units = units * 10 + digit;
+            } else if (scale < TICK_SCALE.length) {
+                fraction += digit * TICK_SCALE[scale++];
+            } else if (scale++ == TICK_SCALE.length && digit >= 5) {
+                fraction++;
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("expected a price in field " + (field + 1));
+        }
+        long ticks = units * Prices.TICKS_PER_UNIT + fraction;
+        return negative ? -ticks : ticks;
+    }
+
+    /**
+     * Index of the field's value among upper-case ASCII {@code names},
+     * ignoring case.
+     */
+    int parseName(int field, byte[][] names) {
+        int start = starts[field];
+        int length = ends[field] - start;
+        for (int n = 0; n < names.length; n++) {
+            byte[] name = names[n];
+            if (name.length == length) {
+                int i = 0;
+                while (i < length && (bytes[start + i] & ~0x20) == name[i]) {
+                    i++;
+                }
+                if (i == length) {
+                    return n;
+                }
+            }
+        }
+        throw new IllegalArgumentException("unexpected value in field " + (field + 1) + ": " + string(field));
+    }
+}
@@ -0,0 +1,105 @@
+package com.surveillance.data.segment;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/**
+ * Bloom filter over strings, used to record which accounts and symbols a
+ * segment holds. {@link #mightContain} has no false negatives and about a
+ * 1% false positive rate at the size chosen by {@link #forCount}.
+ *
+ * Positions come from double hashing two halves of a 64-bit FNV-1a hash of
+ * the string's chars, so filters are stable across JVMs and can be stored.
+ */
+public final class BloomFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] bits;
+    private final int hashes;
+
+    private BloomFilter(long[] bits, int hashes) {
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Empty filter sized for {@code count} distinct values.
+     */
+    public static BloomFilter forCount(int count) {
+        int n = Math.max(count, 1);
+        double ln2 = Math.log(2);
+        long bitCount = (long) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (ln2 * ln2));
+        int words = (int) Math.max(1, (bitCount + 63) / 64);
+        int hashes = (int) Math.max(1, Math.round((double) words * 64 / n * ln2));
+        return new BloomFilter(new long[words], hashes);
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long size = (long) bits.length * 64;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long size = (long) bits.length * 64;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % size;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Base64 of the hash count (one byte) followed by the little-endian bit words.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + bits.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) hashes);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    public static BloomFilter decode(String encoded) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        if (bytes.length < 9 || (bytes.length - 1) % 8 != 0 || bytes[0] <= 0) {
+            throw new IllegalArgumentException("Malformed bloom filter");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int hashes = buffer.get();
+        long[] bits = new long[(bytes.length - 1) / 8];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = buffer.getLong();
+        }
+        return new BloomFilter(bits, hashes);
+    }
+
+    private static long hash(String value) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // Finish with the murmur3 mixer; FNV alone leaves the high bits weak for short keys
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,229 @@
+package com.surveillance.data.segment;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A column of longs in a mapped segment, stored plain (8 bytes per row) or
+ * in blocks of {@value #BLOCK_ROWS} rows under one of two encodings:
+ *
+ * <pre>
+ * column         (blockOffset:int) per block, relative to the column start;
+ *                then the blocks
+ * delta block    first:long, then the zigzag varint delta of each later row
+ *                from the row before it
+ * frame block    base:long width:byte, then each row's unsigned offset from
+ *                the block minimum in {@code width} bytes (0, 1, 2, 4 or 8)
+ * </pre>
+ *
+ * Sorted timestamps take one to three bytes a row as deltas, and prices on
+ * a tick grid one or two bytes a row as offsets from the block's lowest
+ * price. A {@link Cursor} decodes a whole delta block into a {@code long[]}
+ * the first time a row of it is read, so a scan in row order decodes each
+ * block once; frame rows are fixed width and read in place.
+ */
+final class LongColumn {
+
+    static final int BLOCK_ROWS = 1024;
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_MASK = BLOCK_ROWS - 1;
+
+    static final byte PLAIN = 0;
+    static final byte DELTA_VARINT = 1;
+    static final byte FRAME_OF_REFERENCE = 2;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int rowCount;
+    private final byte encoding;
+
+    LongColumn(ByteBuffer buffer, int offset, int rowCount, byte encoding) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Value of one row. Reading a delta-encoded row walks its block up to the
+     * row; use a {@link Cursor} to read many.
+     */
+    long get(int row) {
+        switch (encoding) {
+            case PLAIN:
+                return buffer.getLong(offset + row * 8);
+            case FRAME_OF_REFERENCE: {
+                int pos = blockStart(row >>> BLOCK_SHIFT);
+                return buffer.getLong(pos) + unsigned(pos + 9, buffer.get(pos + 8), row & BLOCK_MASK);
+            }
+            default:
+                return deltas(row >>> BLOCK_SHIFT, (row & BLOCK_MASK) + 1, null);
+        }
+    }
+
+    /**
+     * Walk the first {@code count} rows of a delta block, storing each in
+     * {@code values} unless it is null, and return the last.
+     */
+    private long deltas(int block, int count, long[] values) {
+        int pos = blockStart(block);
+        long value = buffer.getLong(pos);
+        pos += 8;
+        if (values != null) {
+            values[0] = value;
+        }
+        for (int i = 1; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(pos++);
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            if (values != null) {
+                values[i] = value;
+            }
+        }
+        return value;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int blockStart(int block) {
+        return offset + buffer.getInt(offset + block * 4);
+    }
+
+    private long unsigned(int pos, byte width, int index) {
+        switch (width) {
+            case 0: return 0;
+            case 1: return buffer.get(pos + index) & 0xFFL;
+            case 2: return buffer.getShort(pos + index * 2) & 0xFFFFL;
+            case 4: return buffer.getInt(pos + index * 4) & 0xFFFFFFFFL;
+            default: return buffer.getLong(pos + index * 8);
+        }
+    }
+
+    /**
+     * Reads rows of a column in row order. Delta rows are read through a
+     * decoded copy of their block, since each depends on the one before;
+     * frame rows are read in place against the current block's base and
+     * width. Not thread-safe; each iterator or view holds its own.
+     */
+    final class Cursor {
+        private long[] values;
+        private int block = -1;
+        private int blockPos;
+        private long base;
+        private byte width;
+
+        long get(int row) {
+            if (encoding == PLAIN) {
+                return buffer.getLong(offset + row * 8);
+            }
+            int b = row >>> BLOCK_SHIFT;
+            if (encoding == FRAME_OF_REFERENCE) {
+                if (b != block) {
+                    blockPos = blockStart(b);
+                    base = buffer.getLong(blockPos);
+                    width = buffer.get(blockPos + 8);
+                    block = b;
+                }
+                return base + unsigned(blockPos + 9, width, row & BLOCK_MASK);
+            }
+            if (b != block) {
+                if (values == null) {
+                    values = new long[BLOCK_ROWS];
+                }
+                deltas(b, Math.min(BLOCK_ROWS, rowCount - (b << BLOCK_SHIFT)), values);
+                block = b;
+            }
+            return values[row & BLOCK_MASK];
+        }
+    }
+
+    /**
+     * Encode {@code count} values as zigzag varint deltas.
+     */
+    static byte[] encodeDeltas(long[] values, int count) {
+        return encode(values, count, DELTA_VARINT);
+    }
+
+    /**
+     * Encode {@code count} values as offsets from each block's minimum.
+     */
+    static byte[] encodeFrameOfReference(long[] values, int count) {
+        return encode(values, count, FRAME_OF_REFERENCE);
+    }
+
+    private static byte[] encode(long[] values, int count, byte encoding) {
+        int blocks = (count + BLOCK_ROWS - 1) >>> BLOCK_SHIFT;
+        int[] blockOffsets = new int[blocks];
+        Blocks out = new Blocks(blocks * 4);
+        for (int block = 0; block < blocks; block++) {
+            int from = block << BLOCK_SHIFT;
+            int to = Math.min(count, from + BLOCK_ROWS);
+            blockOffsets[block] = out.size();
+            if (encoding == DELTA_VARINT) {
+                out.putLong(values[from]);
+                for (int i = from + 1; i < to; i++) {
+                    long delta = values[i] - values[i - 1];
+                    out.putVarint((delta << 1) ^ (delta >> 63));
+                }
+            } else {
+                long base = values[from];
+                long max = values[from];
+                for (int i = from + 1; i < to; i++) {
+                    base = Math.min(base, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+                long range = max - base;
+                byte width = (byte) (range == 0 ? 0 : range >>> 8 == 0 ? 1 : range >>> 16 == 0 ? 2 : range >>> 32 == 0 ? 4 : 8);
+                out.putLong(base);
+                out.write(width);
+                for (int i = from; i < to; i++) {
+                    out.putUnsigned(values[i] - base, width);
+                }
+            }
+        }
+        byte[] bytes = out.toByteArray();
+        ByteBuffer directory = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int block = 0; block < blocks; block++) {
+            directory.putInt(block * 4, blockOffsets[block]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Little-endian byte sink that starts with room reserved for the block
+     * directory.
+     */
+    private static final class Blocks extends ByteArrayOutputStream {
+        Blocks(int reserved) {
+            super(Math.max(reserved, 32));
+            count = reserved;
+        }
+
+        void putLong(long value) {
+            putUnsigned(value, 8);
+        }
+
+        void putUnsigned(long value, int width) {
+            for (int i = 0; i < width; i++) {
+                write((int) (value >>> (i * 8)));
+            }
+        }
+
+        void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+}
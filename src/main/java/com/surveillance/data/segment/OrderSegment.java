@@ -0,0 +1,135 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Side;
+import com.surveillance.data.Prices;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Memory-mapped order event segment. Iteration yields one reused flyweight view per
+ * iterator that reads each field from the mapping, decoding the timestamp and
+ * price columns a block at a time.
+ */
+public class OrderSegment extends Segment implements Iterable<OrderEvent> {
+
+    private static final Side[] SIDES = Side.values();
+    private static final OrderEvent.Type[] TYPES = OrderEvent.Type.values();
+
+    private final int idOffset;
+    private final LongColumn timestamps;
+    private final int accountOffset;
+    private final int symbolOffset;
+    private final LongColumn prices;
+    private final int quantityOffset;
+    private final int sideOffset;
+    private final int typeOffset;
+
+    private OrderSegment(Path path) throws IOException {
+        super(path, SegmentFormat.KIND_ORDERS, SegmentFormat.ORDER_COLUMNS);
+        idOffset = columnOffset(SegmentFormat.TRADE_COL_ID);
+        timestamps = longColumn(SegmentFormat.TRADE_COL_TIMESTAMP, LongColumn.DELTA_VARINT);
+        accountOffset = columnOffset(SegmentFormat.TRADE_COL_ACCOUNT);
+        symbolOffset = columnOffset(SegmentFormat.TRADE_COL_SYMBOL);
+        prices = longColumn(SegmentFormat.TRADE_COL_PRICE, LongColumn.FRAME_OF_REFERENCE);
+        quantityOffset = columnOffset(SegmentFormat.TRADE_COL_QUANTITY);
+        sideOffset = columnOffset(SegmentFormat.TRADE_COL_SIDE);
+        typeOffset = columnOffset(SegmentFormat.ORDER_COL_TYPE);
+    }
+
+    public static OrderSegment open(Path path) throws IOException {
+        return new OrderSegment(path);
+    }
+
+    // Column accessors by row; iterate to read many rows
+    public long getOrderId(int row) { return buffer.getLong(idOffset + row * 8); }
+    public long getTimestampNanos(int row) { return timestamps.get(row); }
+    public int getAccountId(int row) { return buffer.getInt(accountOffset + row * 4); }
+    public int getSymbolId(int row) { return buffer.getInt(symbolOffset + row * 4); }
+    public long getPriceTicks(int row) { return prices.get(row); }
+    public long getQuantity(int row) { return buffer.getLong(quantityOffset + row * 8); }
+    public byte getSideCode(int row) { return buffer.get(sideOffset + row); }
+    public byte getTypeCode(int row) { return buffer.get(typeOffset + row); }
+
+    public String decodeAccount(int id) { return accounts[id]; }
+    public String decodeSymbol(int id) { return symbols[id]; }
+
+    public Row row(int row) {
+        Row view = new Row();
+        view.row = row;
+        return view;
+    }
+
+    @Override
+    public Iterator<OrderEvent> iterator() {
+        Row view = new Row();
+        return new Iterator<OrderEvent>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public OrderEvent next() {
+                if (next >= rowCount) {
+                    throw new NoSuchElementException();
+                }
+                view.row = next++;
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Iterate only the rows the index admits for the filter's account and
+     * symbol conditions (see {@link #rowsMatching}), or every row if it cannot
+     * narrow them.
+     */
+    public Iterator<OrderEvent> iterator(ScanFilter filter) {
+        RowBitmap rows = rowsMatching(filter);
+        if (rows == null) {
+            return iterator();
+        }
+        PrimitiveIterator.OfInt it = rows.iterator();
+        Row view = new Row();
+        return new Iterator<OrderEvent>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public OrderEvent next() {
+                view.row = it.nextInt();
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Flyweight {@link OrderEvent} over one row of the mapped segment.
+     */
+    public class Row implements OrderEvent {
+        private final LongColumn.Cursor timestampCursor = timestamps.cursor();
+        private final LongColumn.Cursor priceCursor = prices.cursor();
+        private int row;
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public long getOrderId() { return OrderSegment.this.getOrderId(row); }
+        public String getAccountId() { return accounts[OrderSegment.this.getAccountId(row)]; }
+        public String getSymbol() { return symbols[OrderSegment.this.getSymbolId(row)]; }
+        public Side getSide() { return SIDES[getSideCode(row)]; }
+        public Type getType() { return TYPES[getTypeCode(row)]; }
+        public long getTimestampNanos() { return timestampCursor.get(row); }
+        public double getPrice() { return Prices.fromTicks(priceCursor.get(row)); }
+        public long getQuantity() { return OrderSegment.this.getQuantity(row); }
+    }
+}
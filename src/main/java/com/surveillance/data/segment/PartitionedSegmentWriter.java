@@ -0,0 +1,322 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Timestamps;
+import com.surveillance.core.Trade;
+import com.surveillance.data.Dictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Writes time-ordered trades and orders into one segment per trading day
+ * (local midnight to midnight), named {@code trades-yyyy-MM-dd-NNN.seg} and
+ * {@code orders-yyyy-MM-dd-NNN.seg}, and records them in a
+ * {@link SegmentManifest} on {@link #close()}, with each segment's quantity
+ * zone map and account and symbol bloom filters. A day with more than
+ * {@code maxRowsPerSegment} rows of a kind is split over several segments.
+ * File names sort in time order, so the directory also loads without the
+ * manifest.
+ *
+ * A manifest already in the directory is removed when the writer is created,
+ * since it would describe segments this writer may overwrite. {@link #abort()}
+ * deletes the segments written so far instead of writing the manifest.
+ */
+public class PartitionedSegmentWriter implements Closeable {
+
+    private final Path directory;
+    private final Dictionary accounts;
+    private final Dictionary symbols;
+    private final List<SegmentManifest.Entry> entries = new ArrayList<>();
+    private final List<Path> written = new ArrayList<>();
+    private final TradePartition trades;
+    private final OrderPartition orders;
+
+    public PartitionedSegmentWriter(Path directory, int maxRowsPerSegment) throws IOException {
+        this(directory, maxRowsPerSegment, new Dictionary(), new Dictionary());
+    }
+
+    /**
+     * Writer whose buffered rows are encoded against the given dictionaries,
+     * so stores sharing them can be appended without re-encoding (see
+     * {@link #append(TradeStore)}).
+     */
+    public PartitionedSegmentWriter(Path directory, int maxRowsPerSegment,
+                                    Dictionary accounts, Dictionary symbols) throws IOException {
+        if (maxRowsPerSegment <= 0) {
+            throw new IllegalArgumentException("Rows per segment must be positive: " + maxRowsPerSegment);
+        }
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SegmentManifest.FILE_NAME));
+        this.directory = directory;
+        this.accounts = accounts;
+        this.symbols = symbols;
+        this.trades = new TradePartition(maxRowsPerSegment);
+        this.orders = new OrderPartition(maxRowsPerSegment);
+    }
+
+    public void append(Trade trade) throws IOException {
+        trades.roll(trade.getTimestampNanos());
+        trades.store.append(trade);
+    }
+
+    public void append(OrderEvent order) throws IOException {
+        orders.roll(order.getTimestampNanos());
+        orders.store.append(order);
+    }
+
+    /**
+     * Append every row of a store in row order. A store sharing this writer's
+     * dictionaries is copied by id; any other is re-encoded row by row.
+     */
+    public void append(TradeStore rows) throws IOException {
+        if (rows.getAccounts() != accounts || rows.getSymbols() != symbols) {
+            for (Trade trade : rows) {
+                append(trade);
+            }
+            return;
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            trades.roll(rows.getTimestampNanos(row));
+            trades.store.appendEncoded(rows.getTradeId(row), rows.getAccountId(row), rows.getSymbolId(row),
+                rows.getSideCode(row), rows.getTimestampNanos(row), rows.getPriceTicks(row), rows.getQuantity(row));
+        }
+    }
+
+    /**
+     * Append every row of a store in row order, as {@link #append(TradeStore)}.
+     */
+    public void append(OrderStore rows) throws IOException {
+        if (rows.getAccounts() != accounts || rows.getSymbols() != symbols) {
+            for (OrderEvent order : rows) {
+                append(order);
+            }
+            return;
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            orders.roll(rows.getTimestampNanos(row));
+            orders.store.appendEncoded(rows.getOrderId(row), rows.getAccountId(row), rows.getSymbolId(row),
+                rows.getSideCode(row), rows.getTypeCode(row), rows.getTimestampNanos(row), rows.getPriceTicks(row),
+                rows.getQuantity(row));
+        }
+    }
+
+    public Dictionary getAccounts() { return accounts; }
+    public Dictionary getSymbols() { return symbols; }
+
+    /**
+     * Write the open segments and the manifest.
+     */
+    @Override
+    public void close() throws IOException {
+        trades.flush();
+        orders.flush();
+        new SegmentManifest(entries).write(directory);
+    }
+
+    /**
+     * Delete every segment written so far, without writing a manifest. Used
+     * when the input fails part way; the buffered rows are dropped.
+     */
+    public void abort() throws IOException {
+        IOException failure = null;
+        for (Path path : written) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        written.clear();
+        entries.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static BloomFilter bloom(BitSet ids, Dictionary dictionary) {
+        BloomFilter filter = BloomFilter.forCount(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            filter.add(dictionary.decode(id));
+        }
+        return filter;
+    }
+
+    /**
+     * Rows of one kind for the current trading day, not yet written.
+     */
+    private abstract class Partition {
+        private final String prefix;
+        private final byte kind;
+        final int maxRows;
+        private long dayEnd = Long.MIN_VALUE;
+        private String day;
+        private int sequence;
+        private long minTimestamp;
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        Partition(String prefix, byte kind, int maxRows) {
+            this.prefix = prefix;
+            this.kind = kind;
+            this.maxRows = maxRows;
+        }
+
+        /**
+         * Write the buffered rows if the next one starts a new day or would
+         * overflow the segment, and track the timestamp bounds. Days only
+         * roll forward, so a row before the previous one is rejected.
+         */
+        void roll(long timestampNanos) throws IOException {
+            if (timestampNanos < maxTimestamp) {
+                throw new IllegalArgumentException("Timestamp " + timestampNanos + " is before the previous "
+                    + prefix + " row's " + maxTimestamp);
+            }
+            if (timestampNanos >= dayEnd) {
+                flush();
+                day = Timestamps.formatDate(timestampNanos);
+                dayEnd = Timestamps.nextDayStart(timestampNanos);
+                sequence = 0;
+            } else if (size() == maxRows) {
+                flush();
+            }
+            if (size() == 0) {
+                minTimestamp = timestampNanos;
+            }
+            maxTimestamp = timestampNanos;
+        }
+
+        void flush() throws IOException {
+            int rows = size();
+            if (rows == 0) {
+                return;
+            }
+            String file = String.format("%s-%s-%03d.seg", prefix, day, sequence++);
+            Path path = directory.resolve(file);
+            written.add(path);
+            write(path);
+            SegmentManifest.Entry entry = new SegmentManifest.Entry(file, kind, day, rows, minTimestamp, maxTimestamp);
+            describe(entry);
+            entries.add(entry);
+            reset();
+        }
+
+        /**
+         * Set the entry's quantity zone map and bloom filters from the
+         * buffered rows.
+         */
+        private void describe(SegmentManifest.Entry entry) {
+            BitSet accountIds = new BitSet();
+            BitSet symbolIds = new BitSet();
+            long minQuantity = Long.MAX_VALUE;
+            long maxQuantity = Long.MIN_VALUE;
+            for (int row = 0; row < size(); row++) {
+                accountIds.set(accountId(row));
+                symbolIds.set(symbolId(row));
+                minQuantity = Math.min(minQuantity, quantity(row));
+                maxQuantity = Math.max(maxQuantity, quantity(row));
+            }
+            entry.setQuantityRange(minQuantity, maxQuantity);
+            entry.setFilters(bloom(accountIds, accounts), bloom(symbolIds, symbols));
+        }
+
+        abstract int size();
+
+        abstract void write(Path path) throws IOException;
+
+        abstract int accountId(int row);
+
+        abstract int symbolId(int row);
+
+        abstract long quantity(int row);
+
+        abstract void reset();
+    }
+
+    private final class TradePartition extends Partition {
+        TradeStore store;
+
+        TradePartition(int maxRows) {
+            super("trades", SegmentFormat.KIND_TRADES, maxRows);
+            reset();
+        }
+
+        @Override
+        int size() {
+            return store.size();
+        }
+
+        @Override
+        void write(Path path) throws IOException {
+            SegmentWriter.writeTrades(store, path);
+        }
+
+        @Override
+        int accountId(int row) {
+            return store.getAccountId(row);
+        }
+
+        @Override
+        int symbolId(int row) {
+            return store.getSymbolId(row);
+        }
+
+        @Override
+        long quantity(int row) {
+            return store.getQuantity(row);
+        }
+
+        @Override
+        void reset() {
+            store = new TradeStore(accounts, symbols, Math.min(maxRows, 1 << 16));
+        }
+    }
+
+    private final class OrderPartition extends Partition {
+        OrderStore store;
+
+        OrderPartition(int maxRows) {
+            super("orders", SegmentFormat.KIND_ORDERS, maxRows);
+            reset();
+        }
+
+        @Override
+        int size() {
+            return store.size();
+        }
+
+        @Override
+        void write(Path path) throws IOException {
+            SegmentWriter.writeOrders(store, path);
+        }
+
+        @Override
+        int accountId(int row) {
+            return store.getAccountId(row);
+        }
+
+        @Override
+        int symbolId(int row) {
+            return store.getSymbolId(row);
+        }
+
+        @Override
+        long quantity(int row) {
+            return store.getQuantity(row);
+        }
+
+        @Override
+        void reset() {
+            store = new OrderStore(accounts, symbols, Math.min(maxRows, 1 << 16));
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.surveillance.data.segment;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Compressed set of row numbers in the Roaring layout: rows are grouped by
+ * their high 16 bits, and each group is held as a sorted array of low 16 bits
+ * while it has at most {@value #ARRAY_MAX} rows, or as a 65536-bit bitmap
+ * once denser. A sparse account costs two bytes per row; a symbol present on
+ * most rows costs one bit per row.
+ *
+ * Serialized form (little-endian, as in {@link SegmentFormat}):
+ * {@code containerCount:int} then per container
+ * {@code key:short cardinality:int} followed by {@code cardinality} shorts,
+ * or by 1024 longs when the cardinality exceeds {@value #ARRAY_MAX}.
+ */
+public final class RowBitmap {
+
+    /** Largest container held as a sorted array. */
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Add a row. Adding rows in increasing order is the fast path.
+     */
+    public void add(int row) {
+        char key = (char) (row >>> 16);
+        int index = size > 0 && keys[size - 1] == key ? size - 1 : find(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+        containers[index] = containers[index].add((char) row);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int row) {
+        int index = find((char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    /**
+     * Rows in both bitmaps.
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality() > 0) {
+                    result.insert(result.size, keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rows in either bitmap.
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insert(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insert(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rows in increasing order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container;
+            private int position = -1;
+            private int nextRow = advance();
+
+            private int advance() {
+                while (container < size) {
+                    position = containers[container].next(position);
+                    if (position >= 0) {
+                        return (keys[container] << 16) | position;
+                    }
+                    container++;
+                    position = -1;
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextRow >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (nextRow < 0) {
+                    throw new NoSuchElementException();
+                }
+                int row = nextRow;
+                nextRow = advance();
+                return row;
+            }
+        };
+    }
+
+    public int serializedBytes() {
+        int bytes = 4;
+        for (int i = 0; i < size; i++) {
+            bytes += 2 + 4 + containers[i].serializedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Write at the buffer's position; the buffer must be little-endian.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putChar(keys[i]);
+            buffer.putInt(containers[i].cardinality());
+            containers[i].writeTo(buffer);
+        }
+    }
+
+    /**
+     * Read a bitmap at an absolute offset of a little-endian buffer.
+     */
+    public static RowBitmap read(ByteBuffer buffer, int offset) {
+        RowBitmap bitmap = new RowBitmap();
+        int count = buffer.getInt(offset);
+        int pos = offset + 4;
+        for (int i = 0; i < count; i++) {
+            char key = buffer.getChar(pos);
+            int cardinality = buffer.getInt(pos + 2);
+            pos += 6;
+            Container container;
+            if (cardinality <= ARRAY_MAX) {
+                char[] values = new char[Math.max(cardinality, 1)];
+                for (int v = 0; v < cardinality; v++) {
+                    values[v] = buffer.getChar(pos + v * 2);
+                }
+                container = new ArrayContainer(values, cardinality);
+                pos += cardinality * 2;
+            } else {
+                long[] words = new long[BITMAP_WORDS];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] = buffer.getLong(pos + w * 8);
+                }
+                container = new BitmapContainer(words, cardinality);
+                pos += BITMAP_WORDS * 8;
+            }
+            bitmap.insert(bitmap.size, key, container);
+        }
+        return bitmap;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * The low 16 bits of the rows sharing one key.
+     */
+    private abstract static class Container {
+        /** Add a value, returning this container or its replacement. */
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        /** Next value after {@code value} (-1 for the first), or -1 if none. */
+        abstract int next(int value);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract int serializedBytes();
+
+        abstract void writeTo(ByteBuffer buffer);
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int v = next(-1); v >= 0; v = next(v)) {
+                bitmap.add((char) v);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                ? -cardinality - 1
+                : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int value) {
+            if (value >= 0xFFFF) {
+                return -1;
+            }
+            int index = value < 0 ? 0 : Arrays.binarySearch(values, 0, cardinality, (char) (value + 1));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            Container result = other.copy();
+            for (int i = 0; i < cardinality; i++) {
+                result = result.add(values[i]);
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        int serializedBytes() {
+            return cardinality * 2;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            for (int i = 0; i < cardinality; i++) {
+                buffer.putChar(values[i]);
+            }
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int next(int value) {
+            int from = value + 1;
+            if (from >= BITMAP_WORDS * 64) {
+                return -1;
+            }
+            int word = from >>> 6;
+            long bits = words[word] & (-1L << from);
+            while (bits == 0) {
+                if (++word == BITMAP_WORDS) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+            return word * 64 + Long.numberOfTrailingZeros(bits);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                result[w] = words[w] & otherWords[w];
+                count += Long.bitCount(result[w]);
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            for (int v = other.next(-1); v >= 0; v = other.next(v)) {
+                result.add((char) v);
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        int serializedBytes() {
+            return cardinality <= ARRAY_MAX ? cardinality * 2 : BITMAP_WORDS * 8;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            if (cardinality <= ARRAY_MAX) {
+                // The reader infers the layout from the cardinality
+                for (int v = next(-1); v >= 0; v = next(v)) {
+                    buffer.putChar((char) v);
+                }
+            } else {
+                for (long word : words) {
+                    buffer.putLong(word);
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int v = next(-1); v >= 0; v = next(v)) {
+                values[n++] = (char) v;
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
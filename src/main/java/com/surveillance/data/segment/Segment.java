@@ -0,0 +1,185 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.core.ScanFilter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A read-only, memory-mapped segment file. The header and dictionaries are
+ * decoded on open; column values are read from the mapping, in place or a
+ * block at a time for the encoded timestamp and price columns, so repeat runs
+ * over the same window are served from the OS page cache.
+ *
+ * An indexed segment answers account and symbol conditions of a
+ * {@link ScanFilter} from its row bitmaps, so a scan for one account visits
+ * only that account's rows.
+ */
+public abstract class Segment implements Closeable {
+
+    protected final Path path;
+    protected final MappedByteBuffer buffer;
+    protected final short version;
+    protected final int rowCount;
+    protected final long minTimestampNanos;
+    protected final long maxTimestampNanos;
+    protected final String[] accounts;
+    protected final String[] symbols;
+    private final long[] columnOffsets;
+    private final int indexOffset;
+    private final FileChannel channel;
+    private Map<String, Integer> accountIds;
+    private Map<String, Integer> symbolIds;
+
+    protected Segment(Path path, byte expectedKind, int expectedColumns) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(0) != SegmentFormat.MAGIC) {
+                throw new IOException("Not a segment file: " + path);
+            }
+            this.version = buffer.getShort(4);
+            if (version < 1 || version > SegmentFormat.VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + path);
+            }
+            byte kind = buffer.get(6);
+            if (kind != expectedKind) {
+                throw new IOException("Unexpected segment kind " + kind + ": " + path);
+            }
+            boolean indexed = (buffer.get(7) & SegmentFormat.FLAG_INDEXED) != 0;
+            this.indexOffset = indexed ? (int) buffer.getLong(buffer.capacity() - SegmentFormat.FOOTER_BYTES) : -1;
+            this.rowCount = buffer.getInt(8);
+            this.minTimestampNanos = buffer.getLong(12);
+            this.maxTimestampNanos = buffer.getLong(20);
+            int accountCount = buffer.getInt(28);
+            int symbolCount = buffer.getInt(32);
+            int columnCount = buffer.getInt(36);
+            if (columnCount != expectedColumns) {
+                throw new IOException("Unexpected column count " + columnCount + ": " + path);
+            }
+            this.columnOffsets = new long[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columnOffsets[i] = buffer.getLong(SegmentFormat.FIXED_HEADER_BYTES + i * SegmentFormat.DIRECTORY_ENTRY_BYTES);
+            }
+
+            int pos = SegmentFormat.headerBytes(columnCount);
+            this.accounts = new String[accountCount];
+            pos = readDictionary(pos, accounts);
+            this.symbols = new String[symbolCount];
+            readDictionary(pos, symbols);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private int readDictionary(int pos, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            int length = buffer.getInt(pos);
+            byte[] bytes = new byte[length];
+            buffer.get(pos + 4, bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+            pos += 4 + length;
+        }
+        return pos;
+    }
+
+    protected int columnOffset(int column) {
+        return (int) columnOffsets[column];
+    }
+
+    /**
+     * A long column stored with the given encoding since version 2, and
+     * plain before it.
+     */
+    LongColumn longColumn(int column, byte encoding) {
+        return new LongColumn(buffer, columnOffset(column), rowCount, version >= 2 ? encoding : LongColumn.PLAIN);
+    }
+
+    public boolean isIndexed() {
+        return indexOffset >= 0;
+    }
+
+    /**
+     * Rows that may match the filter's account and symbol conditions, or
+     * {@code null} if every row may (no such condition, or no index). Time,
+     * price and quantity conditions are left to the caller.
+     */
+    public RowBitmap rowsMatching(ScanFilter filter) {
+        if (!isIndexed() || (filter.getAccounts() == null && filter.getSymbol() == null)) {
+            return null;
+        }
+        RowBitmap rows = null;
+        if (filter.getAccounts() != null) {
+            rows = new RowBitmap();
+            for (String account : filter.getAccounts()) {
+                RowBitmap accountRows = accountRows(account);
+                if (accountRows != null) {
+                    rows = rows.or(accountRows);
+                }
+            }
+        }
+        if (filter.getSymbol() != null) {
+            RowBitmap symbolRows = symbolRows(filter.getSymbol());
+            if (symbolRows == null) {
+                return new RowBitmap();
+            }
+            rows = rows != null ? rows.and(symbolRows) : symbolRows;
+        }
+        return rows;
+    }
+
+    /**
+     * Rows of an account, or {@code null} if the segment has none or no index.
+     */
+    public synchronized RowBitmap accountRows(String account) {
+        if (accountIds == null) {
+            accountIds = lookup(accounts);
+        }
+        Integer id = accountIds.get(account);
+        return id != null && isIndexed() ? bitmap(id) : null;
+    }
+
+    /**
+     * Rows of a symbol, or {@code null} if the segment has none or no index.
+     */
+    public synchronized RowBitmap symbolRows(String symbol) {
+        if (symbolIds == null) {
+            symbolIds = lookup(symbols);
+        }
+        Integer id = symbolIds.get(symbol);
+        return id != null && isIndexed() ? bitmap(accounts.length + id) : null;
+    }
+
+    private RowBitmap bitmap(int slot) {
+        return RowBitmap.read(buffer, buffer.getInt(indexOffset + slot * 4));
+    }
+
+    private static Map<String, Integer> lookup(String[] values) {
+        Map<String, Integer> ids = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            ids.put(values[i], i);
+        }
+        return ids;
+    }
+
+    public Path getPath() { return path; }
+    public int getRowCount() { return rowCount; }
+    public long getMinTimestampNanos() { return minTimestampNanos; }
+    public long getMaxTimestampNanos() { return maxTimestampNanos; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
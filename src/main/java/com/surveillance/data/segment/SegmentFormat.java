@@ -0,0 +1,61 @@
+package com.surveillance.data.segment;
+
+/**
+ * Layout constants for the binary segment format.
+ *
+ * <pre>
+ * header      magic:int version:short kind:byte flags:byte rowCount:int
+ *             minTimestamp:long maxTimestamp:long
+ *             accountCount:int symbolCount:int columnCount:int
+ *             (offset:long length:long) per column
+ * dictionary  (length:int utf8-bytes) per account, then per symbol
+ * columns     one contiguous little-endian column after another, in column order
+ * index       (bitmapOffset:int) per account, then per symbol;
+ *             the {@link RowBitmap}s, in the same order
+ * footer      indexOffset:long
+ * </pre>
+ *
+ * Columns are fixed width arrays, except that since version 2 the timestamp
+ * column holds zigzag varint deltas and the price column frame-of-reference
+ * tick offsets, both in blocks of {@value LongColumn#BLOCK_ROWS} rows (see
+ * {@link LongColumn}); readers accept both versions.
+ * The index and footer are present when {@link #FLAG_INDEXED} is set; files
+ * written before it existed have a zero flags byte and are read by scanning.
+ */
+public final class SegmentFormat {
+
+    public static final int MAGIC = 0x53525653; // "SRVS"
+    public static final short VERSION = 2;
+
+    public static final byte KIND_TRADES = 0;
+    public static final byte KIND_ORDERS = 1;
+
+    /** The file ends with per-account and per-symbol row bitmaps. */
+    public static final byte FLAG_INDEXED = 1;
+
+    /** Column order for trade segments. */
+    public static final int TRADE_COL_ID = 0;
+    public static final int TRADE_COL_TIMESTAMP = 1;
+    public static final int TRADE_COL_ACCOUNT = 2;
+    public static final int TRADE_COL_SYMBOL = 3;
+    public static final int TRADE_COL_PRICE = 4;
+    public static final int TRADE_COL_QUANTITY = 5;
+    public static final int TRADE_COL_SIDE = 6;
+    public static final int TRADE_COLUMNS = 7;
+
+    /** Order segments use the trade columns plus an event type column. */
+    public static final int ORDER_COL_TYPE = 7;
+    public static final int ORDER_COLUMNS = 8;
+
+    /** Bytes before the column directory. */
+    public static final int FIXED_HEADER_BYTES = 4 + 2 + 1 + 1 + 4 + 8 + 8 + 4 + 4 + 4;
+    public static final int DIRECTORY_ENTRY_BYTES = 16;
+    public static final int FOOTER_BYTES = 8;
+
+    private SegmentFormat() {
+    }
+
+    public static int headerBytes(int columnCount) {
+        return FIXED_HEADER_BYTES + columnCount * DIRECTORY_ENTRY_BYTES;
+    }
+}
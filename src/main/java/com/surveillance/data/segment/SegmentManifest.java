@@ -0,0 +1,253 @@
+package com.surveillance.data.segment;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.surveillance.core.ScanFilter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of the segments in a day-partitioned directory, kept in
+ * {@code manifest.json} next to them. Each entry records the segment's file,
+ * kind, trading day and row count, with zone maps (min and max) over
+ * timestamp and quantity and bloom filters over account and symbol,
+ * so a reader can pick the segments that may match a {@link ScanFilter}
+ * without opening any of them. Entries of each kind are in time order.
+ *
+ * Version 1 manifests carry only the timestamp bounds; their segments are
+ * never skipped on the other conditions.
+ */
+public final class SegmentManifest {
+
+    public static final String FILE_NAME = "manifest.json";
+    private static final int VERSION = 2;
+
+    private final List<Entry> entries;
+
+    public SegmentManifest(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(FILE_NAME));
+    }
+
+    public static SegmentManifest read(Path directory) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            int version = field(root, "version", path).getAsInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported manifest version " + version + ": " + path);
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (JsonElement element : field(root, "segments", path).getAsJsonArray()) {
+                JsonObject segment = element.getAsJsonObject();
+                Entry entry = new Entry(
+                    field(segment, "file", path).getAsString(),
+                    kind(field(segment, "kind", path).getAsString(), path),
+                    field(segment, "day", path).getAsString(),
+                    field(segment, "rows", path).getAsInt(),
+                    field(segment, "minTimestampNanos", path).getAsLong(),
+                    field(segment, "maxTimestampNanos", path).getAsLong());
+                if (version >= 2) {
+                    entry.setQuantityRange(field(segment, "minQuantity", path).getAsLong(),
+                        field(segment, "maxQuantity", path).getAsLong());
+                    entry.setFilters(bloom(segment, "accountBloom"), bloom(segment, "symbolBloom"));
+                }
+                entries.add(entry);
+            }
+            return new SegmentManifest(entries);
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException | IllegalArgumentException e) {
+            throw new IOException("Invalid segment manifest: " + path, e);
+        }
+    }
+
+    /**
+     * Write the manifest to a temp file and move it into place, so readers
+     * never see a partial manifest.
+     */
+    public void write(Path directory) throws IOException {
+        Path temp = directory.resolve(FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("version").value(VERSION);
+            json.name("segments").beginArray();
+            for (Entry entry : entries) {
+                json.beginObject();
+                json.name("file").value(entry.file);
+                json.name("kind").value(entry.kind == SegmentFormat.KIND_TRADES ? "trades" : "orders");
+                json.name("day").value(entry.day);
+                json.name("rows").value(entry.rowCount);
+                json.name("minTimestampNanos").value(entry.minTimestampNanos);
+                json.name("maxTimestampNanos").value(entry.maxTimestampNanos);
+                json.name("minQuantity").value(entry.minQuantity);
+                json.name("maxQuantity").value(entry.maxQuantity);
+                if (entry.accounts != null) {
+                    json.name("accountBloom").value(entry.accounts.encode());
+                }
+                if (entry.symbols != null) {
+                    json.name("symbolBloom").value(entry.symbols.encode());
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        Files.move(temp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Entries of one kind ({@link SegmentFormat#KIND_TRADES} or
+     * {@link SegmentFormat#KIND_ORDERS}) holding rows in [fromNanos, toNanos].
+     */
+    public List<Entry> overlapping(byte kind, long fromNanos, long toNanos) {
+        return matching(kind, ScanFilter.between(fromNanos, toNanos));
+    }
+
+    /**
+     * Entries of one kind that may hold rows matching the filter.
+     */
+    public List<Entry> matching(byte kind, ScanFilter filter) {
+        List<Entry> selected = new ArrayList<>();
+        if (filter.isEmpty()) {
+            return selected;
+        }
+        for (Entry entry : entries) {
+            if (entry.kind == kind && entry.mayMatch(filter)) {
+                selected.add(entry);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Total rows of one kind.
+     */
+    public long getRowCount(byte kind) {
+        long rows = 0;
+        for (Entry entry : entries) {
+            if (entry.kind == kind) {
+                rows += entry.rowCount;
+            }
+        }
+        return rows;
+    }
+
+    private static JsonElement field(JsonObject object, String name, Path path) throws IOException {
+        JsonElement value = object.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new IOException("Segment manifest " + path + " is missing " + name);
+        }
+        return value;
+    }
+
+    private static BloomFilter bloom(JsonObject object, String name) {
+        JsonElement value = object.get(name);
+        return value != null && !value.isJsonNull() ? BloomFilter.decode(value.getAsString()) : null;
+    }
+
+    private static byte kind(String name, Path path) throws IOException {
+        switch (name) {
+            case "trades":
+                return SegmentFormat.KIND_TRADES;
+            case "orders":
+                return SegmentFormat.KIND_ORDERS;
+            default:
+                throw new IOException("Unknown segment kind " + name + ": " + path);
+        }
+    }
+
+    /**
+     * One segment file; the file name is relative to the manifest's directory.
+     * Zone maps and filters default to unknown, which never skips the segment.
+     */
+    public static final class Entry {
+        private final String file;
+        private final byte kind;
+        private final String day;
+        private final int rowCount;
+        private final long minTimestampNanos;
+        private final long maxTimestampNanos;
+        private long minQuantity = Long.MIN_VALUE;
+        private long maxQuantity = Long.MAX_VALUE;
+        private BloomFilter accounts;
+        private BloomFilter symbols;
+
+        public Entry(String file, byte kind, String day, int rowCount,
+                     long minTimestampNanos, long maxTimestampNanos) {
+            this.file = file;
+            this.kind = kind;
+            this.day = day;
+            this.rowCount = rowCount;
+            this.minTimestampNanos = minTimestampNanos;
+            this.maxTimestampNanos = maxTimestampNanos;
+        }
+
+        public boolean overlaps(long fromNanos, long toNanos) {
+            return rowCount > 0 && minTimestampNanos <= toNanos && maxTimestampNanos >= fromNanos;
+        }
+
+        /**
+         * Whether the segment may hold a row matching the filter; {@code false}
+         * only if its zone maps or bloom filters rule every row out.
+         */
+        public boolean mayMatch(ScanFilter filter) {
+            if (!overlaps(filter.getFromNanos(), filter.getToNanos())) {
+                return false;
+            }
+            if (minQuantity > filter.getMaxQuantity() || maxQuantity < filter.getMinQuantity()) {
+                return false;
+            }
+            if (symbols != null && filter.getSymbol() != null && !symbols.mightContain(filter.getSymbol())) {
+                return false;
+            }
+            if (accounts != null && filter.getAccounts() != null) {
+                for (String account : filter.getAccounts()) {
+                    if (accounts.mightContain(account)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        public void setQuantityRange(long minQuantity, long maxQuantity) {
+            this.minQuantity = minQuantity;
+            this.maxQuantity = maxQuantity;
+        }
+
+        public void setFilters(BloomFilter accounts, BloomFilter symbols) {
+            this.accounts = accounts;
+            this.symbols = symbols;
+        }
+
+        public String getFile() { return file; }
+        public byte getKind() { return kind; }
+        public String getDay() { return day; }
+        public int getRowCount() { return rowCount; }
+        public long getMinTimestampNanos() { return minTimestampNanos; }
+        public long getMaxTimestampNanos() { return maxTimestampNanos; }
+        public long getMinQuantity() { return minQuantity; }
+        public long getMaxQuantity() { return maxQuantity; }
+    }
+}
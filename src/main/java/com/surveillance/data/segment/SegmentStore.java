@@ -0,0 +1,159 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Trade;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Day-partitioned segment directory described by a {@link SegmentManifest}.
+ * Reads for a {@link ScanFilter} go only to the segments whose zone maps and
+ * bloom filters admit it, and within those to the rows their bitmap indexes
+ * admit; segments are opened the first time a read reaches them and stay
+ * mapped until the store is closed. Thread-safe.
+ */
+public class SegmentStore implements Closeable {
+
+    private final Path directory;
+    private final SegmentManifest manifest;
+    private final Map<String, Segment> open = new HashMap<>();
+    private boolean closed;
+
+    private SegmentStore(Path directory, SegmentManifest manifest) {
+        this.directory = directory;
+        this.manifest = manifest;
+    }
+
+    public static SegmentStore open(Path directory) throws IOException {
+        return new SegmentStore(directory, SegmentManifest.read(directory));
+    }
+
+    /**
+     * Trades of the segments overlapping [fromNanos, toNanos], in time order.
+     * Rows of those segments outside the range are included.
+     */
+    public Iterable<Trade> trades(long fromNanos, long toNanos) {
+        return trades(ScanFilter.between(fromNanos, toNanos));
+    }
+
+    /**
+     * Trades of the segments that may match the filter, in time order. Within
+     * a segment, the row index narrows the scan to the filter's accounts and
+     * symbol; rows failing its other conditions are included.
+     */
+    public Iterable<Trade> trades(ScanFilter filter) {
+        List<SegmentManifest.Entry> entries = manifest.matching(SegmentFormat.KIND_TRADES, filter);
+        return () -> new Chain<>(entries, entry -> ((TradeSegment) segment(entry)).iterator(filter));
+    }
+
+    /**
+     * Order events of the segments overlapping [fromNanos, toNanos], in time order.
+     */
+    public Iterable<OrderEvent> orders(long fromNanos, long toNanos) {
+        return orders(ScanFilter.between(fromNanos, toNanos));
+    }
+
+    /**
+     * Order events of the segments that may match the filter, in time order.
+     */
+    public Iterable<OrderEvent> orders(ScanFilter filter) {
+        List<SegmentManifest.Entry> entries = manifest.matching(SegmentFormat.KIND_ORDERS, filter);
+        return () -> new Chain<>(entries, entry -> ((OrderSegment) segment(entry)).iterator(filter));
+    }
+
+    public SegmentManifest getManifest() { return manifest; }
+    public long getTradeCount() { return manifest.getRowCount(SegmentFormat.KIND_TRADES); }
+    public long getOrderCount() { return manifest.getRowCount(SegmentFormat.KIND_ORDERS); }
+
+    /**
+     * Number of segments opened so far.
+     */
+    public synchronized int getOpenSegmentCount() {
+        return open.size();
+    }
+
+    /**
+     * Close the open segments. Iterations still running keep reading their
+     * mappings; segments they reach afterwards are mapped without being kept.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        for (Segment segment : open.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        open.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private synchronized Segment segment(SegmentManifest.Entry entry) {
+        Segment segment = open.get(entry.getFile());
+        if (segment != null) {
+            return segment;
+        }
+        Path path = directory.resolve(entry.getFile());
+        try {
+            segment = entry.getKind() == SegmentFormat.KIND_TRADES ? TradeSegment.open(path) : OrderSegment.open(path);
+            if (closed) {
+                // The mapping outlives the channel
+                segment.close();
+            } else {
+                open.put(entry.getFile(), segment);
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Opener<T> {
+        Iterator<T> open(SegmentManifest.Entry entry);
+    }
+
+    /**
+     * Iterates the selected segments one after another, opening each on arrival.
+     */
+    private static final class Chain<T> implements Iterator<T> {
+        private final List<SegmentManifest.Entry> entries;
+        private final Opener<T> opener;
+        private int next;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        Chain(List<SegmentManifest.Entry> entries, Opener<T> opener) {
+            this.entries = entries;
+            this.opener = opener;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && next < entries.size()) {
+                current = opener.open(entries.get(next++));
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
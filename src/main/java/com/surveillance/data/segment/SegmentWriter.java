@@ -0,0 +1,322 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.data.Dictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes trade and order stores to the binary segment format described in
+ * {@link SegmentFormat}. Account and symbol ids are remapped to a dictionary
+ * local to the segment, so each file is self-contained, and every file gets
+ * a {@link RowBitmap} index of its rows per account and per symbol.
+ * Timestamps are written as varint deltas and prices as offsets from a
+ * per-block base (see {@link LongColumn}).
+ */
+public class SegmentWriter {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private SegmentWriter() {
+    }
+
+    public static void writeTrades(TradeStore store, Path path) throws IOException {
+        writeTrades(store, 0, store.size(), path);
+    }
+
+    /**
+     * Write rows [fromRow, toRow) of a trade store to a segment file.
+     */
+    public static void writeTrades(TradeStore store, int fromRow, int toRow, Path path) throws IOException {
+        int rows = toRow - fromRow;
+        LocalDictionary accounts = new LocalDictionary(store.getAccounts());
+        LocalDictionary symbols = new LocalDictionary(store.getSymbols());
+        RowIndex index = new RowIndex();
+        long[] timestamps = new long[rows];
+        long[] prices = new long[rows];
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (int row = fromRow; row < toRow; row++) {
+            index.add(row - fromRow, accounts.map(store.getAccountId(row)), symbols.map(store.getSymbolId(row)));
+            timestamps[row - fromRow] = store.getTimestampNanos(row);
+            prices[row - fromRow] = store.getPriceTicks(row);
+            minTs = Math.min(minTs, store.getTimestampNanos(row));
+            maxTs = Math.max(maxTs, store.getTimestampNanos(row));
+        }
+        byte[] timestampColumn = LongColumn.encodeDeltas(timestamps, rows);
+        byte[] priceColumn = LongColumn.encodeFrameOfReference(prices, rows);
+
+        long[] lengths = {8L * rows, timestampColumn.length, 4L * rows, 4L * rows, priceColumn.length, 8L * rows, rows};
+        try (Output out = new Output(path)) {
+            long indexOffset = writeHeader(out, SegmentFormat.KIND_TRADES, rows, minTs, maxTs, accounts, symbols,
+                lengths, index.bytes());
+            for (int row = fromRow; row < toRow; row++) out.putLong(store.getTradeId(row));
+            out.put(timestampColumn);
+            for (int row = fromRow; row < toRow; row++) out.putInt(accounts.map(store.getAccountId(row)));
+            for (int row = fromRow; row < toRow; row++) out.putInt(symbols.map(store.getSymbolId(row)));
+            out.put(priceColumn);
+            for (int row = fromRow; row < toRow; row++) out.putLong(store.getQuantity(row));
+            for (int row = fromRow; row < toRow; row++) out.put(store.getSideCode(row));
+            index.write(out, indexOffset);
+        }
+    }
+
+    public static void writeOrders(OrderStore store, Path path) throws IOException {
+        writeOrders(store, 0, store.size(), path);
+    }
+
+    /**
+     * Write rows [fromRow, toRow) of an order store to a segment file.
+     */
+    public static void writeOrders(OrderStore store, int fromRow, int toRow, Path path) throws IOException {
+        int rows = toRow - fromRow;
+        LocalDictionary accounts = new LocalDictionary(store.getAccounts());
+        LocalDictionary symbols = new LocalDictionary(store.getSymbols());
+        RowIndex index = new RowIndex();
+        long[] timestamps = new long[rows];
+        long[] prices = new long[rows];
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (int row = fromRow; row < toRow; row++) {
+            index.add(row - fromRow, accounts.map(store.getAccountId(row)), symbols.map(store.getSymbolId(row)));
+            timestamps[row - fromRow] = store.getTimestampNanos(row);
+            prices[row - fromRow] = store.getPriceTicks(row);
+            minTs = Math.min(minTs, store.getTimestampNanos(row));
+            maxTs = Math.max(maxTs, store.getTimestampNanos(row));
+        }
+        byte[] timestampColumn = LongColumn.encodeDeltas(timestamps, rows);
+        byte[] priceColumn = LongColumn.encodeFrameOfReference(prices, rows);
+
+        long[] lengths = {8L * rows, timestampColumn.length, 4L * rows, 4L * rows, priceColumn.length, 8L * rows, rows, rows};
+        try (Output out = new Output(path)) {
+            long indexOffset = writeHeader(out, SegmentFormat.KIND_ORDERS, rows, minTs, maxTs, accounts, symbols,
+                lengths, index.bytes());
+            for (int row = fromRow; row < toRow; row++) out.putLong(store.getOrderId(row));
+            out.put(timestampColumn);
+            for (int row = fromRow; row < toRow; row++) out.putInt(accounts.map(store.getAccountId(row)));
+            for (int row = fromRow; row < toRow; row++) out.putInt(symbols.map(store.getSymbolId(row)));
+            out.put(priceColumn);
+            for (int row = fromRow; row < toRow; row++) out.putLong(store.getQuantity(row));
+            for (int row = fromRow; row < toRow; row++) out.put(store.getSideCode(row));
+            for (int row = fromRow; row < toRow; row++) out.put(store.getTypeCode(row));
+            index.write(out, indexOffset);
+        }
+    }
+
+    /**
+     * Write the header and dictionaries, returning the offset just past the
+     * columns, where the index goes.
+     */
+    private static long writeHeader(Output out, byte kind, int rows, long minTs, long maxTs,
+                                    LocalDictionary accounts, LocalDictionary symbols,
+                                    long[] columnLengths, long indexBytes) throws IOException {
+        byte[][] accountBytes = accounts.encodedValues();
+        byte[][] symbolBytes = symbols.encodedValues();
+        long offset = SegmentFormat.headerBytes(columnLengths.length)
+            + dictionaryBytes(accountBytes) + dictionaryBytes(symbolBytes);
+
+        out.putInt(SegmentFormat.MAGIC);
+        out.putShort(SegmentFormat.VERSION);
+        out.put(kind);
+        out.put(SegmentFormat.FLAG_INDEXED);
+        out.putInt(rows);
+        out.putLong(rows > 0 ? minTs : 0);
+        out.putLong(rows > 0 ? maxTs : 0);
+        out.putInt(accountBytes.length);
+        out.putInt(symbolBytes.length);
+        out.putInt(columnLengths.length);
+        for (long length : columnLengths) {
+            out.putLong(offset);
+            out.putLong(length);
+            offset += length;
+        }
+        if (offset + indexBytes > Integer.MAX_VALUE) {
+            throw new IOException("Segment too large to map: " + (offset + indexBytes) + " bytes");
+        }
+        writeDictionary(out, accountBytes);
+        writeDictionary(out, symbolBytes);
+        return offset;
+    }
+
+    private static long dictionaryBytes(byte[][] values) {
+        long total = 0;
+        for (byte[] value : values) {
+            total += 4 + value.length;
+        }
+        return total;
+    }
+
+    private static void writeDictionary(Output out, byte[][] values) throws IOException {
+        for (byte[] value : values) {
+            out.putInt(value.length);
+            out.put(value);
+        }
+    }
+
+    /**
+     * Remaps store-wide dictionary ids to dense ids local to one segment.
+     */
+    private static final class LocalDictionary {
+        private final Dictionary global;
+        private int[] localIds;
+        private int[] globalIds = new int[16];
+        private int size;
+
+        LocalDictionary(Dictionary global) {
+            this.global = global;
+            this.localIds = new int[Math.max(global.size(), 1)];
+            Arrays.fill(localIds, -1);
+        }
+
+        int map(int globalId) {
+            if (globalId >= localIds.length) {
+                int old = localIds.length;
+                localIds = Arrays.copyOf(localIds, Math.max(globalId + 1, old * 2));
+                Arrays.fill(localIds, old, localIds.length, -1);
+            }
+            int local = localIds[globalId];
+            if (local < 0) {
+                local = size++;
+                localIds[globalId] = local;
+                if (local == globalIds.length) {
+                    globalIds = Arrays.copyOf(globalIds, local * 2);
+                }
+                globalIds[local] = globalId;
+            }
+            return local;
+        }
+
+        byte[][] encodedValues() {
+            byte[][] values = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                values[i] = global.decode(globalIds[i]).getBytes(StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Row bitmaps per local account and symbol id, written after the columns
+     * as an offset table, the bitmaps, and a footer pointing at the table.
+     */
+    private static final class RowIndex {
+        private final List<RowBitmap> accountRows = new ArrayList<>();
+        private final List<RowBitmap> symbolRows = new ArrayList<>();
+
+        void add(int row, int account, int symbol) {
+            bitmap(accountRows, account).add(row);
+            bitmap(symbolRows, symbol).add(row);
+        }
+
+        private static RowBitmap bitmap(List<RowBitmap> bitmaps, int id) {
+            if (id == bitmaps.size()) {
+                bitmaps.add(new RowBitmap());
+            }
+            return bitmaps.get(id);
+        }
+
+        long bytes() {
+            long bytes = 4L * (accountRows.size() + symbolRows.size()) + SegmentFormat.FOOTER_BYTES;
+            for (RowBitmap bitmap : accountRows) bytes += bitmap.serializedBytes();
+            for (RowBitmap bitmap : symbolRows) bytes += bitmap.serializedBytes();
+            return bytes;
+        }
+
+        void write(Output out, long indexOffset) throws IOException {
+            long offset = indexOffset + 4L * (accountRows.size() + symbolRows.size());
+            for (RowBitmap bitmap : accountRows) {
+                out.putInt((int) offset);
+                offset += bitmap.serializedBytes();
+            }
+            for (RowBitmap bitmap : symbolRows) {
+                out.putInt((int) offset);
+                offset += bitmap.serializedBytes();
+            }
+            for (RowBitmap bitmap : accountRows) writeBitmap(out, bitmap);
+            for (RowBitmap bitmap : symbolRows) writeBitmap(out, bitmap);
+            out.putLong(indexOffset);
+        }
+
+        private static void writeBitmap(Output out, RowBitmap bitmap) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            bitmap.writeTo(buffer);
+            out.put(buffer.array());
+        }
+    }
+
+    /**
+     * Little-endian buffered channel writer.
+     */
+    private static final class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        Output(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void put(byte[] value) throws IOException {
+            int pos = 0;
+            while (pos < value.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), value.length - pos);
+                buffer.put(value, pos, n);
+                pos += n;
+            }
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.surveillance.data.segment;
+
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.data.Prices;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Memory-mapped trade segment. Iteration yields one reused flyweight view per
+ * iterator that reads each field from the mapping, decoding the timestamp and
+ * price columns a block at a time.
+ */
+public class TradeSegment extends Segment implements Iterable<Trade> {
+
+    private static final Side[] SIDES = Side.values();
+
+    private final int idOffset;
+    private final LongColumn timestamps;
+    private final int accountOffset;
+    private final int symbolOffset;
+    private final LongColumn prices;
+    private final int quantityOffset;
+    private final int sideOffset;
+
+    private TradeSegment(Path path) throws IOException {
+        super(path, SegmentFormat.KIND_TRADES, SegmentFormat.TRADE_COLUMNS);
+        idOffset = columnOffset(SegmentFormat.TRADE_COL_ID);
+        timestamps = longColumn(SegmentFormat.TRADE_COL_TIMESTAMP, LongColumn.DELTA_VARINT);
+        accountOffset = columnOffset(SegmentFormat.TRADE_COL_ACCOUNT);
+        symbolOffset = columnOffset(SegmentFormat.TRADE_COL_SYMBOL);
+        prices = longColumn(SegmentFormat.TRADE_COL_PRICE, LongColumn.FRAME_OF_REFERENCE);
+        quantityOffset = columnOffset(SegmentFormat.TRADE_COL_QUANTITY);
+        sideOffset = columnOffset(SegmentFormat.TRADE_COL_SIDE);
+    }
+
+    public static TradeSegment open(Path path) throws IOException {
+        return new TradeSegment(path);
+    }
+
+    // Column accessors by row; iterate to read many rows
+    public long getTradeId(int row) { return buffer.getLong(idOffset + row * 8); }
+    public long getTimestampNanos(int row) { return timestamps.get(row); }
+    public int getAccountId(int row) { return buffer.getInt(accountOffset + row * 4); }
+    public int getSymbolId(int row) { return buffer.getInt(symbolOffset + row * 4); }
+    public long getPriceTicks(int row) { return prices.get(row); }
+    public long getQuantity(int row) { return buffer.getLong(quantityOffset + row * 8); }
+    public byte getSideCode(int row) { return buffer.get(sideOffset + row); }
+
+    public String decodeAccount(int id) { return accounts[id]; }
+    public String decodeSymbol(int id) { return symbols[id]; }
+
+    public Row row(int row) {
+        Row view = new Row();
+        view.row = row;
+        return view;
+    }
+
+    @Override
+    public Iterator<Trade> iterator() {
+        Row view = new Row();
+        return new Iterator<Trade>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public Trade next() {
+                if (next >= rowCount) {
+                    throw new NoSuchElementException();
+                }
+                view.row = next++;
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Iterate only the rows the index admits for the filter's account and
+     * symbol conditions (see {@link #rowsMatching}), or every row if it cannot
+     * narrow them.
+     */
+    public Iterator<Trade> iterator(ScanFilter filter) {
+        RowBitmap rows = rowsMatching(filter);
+        if (rows == null) {
+            return iterator();
+        }
+        PrimitiveIterator.OfInt it = rows.iterator();
+        Row view = new Row();
+        return new Iterator<Trade>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Trade next() {
+                view.row = it.nextInt();
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Flyweight {@link Trade} over one row of the mapped segment.
+     */
+    public class Row implements Trade {
+        private final LongColumn.Cursor timestampCursor = timestamps.cursor();
+        private final LongColumn.Cursor priceCursor = prices.cursor();
+        private int row;
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public long getTradeId() { return TradeSegment.this.getTradeId(row); }
+        public String getAccountId() { return accounts[TradeSegment.this.getAccountId(row)]; }
+        public String getSymbol() { return symbols[TradeSegment.this.getSymbolId(row)]; }
+        public Side getSide() { return SIDES[getSideCode(row)]; }
+        public long getTimestampNanos() { return timestampCursor.get(row); }
+        public double getPrice() { return Prices.fromTicks(priceCursor.get(row)); }
+        public long getQuantity() { return TradeSegment.this.getQuantity(row); }
+    }
+}
@@ -0,0 +1,65 @@
+package com.surveillance.data.synthetic;
+
+import com.surveillance.core.DetectionResult;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ids of the manipulation patterns injected by {@link MarketDataGenerator},
+ * used to measure detector recall.
+ */
+public class GroundTruth {
+
+    private final Set<Long> washTradeBuyIds = new HashSet<>();
+    private final Set<Long> spoofOrderIds = new HashSet<>();
+    private final Set<Long> frontRunningTradeIds = new HashSet<>();
+
+    void addWashTrade(long buyTradeId) { washTradeBuyIds.add(buyTradeId); }
+    void addSpoof(long orderId) { spoofOrderIds.add(orderId); }
+    void addFrontRunning(long employeeTradeId) { frontRunningTradeIds.add(employeeTradeId); }
+
+    public Set<Long> getWashTradeBuyIds() { return washTradeBuyIds; }
+    public Set<Long> getSpoofOrderIds() { return spoofOrderIds; }
+    public Set<Long> getFrontRunningTradeIds() { return frontRunningTradeIds; }
+
+    /**
+     * Fraction of injected patterns for the result's report type that appear
+     * among its alerts. Returns 1.0 when nothing of that type was injected.
+     */
+    public double recall(DetectionResult result) {
+        Set<Long> injected;
+        String prefix;
+        switch (result.getReportType()) {
+            case "wash_trade":
+                injected = washTradeBuyIds;
+                prefix = "TRD-";
+                break;
+            case "spoofing":
+                injected = spoofOrderIds;
+                prefix = "ORD-";
+                break;
+            case "front_running":
+                injected = frontRunningTradeIds;
+                prefix = "TRD-";
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + result.getReportType());
+        }
+        if (injected.isEmpty()) {
+            return 1.0;
+        }
+        Set<Long> found = new HashSet<>();
+        try (DetectionResult.AlertReader alerts = result.readAlerts()) {
+            for (DetectionResult.Alert alert : alerts) {
+                String id = alert.getTradeId();
+                if (id != null && id.startsWith(prefix)) {
+                    long value = Long.parseLong(id.substring(prefix.length()));
+                    if (injected.contains(value)) {
+                        found.add(value);
+                    }
+                }
+            }
+        }
+        return (double) found.size() / injected.size();
+    }
+}
@@ -0,0 +1,390 @@
+package com.surveillance.data.synthetic;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.segment.PartitionedSegmentWriter;
+import com.surveillance.data.segment.SegmentManifest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic synthetic market data with injected manipulation.
+ *
+ * Produces a single time-ordered stream of background trades and order
+ * lifecycles (new orders later cancelled or filled), and injects known wash
+ * trade pairs, spoof/cancel bursts and front running sequences at configured
+ * per-event rates. The same seed and settings always produce the same events
+ * and the same {@link GroundTruth}, so detector throughput and recall can be
+ * measured on the same data.
+ *
+ * Events are streamed, and only future-dated events (order terminations and
+ * the tails of injected patterns) are buffered, so the scale is bounded by
+ * the output rather than the heap: 1M events fit in a {@link TradeStore},
+ * 1B events can be written to segment files with {@link #writeSegments}.
+ */
+public class MarketDataGenerator {
+
+    private static final long MILLI = 1_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+    private static final int SPOOF_SMALL_ORDERS = 12;
+
+    private long seed = 42;
+    private long totalEvents = 1_000_000;
+    private int symbolCount = 1_000;
+    private int accountCount = 10_000;
+    private int employeeCount = 100;
+    private long startNanos = 1_704_205_800L * SECOND; // 2024-01-02T14:30:00Z
+    private long meanInterArrivalNanos = MILLI;
+    private double washTradeRate = 0.0005;
+    private double spoofRate = 0.0001;
+    private double frontRunningRate = 0.0002;
+
+    // Per-run state
+    private Random random;
+    private ReferenceData referenceData;
+    private GroundTruth groundTruth;
+    private PriorityQueue<Pending> pending;
+    private long sequence;
+    private long plannedEvents;
+    private long nextTradeId;
+    private long nextOrderId;
+    private final MutableTrade trade = new MutableTrade();
+    private final MutableOrder order = new MutableOrder();
+
+    /**
+     * Generate the configured number of events, in time order, into the given consumers.
+     * Event objects are reused between calls; consumers must copy what they keep.
+     */
+    public GroundTruth generate(Consumer<Trade> tradeConsumer, Consumer<OrderEvent> orderConsumer) {
+        random = new Random(seed);
+        referenceData = new ReferenceData(symbolCount, accountCount, employeeCount, random);
+        groundTruth = new GroundTruth();
+        pending = new PriorityQueue<>();
+        sequence = 0;
+        plannedEvents = 0;
+        nextTradeId = 1;
+        nextOrderId = 1;
+
+        long clock = startNanos;
+        while (plannedEvents < totalEvents) {
+            clock += 1 + (long) (random.nextDouble() * 2 * meanInterArrivalNanos);
+            drain(clock, tradeConsumer, orderConsumer);
+            long remaining = totalEvents - plannedEvents;
+            double roll = random.nextDouble();
+            if (roll < washTradeRate && remaining >= 2) {
+                injectWashTrade(clock);
+            } else if (roll < washTradeRate + spoofRate && remaining >= 2 * (SPOOF_SMALL_ORDERS + 1)) {
+                injectSpoofBurst(clock);
+            } else if (roll < washTradeRate + spoofRate + frontRunningRate && remaining >= 3) {
+                injectFrontRunning(clock);
+            } else if (random.nextBoolean() || remaining < 2) {
+                backgroundTrade(clock, tradeConsumer);
+            } else {
+                backgroundOrder(clock, orderConsumer);
+            }
+        }
+        drain(Long.MAX_VALUE, tradeConsumer, orderConsumer);
+        return groundTruth;
+    }
+
+    /**
+     * Generate into in-memory columnar stores.
+     */
+    public GroundTruth generateInto(TradeStore trades, OrderStore orders) {
+        return generate(trades::append, orders::append);
+    }
+
+    /**
+     * Generate into day-partitioned segment files in {@code directory} with a
+     * {@link SegmentManifest}, starting a new trade or order segment at each
+     * trading day and every {@code rowsPerSegment} rows within a day.
+     */
+    public GroundTruth writeSegments(Path directory, int rowsPerSegment) throws IOException {
+        try (PartitionedSegmentWriter writer = new PartitionedSegmentWriter(directory, rowsPerSegment)) {
+            return generate(trade -> append(writer, trade), order -> append(writer, order));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void append(PartitionedSegmentWriter writer, Trade trade) {
+        try {
+            writer.append(trade);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void append(PartitionedSegmentWriter writer, OrderEvent order) {
+        try {
+            writer.append(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reference data of the most recent run.
+     */
+    public ReferenceData getReferenceData() {
+        return referenceData;
+    }
+
+    // Background activity
+
+    private void backgroundTrade(long clock, Consumer<Trade> tradeConsumer) {
+        int symbol = random.nextInt(symbolCount);
+        String account = random.nextInt(100) == 0 && employeeCount > 0
+            ? referenceData.getEmployeeAccount(random.nextInt(employeeCount))
+            : referenceData.getAccount(random.nextInt(accountCount));
+        trade.set(nextTradeId++, account, referenceData.getSymbol(symbol), randomSide(), clock,
+            jitter(referenceData.getReferencePrice(symbol), 0.005), 100L * (1 + random.nextInt(20)));
+        plannedEvents++;
+        tradeConsumer.accept(trade);
+    }
+
+    private void backgroundOrder(long clock, Consumer<OrderEvent> orderConsumer) {
+        int symbol = random.nextInt(symbolCount);
+        long orderId = nextOrderId++;
+        String account = referenceData.getAccount(random.nextInt(accountCount));
+        Side side = randomSide();
+        double price = jitter(referenceData.getReferencePrice(symbol), 0.005);
+        long quantity = 100L * (1 + random.nextInt(20));
+        order.set(orderId, account, referenceData.getSymbol(symbol), side, OrderEvent.Type.NEW, clock, price, quantity);
+        plannedEvents++;
+        orderConsumer.accept(order);
+
+        OrderEvent.Type end = random.nextInt(10) < 3 ? OrderEvent.Type.CANCEL : OrderEvent.Type.FILL;
+        long lifetime = MILLI + (long) (random.nextDouble() * 5 * SECOND);
+        scheduleOrder(orderId, account, referenceData.getSymbol(symbol), side, end, clock + lifetime, price, quantity);
+    }
+
+    // Injected manipulation
+
+    private void injectWashTrade(long clock) {
+        int symbol = random.nextInt(symbolCount);
+        String account = referenceData.getAccount(random.nextInt(accountCount));
+        double price = jitter(referenceData.getReferencePrice(symbol), 0.005);
+        long quantity = 100L * (1 + random.nextInt(50));
+        long buyId = nextTradeId++;
+        scheduleTrade(buyId, account, referenceData.getSymbol(symbol), Side.BUY, clock, price, quantity);
+        scheduleTrade(nextTradeId++, account, referenceData.getSymbol(symbol), Side.SELL,
+            clock + SECOND + (long) (random.nextDouble() * 59 * SECOND), price, quantity);
+        groundTruth.addWashTrade(buyId);
+    }
+
+    private void injectSpoofBurst(long clock) {
+        int symbol = random.nextInt(symbolCount);
+        String symbolName = referenceData.getSymbol(symbol);
+        String account = referenceData.getAccount(random.nextInt(accountCount));
+        Side side = randomSide();
+        double price = referenceData.getReferencePrice(symbol);
+        long t = clock;
+        for (int i = 0; i < SPOOF_SMALL_ORDERS; i++) {
+            long orderId = nextOrderId++;
+            scheduleOrder(orderId, account, symbolName, side, OrderEvent.Type.NEW, t, price, 100);
+            scheduleOrder(orderId, account, symbolName, side, OrderEvent.Type.CANCEL,
+                t + 20 * MILLI + random.nextInt(180) * MILLI, price, 100);
+            t += MILLI + random.nextInt(10) * MILLI;
+        }
+        long spoofId = nextOrderId++;
+        long spoofQuantity = 5_000L + 100L * random.nextInt(50);
+        scheduleOrder(spoofId, account, symbolName, side, OrderEvent.Type.NEW, t, price, spoofQuantity);
+        scheduleOrder(spoofId, account, symbolName, side, OrderEvent.Type.CANCEL,
+            t + 50 * MILLI + random.nextInt(350) * MILLI, price, spoofQuantity);
+        groundTruth.addSpoof(spoofId);
+    }
+
+    private void injectFrontRunning(long clock) {
+        if (employeeCount == 0) {
+            return;
+        }
+        int symbol = random.nextInt(symbolCount);
+        String symbolName = referenceData.getSymbol(symbol);
+        String employeeAccount = referenceData.getEmployeeAccount(random.nextInt(employeeCount));
+        Side side = randomSide();
+        double price = referenceData.getReferencePrice(symbol);
+        long tradeId = nextTradeId++;
+        scheduleTrade(tradeId, employeeAccount, symbolName, side, clock, price, 100L * (1 + random.nextInt(5)));
+
+        long orderId = nextOrderId++;
+        String client = referenceData.getAccount(random.nextInt(accountCount));
+        long orderTime = clock + 50 * MILLI + random.nextInt(850) * MILLI;
+        long quantity = 20_000L + 1_000L * random.nextInt(30);
+        scheduleOrder(orderId, client, symbolName, side, OrderEvent.Type.NEW, orderTime, price, quantity);
+        scheduleOrder(orderId, client, symbolName, side, OrderEvent.Type.FILL,
+            orderTime + SECOND + random.nextInt(9) * SECOND, price, quantity);
+        groundTruth.addFrontRunning(tradeId);
+    }
+
+    // Scheduling of future-dated events
+
+    private void scheduleTrade(long id, String account, String symbol, Side side, long ts, double price, long qty) {
+        pending.add(new Pending(ts, sequence++, false, id, account, symbol, side, null, price, qty));
+        plannedEvents++;
+    }
+
+    private void scheduleOrder(long id, String account, String symbol, Side side, OrderEvent.Type type,
+                               long ts, double price, long qty) {
+        pending.add(new Pending(ts, sequence++, true, id, account, symbol, side, type, price, qty));
+        plannedEvents++;
+    }
+
+    private void drain(long untilNanos, Consumer<Trade> tradeConsumer, Consumer<OrderEvent> orderConsumer) {
+        while (!pending.isEmpty() && pending.peek().timestampNanos <= untilNanos) {
+            Pending p = pending.poll();
+            if (p.isOrder) {
+                order.set(p.id, p.account, p.symbol, p.side, p.type, p.timestampNanos, p.price, p.quantity);
+                orderConsumer.accept(order);
+            } else {
+                trade.set(p.id, p.account, p.symbol, p.side, p.timestampNanos, p.price, p.quantity);
+                tradeConsumer.accept(trade);
+            }
+        }
+    }
+
+    private Side randomSide() {
+        return random.nextBoolean() ? Side.BUY : Side.SELL;
+    }
+
+    private double jitter(double price, double maxFraction) {
+        double moved = price * (1 + (random.nextDouble() * 2 - 1) * maxFraction);
+        return Math.round(moved * 100) / 100.0;
+    }
+
+    // Settings
+    public void setSeed(long seed) { this.seed = seed; }
+    public void setTotalEvents(long totalEvents) { this.totalEvents = totalEvents; }
+    public void setSymbolCount(int symbolCount) { this.symbolCount = symbolCount; }
+    public void setAccountCount(int accountCount) { this.accountCount = accountCount; }
+    public void setEmployeeCount(int employeeCount) { this.employeeCount = employeeCount; }
+    public void setStartNanos(long startNanos) { this.startNanos = startNanos; }
+    public void setMeanInterArrivalNanos(long meanInterArrivalNanos) { this.meanInterArrivalNanos = meanInterArrivalNanos; }
+    public void setWashTradeRate(double washTradeRate) { this.washTradeRate = washTradeRate; }
+    public void setSpoofRate(double spoofRate) { this.spoofRate = spoofRate; }
+    public void setFrontRunningRate(double frontRunningRate) { this.frontRunningRate = frontRunningRate; }
+
+    /**
+     * Generate segment files from the command line:
+     * {@code MarketDataGenerator <events> <outputDir> [seed]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: MarketDataGenerator <events> <outputDir> [seed]");
+            System.exit(1);
+        }
+        MarketDataGenerator generator = new MarketDataGenerator();
+        generator.setTotalEvents(Long.parseLong(args[0]));
+        if (args.length > 2) {
+            generator.setSeed(Long.parseLong(args[2]));
+        }
+        long startTime = System.currentTimeMillis();
+        GroundTruth truth = generator.writeSegments(Paths.get(args[1]), 1 << 22);
+        long executionTime = System.currentTimeMillis() - startTime;
+        System.out.printf("Generated %s events in %d ms: %d wash trades, %d spoof bursts, %d front running sequences%n",
+            args[0], executionTime, truth.getWashTradeBuyIds().size(), truth.getSpoofOrderIds().size(),
+            truth.getFrontRunningTradeIds().size());
+    }
+
+    private static final class Pending implements Comparable<Pending> {
+        final long timestampNanos;
+        final long sequence;
+        final boolean isOrder;
+        final long id;
+        final String account;
+        final String symbol;
+        final Side side;
+        final OrderEvent.Type type;
+        final double price;
+        final long quantity;
+
+        Pending(long timestampNanos, long sequence, boolean isOrder, long id, String account, String symbol,
+                Side side, OrderEvent.Type type, double price, long quantity) {
+            this.timestampNanos = timestampNanos;
+            this.sequence = sequence;
+            this.isOrder = isOrder;
+            this.id = id;
+            this.account = account;
+            this.symbol = symbol;
+            this.side = side;
+            this.type = type;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byTime = Long.compare(timestampNanos, other.timestampNanos);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class MutableTrade implements Trade {
+        private long tradeId;
+        private String accountId;
+        private String symbol;
+        private Side side;
+        private long timestampNanos;
+        private double price;
+        private long quantity;
+
+        void set(long tradeId, String accountId, String symbol, Side side, long timestampNanos,
+                 double price, long quantity) {
+            this.tradeId = tradeId;
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.side = side;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public long getTradeId() { return tradeId; }
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public Side getSide() { return side; }
+        public long getTimestampNanos() { return timestampNanos; }
+        public double getPrice() { return price; }
+        public long getQuantity() { return quantity; }
+    }
+
+    private static final class MutableOrder implements OrderEvent {
+        private long orderId;
+        private String accountId;
+        private String symbol;
+        private Side side;
+        private Type type;
+        private long timestampNanos;
+        private double price;
+        private long quantity;
+
+        void set(long orderId, String accountId, String symbol, Side side, Type type, long timestampNanos,
+                 double price, long quantity) {
+            this.orderId = orderId;
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.side = side;
+            this.type = type;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public long getOrderId() { return orderId; }
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public Side getSide() { return side; }
+        public Type getType() { return type; }
+        public long getTimestampNanos() { return timestampNanos; }
+        public double getPrice() { return price; }
+        public long getQuantity() { return quantity; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.surveillance.data.synthetic;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Reference data for a synthetic data set: symbols with reference prices,
+ * trading accounts, and the employee accounts used for front running.
+ */
+public class ReferenceData {
+
+    private final String[] symbols;
+    private final double[] referencePrices;
+    private final String[] accounts;
+    private final String[] employeeAccounts;
+    private final Map<String, String> employeeByAccount;
+
+    ReferenceData(int symbolCount, int accountCount, int employeeCount, Random random) {
+        symbols = new String[symbolCount];
+        referencePrices = new double[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = "SYM" + i;
+            referencePrices[i] = 5 + random.nextInt(49_500) / 100.0;
+        }
+        accounts = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = "ACC-" + i;
+        }
+        employeeAccounts = new String[employeeCount];
+        Map<String, String> employees = new LinkedHashMap<>();
+        for (int i = 0; i < employeeCount; i++) {
+            employeeAccounts[i] = "EMP-ACC-" + i;
+            employees.put(employeeAccounts[i], "E-" + i);
+        }
+        employeeByAccount = Collections.unmodifiableMap(employees);
+    }
+
+    public int getSymbolCount() { return symbols.length; }
+    public String getSymbol(int i) { return symbols[i]; }
+    public double getReferencePrice(int i) { return referencePrices[i]; }
+    public int getAccountCount() { return accounts.length; }
+    public String getAccount(int i) { return accounts[i]; }
+    public int getEmployeeAccountCount() { return employeeAccounts.length; }
+    public String getEmployeeAccount(int i) { return employeeAccounts[i]; }
+
+    /**
+     * Employee account id to employee id, as expected by
+     * {@link com.surveillance.detectors.FrontRunningDetector#setEmployeeAccounts}.
+     */
+    public Map<String, String> getEmployeeAccounts() {
+        return employeeByAccount;
+    }
+}
@@ -1,61 +1,144 @@
 package com.surveillance.detectors;
 
+import com.surveillance.config.DetectorConfig;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.core.AlertSink;
+import com.surveillance.core.AlertType;
 import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Detector;
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Parameter;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Severity;
+import com.surveillance.core.Timestamps;
+import com.surveillance.core.Trade;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.text.SimpleDateFormat;
+import java.util.Map;
 
 /**
  * Detector for front running patterns.
  * Front running occurs when a broker executes orders on their own account
  * ahead of filling customer orders.
  */
-public class FrontRunningDetector {
+public class FrontRunningDetector implements Detector {
+
+    public static final String REPORT_TYPE = "front_running";
+    public static final String DEFAULT_CONFIG_PATH = "configs/front_running_detection.yml";
     
     private String configPath;
-    private Date startDate;
-    private Date endDate;
+    private DetectorConfig config;
+    private long startNanos = Timestamps.MIN;
+    private long endNanos = Timestamps.MAX;
+    @Parameter("accountId")
     private String accountId;
+    @Parameter("symbol")
     private String symbol;
+    @Parameter("traderId")
     private String traderId;
+    @Parameter("preTradeWindowMs")
     private int preTradeWindowMs = 1000;
+    @Parameter("postTradeWindowMs")
     private int postTradeWindowMs = 5000;
+    @Parameter("minOrderSizeRatio")
     private double minOrderSizeRatio = 0.1;
+    @Parameter("profitThreshold")
     private double profitThreshold = 100.0;
+    @Parameter("minLargeOrderQty")
+    private int minLargeOrderQty = 10000;
+    private Map<String, String> employeeAccounts = Collections.emptyMap();
+    private Iterable<? extends Trade> trades = Collections.emptyList();
+    private Iterable<? extends OrderEvent> orders = Collections.emptyList();
+    private AlertSink alertSink;
+
+    // Per-run state, set up by begin()
+    private DetectionResult result;
+    private FrontRunningSweep sweep;
+    private long startTime;
+
+    public FrontRunningDetector() {
+        this(DEFAULT_CONFIG_PATH);
+    }
 
+    /**
+     * Create a detector whose thresholds default to the values in the given
+     * YML config, if it exists; setters override them per run.
+     */
     public FrontRunningDetector(String configPath) {
         this.configPath = configPath;
+        this.config = configPath != null ? DetectorConfigLoader.load(configPath) : null;
+        if (config != null) {
+            preTradeWindowMs = config.getInt("time_window_before_seconds", preTradeWindowMs / 1000) * 1000;
+            minLargeOrderQty = config.getInt("min_large_order_qty", minLargeOrderQty);
+        }
     }
 
     /**
      * Run front running detection with configured parameters.
+     * Trades on employee accounts (see {@link #setEmployeeAccounts}) are joined
+     * to later large orders on the same symbol and side by a {@link FrontRunningSweep}.
      */
     public DetectionResult detect() {
-        long startTime = System.currentTimeMillis();
-        DetectionResult result = new DetectionResult("front_running");
+        begin();
+        for (Trade trade : trades) {
+            onTrade(trade);
+        }
+        for (OrderEvent order : orders) {
+            onOrder(order);
+        }
+        return finish();
+    }
+
+    @Override
+    public String getReportType() {
+        return REPORT_TYPE;
+    }
+
+    @Override
+    public void begin() {
+        startTime = System.currentTimeMillis();
+        result = new DetectionResult(REPORT_TYPE, alertSink);
         
         System.out.println("=== Front Running Detection ===");
         System.out.println("Config: " + configPath);
-        System.out.println("Date Range: " + formatDate(startDate) + " to " + formatDate(endDate));
+        System.out.println("Date Range: " + Timestamps.formatDate(startNanos) + " to " + Timestamps.formatDate(endNanos));
         System.out.println("Account Filter: " + (accountId != null ? accountId : "ALL"));
         System.out.println("Symbol Filter: " + (symbol != null ? symbol : "ALL"));
         System.out.println("Trader Filter: " + (traderId != null ? traderId : "ALL"));
         System.out.println("Pre-Trade Window: " + preTradeWindowMs + " ms");
         System.out.println("Post-Trade Window: " + postTradeWindowMs + " ms");
+        System.out.println("Min Large Order Qty: " + minLargeOrderQty);
         System.out.println();
         
-        // Simulate detection
-        if (traderId != null || accountId != null) {
-            DetectionResult.Alert alert = new DetectionResult.Alert(
-                "FRT-" + System.currentTimeMillis(),
-                accountId,
-                symbol,
-                "FRONT_RUNNING"
-            );
-            alert.setSeverity("CRITICAL");
-            alert.setDescription("Potential front running: proprietary trade executed before customer order");
-            alert.setTimestamp(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            result.addAlert(alert);
-        }
+        sweep = new FrontRunningSweep(preTradeWindowMs * Timestamps.NANOS_PER_MILLI);
+    }
+
+    @Override
+    public void onTrade(Trade trade) {
+        String employeeId = employeeAccounts.get(trade.getAccountId());
+        if (employeeId == null) return;
+        long ts = trade.getTimestampNanos();
+        if (ts < startNanos || ts > endNanos) return;
+        if (traderId != null && !traderId.equals(employeeId)) return;
+        if (accountId != null && !accountId.equals(trade.getAccountId())) return;
+        if (symbol != null && !symbol.equals(trade.getSymbol())) return;
+        sweep.addEmployeeTrade(trade, employeeId);
+    }
+
+    @Override
+    public void onOrder(OrderEvent order) {
+        if (order.getType() != OrderEvent.Type.NEW || order.getQuantity() < minLargeOrderQty) return;
+        long ts = order.getTimestampNanos();
+        if (ts < startNanos || ts > endNanos) return;
+        if (symbol != null && !symbol.equals(order.getSymbol())) return;
+        sweep.addLargeOrder(order);
+    }
+
+    @Override
+    public DetectionResult finish() {
+        sweep.sweep(this::addAlert);
         
         long executionTime = System.currentTimeMillis() - startTime;
         result.setExecutionTimeMs(executionTime);
@@ -64,17 +147,66 @@ public class FrontRunningDetector {
         
         System.out.println(result.getSummary());
         
+        if (alertSink != null) {
+            alertSink.complete(result);
+        }
         return result;
     }
 
-    private String formatDate(Date date) {
-        if (date == null) return "N/A";
-        return new SimpleDateFormat("yyyy-MM-dd").format(date);
+    private void addAlert(FrontRunningSweep.Match match) {
+        result.addAlert(
+            AlertType.FRONT_RUNNING,
+            Severity.CRITICAL,
+            match.getTradeId(),
+            match.getAccountId(),
+            match.getSymbol(),
+            match.getTradeTimeNanos(),
+            match.getEmployeeId(), match.getSide(), match.getTradeQuantity(),
+            match.getTimeBeforeLargeOrderNanos() / Timestamps.NANOS_PER_MILLI,
+            match.getLargeOrderId(), match.getLargeOrderQuantity(),
+            match.getTradeTimeNanos(), match.getLargeOrderTimeNanos());
+    }
+
+    @Override
+    public DetectorConfig getConfig() { return config; }
+
+    /**
+     * Only employee trades are used: the given account's, else the trader's
+     * accounts, else every employee account.
+     */
+    @Override
+    public ScanFilter getTradeFilter() {
+        Collection<String> accounts;
+        if (accountId != null) {
+            accounts = Collections.singleton(accountId);
+        } else if (traderId != null) {
+            accounts = new ArrayList<>();
+            for (Map.Entry<String, String> employee : employeeAccounts.entrySet()) {
+                if (traderId.equals(employee.getValue())) {
+                    accounts.add(employee.getKey());
+                }
+            }
+        } else {
+            accounts = employeeAccounts.keySet();
+        }
+        return ScanFilter.between(startNanos, endNanos).withAccounts(accounts).withSymbol(symbol);
+    }
+
+    @Override
+    public ScanFilter getOrderFilter() {
+        return ScanFilter.between(startNanos, endNanos).withSymbol(symbol)
+            .withQuantityRange(minLargeOrderQty, Long.MAX_VALUE);
     }
 
     // Setters
-    public void setStartDate(Date startDate) { this.startDate = startDate; }
-    public void setEndDate(Date endDate) { this.endDate = endDate; }
+    @Override
+    public void setAlertSink(AlertSink alertSink) { this.alertSink = alertSink; }
+    public void setStartNanos(long startNanos) { this.startNanos = startNanos; }
+    public void setEndNanos(long endNanos) { this.endNanos = endNanos; }
+    @Parameter("startDate")
+    public void setStartDate(Date startDate) { this.startNanos = Timestamps.fromDate(startDate, Timestamps.MIN); }
+    @Parameter("endDate")
+    public void setEndDate(Date endDate) { this.endNanos = Timestamps.fromDate(endDate, Timestamps.MAX); }
     public void setAccountId(String accountId) { this.accountId = accountId; }
     public void setSymbol(String symbol) { this.symbol = symbol; }
     public void setTraderId(String traderId) { this.traderId = traderId; }
@@ -82,9 +214,14 @@ public class FrontRunningDetector {
     public void setPostTradeWindowMs(int postTradeWindowMs) { this.postTradeWindowMs = postTradeWindowMs; }
     public void setMinOrderSizeRatio(double minOrderSizeRatio) { this.minOrderSizeRatio = minOrderSizeRatio; }
     public void setProfitThreshold(double profitThreshold) { this.profitThreshold = profitThreshold; }
+    @Parameter("employeeId")
     public void setEmployeeId(String employeeId) { this.traderId = employeeId; }
     public void setDepartment(String department) { /* department filter */ }
+    @Parameter("timeWindowBeforeSeconds")
     public void setTimeWindowBeforeSeconds(int seconds) { this.preTradeWindowMs = seconds * 1000; }
-    public void setMinLargeOrderQty(int minLargeOrderQty) { /* min order quantity */ }
+    public void setMinLargeOrderQty(int minLargeOrderQty) { this.minLargeOrderQty = minLargeOrderQty; }
     public void setMinPriceMovePct(double minPriceMovePct) { /* price move threshold */ }
+    public void setEmployeeAccounts(Map<String, String> employeeAccounts) { this.employeeAccounts = employeeAccounts; }
+    public void setTrades(Iterable<? extends Trade> trades) { this.trades = trades; }
+    public void setOrders(Iterable<? extends OrderEvent> orders) { this.orders = orders; }
 }
@@ -0,0 +1,163 @@
+package com.surveillance.detectors;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Sort-merge sweep joining employee trades to later large orders.
+ * Each employee trade at time t opens the interval (t, t + window]; per symbol,
+ * trades and large orders are sorted by time and walked with two pointers while
+ * a deque per side holds the currently open intervals. The join costs
+ * O((n + m) log n) for the sorts plus the size of the output, instead of the
+ * nested loop the TIMESTAMPDIFF predicate usually produces.
+ */
+public class FrontRunningSweep {
+
+    private static final Comparator<EmployeeTrade> TRADE_ORDER =
+        Comparator.comparingLong(t -> t.timestampNanos);
+    private static final Comparator<LargeOrder> ORDER_ORDER =
+        Comparator.comparingLong(o -> o.timestampNanos);
+
+    private final long windowNanos;
+    private final Map<String, SymbolInput> symbols = new LinkedHashMap<>();
+
+    public FrontRunningSweep(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    public void addEmployeeTrade(Trade trade, String employeeId) {
+        symbolInput(trade.getSymbol()).trades.add(new EmployeeTrade(
+            trade.getTradeId(), trade.getAccountId(), employeeId, trade.getSide(),
+            trade.getTimestampNanos(), trade.getPrice(), trade.getQuantity()));
+    }
+
+    public void addLargeOrder(OrderEvent order) {
+        symbolInput(order.getSymbol()).orders.add(new LargeOrder(
+            order.getOrderId(), order.getSide(), order.getTimestampNanos(), order.getQuantity()));
+    }
+
+    /**
+     * Sweep every symbol and emit each (employee trade, large order) pair on the
+     * same side where the order falls inside the trade's interval. Symbols are
+     * swept in the order they were first added, and each symbol's pairs come
+     * out in large order time order, so the output is the same on every run.
+     */
+    public void sweep(Consumer<Match> listener) {
+        for (Map.Entry<String, SymbolInput> entry : symbols.entrySet()) {
+            sweepSymbol(entry.getKey(), entry.getValue(), listener);
+        }
+    }
+
+    private void sweepSymbol(String symbol, SymbolInput input, Consumer<Match> listener) {
+        List<EmployeeTrade> trades = input.trades;
+        List<LargeOrder> orders = input.orders;
+        if (trades.isEmpty() || orders.isEmpty()) {
+            return;
+        }
+        trades.sort(TRADE_ORDER);
+        orders.sort(ORDER_ORDER);
+
+        ArrayDeque<EmployeeTrade> activeBuys = new ArrayDeque<>();
+        ArrayDeque<EmployeeTrade> activeSells = new ArrayDeque<>();
+        int next = 0;
+        for (LargeOrder order : orders) {
+            // Open every interval that starts strictly before this order
+            while (next < trades.size() && trades.get(next).timestampNanos < order.timestampNanos) {
+                EmployeeTrade trade = trades.get(next++);
+                (trade.side == Side.BUY ? activeBuys : activeSells).addLast(trade);
+            }
+            ArrayDeque<EmployeeTrade> active = order.side == Side.BUY ? activeBuys : activeSells;
+            // Close intervals that ended before this order; later orders cannot reopen them
+            long cutoff = order.timestampNanos - windowNanos;
+            while (!active.isEmpty() && active.peekFirst().timestampNanos < cutoff) {
+                active.pollFirst();
+            }
+            for (EmployeeTrade trade : active) {
+                listener.accept(new Match(symbol, trade, order));
+            }
+        }
+    }
+
+    private SymbolInput symbolInput(String symbol) {
+        return symbols.computeIfAbsent(symbol, k -> new SymbolInput());
+    }
+
+    /**
+     * A matched pair, mirroring the columns of the front running SQL.
+     */
+    public static class Match {
+        private final String symbol;
+        private final EmployeeTrade trade;
+        private final LargeOrder order;
+
+        private Match(String symbol, EmployeeTrade trade, LargeOrder order) {
+            this.symbol = symbol;
+            this.trade = trade;
+            this.order = order;
+        }
+
+        public String getSymbol() { return symbol; }
+        public String getEmployeeId() { return trade.employeeId; }
+        public String getAccountId() { return trade.accountId; }
+        public long getTradeId() { return trade.tradeId; }
+        public Side getSide() { return trade.side; }
+        public long getTradeTimeNanos() { return trade.timestampNanos; }
+        public double getTradePrice() { return trade.price; }
+        public long getTradeQuantity() { return trade.quantity; }
+        public long getLargeOrderId() { return order.orderId; }
+        public long getLargeOrderTimeNanos() { return order.timestampNanos; }
+        public long getLargeOrderQuantity() { return order.quantity; }
+
+        public long getTimeBeforeLargeOrderNanos() {
+            return order.timestampNanos - trade.timestampNanos;
+        }
+    }
+
+    private static final class SymbolInput {
+        final List<EmployeeTrade> trades = new ArrayList<>();
+        final List<LargeOrder> orders = new ArrayList<>();
+    }
+
+    private static final class EmployeeTrade {
+        final long tradeId;
+        final String accountId;
+        final String employeeId;
+        final Side side;
+        final long timestampNanos;
+        final double price;
+        final long quantity;
+
+        EmployeeTrade(long tradeId, String accountId, String employeeId, Side side,
+                      long timestampNanos, double price, long quantity) {
+            this.tradeId = tradeId;
+            this.accountId = accountId;
+            this.employeeId = employeeId;
+            this.side = side;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class LargeOrder {
+        final long orderId;
+        final Side side;
+        final long timestampNanos;
+        final long quantity;
+
+        LargeOrder(long orderId, Side side, long timestampNanos, long quantity) {
+            this.orderId = orderId;
+            this.side = side;
+            this.timestampNanos = timestampNanos;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.surveillance.detectors;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Incremental order lifecycle engine for spoofing detection.
+ * Tracks each order from NEW to CANCELLED or FILLED by order id and keeps
+ * running per-(account, symbol) order counts, cancel counts and quantity totals
+ * in a single pass over the order events. Short-lived cancels are remembered
+ * as candidates and checked against the final statistics in {@link #finish},
+ * which replaces the GROUP BY and join back to the detail rows in the SQL.
+ */
+public class OrderLifecycleTracker {
+
+    /**
+     * State of a tracked order.
+     */
+    public enum State {
+        LIVE,
+        CANCELLED,
+        FILLED
+    }
+
+    private final long maxOrderLifetimeNanos;
+    private final Map<Long, LiveOrder> liveOrders = new HashMap<>();
+    private final Map<String, Map<String, Stats>> stats = new LinkedHashMap<>();
+    private long eventCount;
+
+    public OrderLifecycleTracker(long maxOrderLifetimeNanos) {
+        this.maxOrderLifetimeNanos = maxOrderLifetimeNanos;
+    }
+
+    /**
+     * Feed the next order event. Cancels and fills for orders whose NEW event
+     * was never seen (for example before the start of the date range) are ignored.
+     * A fill ends an order only once its whole quantity is filled, so an order
+     * that is partly filled and then cancelled counts as cancelled, as its
+     * status does in the SQL. A repeated NEW for an open order is ignored.
+     */
+    public void onOrder(OrderEvent event) {
+        eventCount++;
+        switch (event.getType()) {
+            case NEW:
+                onNew(event);
+                break;
+            case CANCEL:
+                onCancel(event);
+                break;
+            case FILL:
+                onFill(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onNew(OrderEvent event) {
+        if (liveOrders.containsKey(event.getOrderId())) {
+            return;
+        }
+        Stats s = statsFor(event.getAccountId(), event.getSymbol());
+        s.totalOrders++;
+        s.totalQuantity += event.getQuantity();
+        liveOrders.put(event.getOrderId(), new LiveOrder(
+            event.getOrderId(), s, event.getSide(), event.getTimestampNanos(),
+            event.getPrice(), event.getQuantity()));
+    }
+
+    private void onCancel(OrderEvent event) {
+        LiveOrder order = liveOrders.remove(event.getOrderId());
+        if (order == null) {
+            return;
+        }
+        order.stats.cancelledOrders++;
+        long lifetime = event.getTimestampNanos() - order.orderTimeNanos;
+        if (lifetime <= maxOrderLifetimeNanos) {
+            order.cancelTimeNanos = event.getTimestampNanos();
+            order.stats.shortLivedCancels.add(order);
+        }
+    }
+
+    private void onFill(OrderEvent event) {
+        LiveOrder order = liveOrders.get(event.getOrderId());
+        if (order == null) {
+            return;
+        }
+        order.openQuantity -= event.getQuantity();
+        if (order.openQuantity <= 0) {
+            liveOrders.remove(event.getOrderId());
+        }
+    }
+
+    /**
+     * Emit every short-lived cancelled order whose account/symbol passes the
+     * cancel rate and order count thresholds and whose size is at least
+     * {@code minSizeMultiplier} times the account's average order size.
+     * Flags come out by account in the order first seen, then by symbol in
+     * the order first seen for that account, then by cancel time, so the
+     * output is the same on every run.
+     */
+    public void finish(double cancelRateThreshold, int minOrderCount, double minSizeMultiplier,
+                       Consumer<Flag> listener) {
+        for (Map.Entry<String, Map<String, Stats>> byAccount : stats.entrySet()) {
+            for (Map.Entry<String, Stats> bySymbol : byAccount.getValue().entrySet()) {
+                Stats s = bySymbol.getValue();
+                if (s.shortLivedCancels.isEmpty() || s.totalOrders < minOrderCount) {
+                    continue;
+                }
+                double cancelRate = (double) s.cancelledOrders / s.totalOrders;
+                if (cancelRate < cancelRateThreshold) {
+                    continue;
+                }
+                double avgQuantity = (double) s.totalQuantity / s.totalOrders;
+                for (LiveOrder order : s.shortLivedCancels) {
+                    double sizeMultiplier = order.quantity / avgQuantity;
+                    if (sizeMultiplier >= minSizeMultiplier) {
+                        listener.accept(new Flag(
+                            byAccount.getKey(), bySymbol.getKey(), order.orderId, order.side,
+                            order.orderTimeNanos, order.cancelTimeNanos, order.price, order.quantity,
+                            s.totalOrders, s.cancelledOrders, cancelRate, sizeMultiplier));
+                    }
+                }
+            }
+        }
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public int getLiveOrderCount() {
+        return liveOrders.size();
+    }
+
+    private Stats statsFor(String accountId, String symbol) {
+        return stats
+            .computeIfAbsent(accountId, k -> new LinkedHashMap<>())
+            .computeIfAbsent(symbol, k -> new Stats());
+    }
+
+    /**
+     * A flagged order, mirroring the columns of the spoofing SQL.
+     */
+    public static class Flag {
+        private final String accountId;
+        private final String symbol;
+        private final long orderId;
+        private final Side side;
+        private final long orderTimeNanos;
+        private final long cancelTimeNanos;
+        private final double price;
+        private final long quantity;
+        private final long totalOrders;
+        private final long cancelledOrders;
+        private final double cancelRate;
+        private final double sizeMultiplier;
+
+        public Flag(String accountId, String symbol, long orderId, Side side,
+                    long orderTimeNanos, long cancelTimeNanos, double price, long quantity,
+                    long totalOrders, long cancelledOrders, double cancelRate, double sizeMultiplier) {
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.orderId = orderId;
+            this.side = side;
+            this.orderTimeNanos = orderTimeNanos;
+            this.cancelTimeNanos = cancelTimeNanos;
+            this.price = price;
+            this.quantity = quantity;
+            this.totalOrders = totalOrders;
+            this.cancelledOrders = cancelledOrders;
+            this.cancelRate = cancelRate;
+            this.sizeMultiplier = sizeMultiplier;
+        }
+
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public long getOrderId() { return orderId; }
+        public Side getSide() { return side; }
+        public long getOrderTimeNanos() { return orderTimeNanos; }
+        public long getCancelTimeNanos() { return cancelTimeNanos; }
+        public double getPrice() { return price; }
+        public long getQuantity() { return quantity; }
+        public long getTotalOrders() { return totalOrders; }
+        public long getCancelledOrders() { return cancelledOrders; }
+        public double getCancelRate() { return cancelRate; }
+        public double getSizeMultiplier() { return sizeMultiplier; }
+
+        public long getOrderLifetimeNanos() {
+            return cancelTimeNanos - orderTimeNanos;
+        }
+    }
+
+    private static final class Stats {
+        long totalOrders;
+        long cancelledOrders;
+        long totalQuantity;
+        final List<LiveOrder> shortLivedCancels = new ArrayList<>();
+    }
+
+    private static final class LiveOrder {
+        final long orderId;
+        final Stats stats;
+        final Side side;
+        final long orderTimeNanos;
+        final double price;
+        final long quantity;
+        long openQuantity;
+        long cancelTimeNanos;
+
+        LiveOrder(long orderId, Stats stats, Side side, long orderTimeNanos, double price, long quantity) {
+            this.orderId = orderId;
+            this.stats = stats;
+            this.side = side;
+            this.orderTimeNanos = orderTimeNanos;
+            this.price = price;
+            this.quantity = quantity;
+            this.openQuantity = quantity;
+        }
+    }
+}
@@ -1,59 +1,128 @@
 package com.surveillance.detectors;
 
+import com.surveillance.config.DetectorConfig;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.core.AlertSink;
+import com.surveillance.core.AlertType;
 import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Detector;
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Parameter;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Severity;
+import com.surveillance.core.Timestamps;
+import java.util.Collections;
 import java.util.Date;
-import java.text.SimpleDateFormat;
 
 /**
  * Detector for spoofing and layering patterns.
  * Spoofing involves placing orders with intent to cancel before execution
  * to manipulate prices.
  */
-public class SpoofingDetector {
+public class SpoofingDetector implements Detector {
+
+    public static final String REPORT_TYPE = "spoofing";
+    public static final String DEFAULT_CONFIG_PATH = "configs/spoofing_detection.yml";
     
     private String configPath;
-    private Date startDate;
-    private Date endDate;
+    private DetectorConfig config;
+    private long startNanos = Timestamps.MIN;
+    private long endNanos = Timestamps.MAX;
+    @Parameter("accountId")
     private String accountId;
+    @Parameter("symbol")
     private String symbol;
+    @Parameter("cancelRateThreshold")
     private double cancelRateThreshold = 0.75;
+    @Parameter("maxOrderLifetimeMs")
     private int maxOrderLifetimeMs = 500;
+    @Parameter("minOrderCount")
     private int minOrderCount = 10;
+    @Parameter("priceImpactThreshold")
     private double priceImpactThreshold = 0.02;
+    @Parameter("minOrderSizeMultiplier")
+    private double minOrderSizeMultiplier = 5.0;
+    private Iterable<? extends OrderEvent> orders = Collections.emptyList();
+    private AlertSink alertSink;
+
+    // Per-run state, set up by begin()
+    private DetectionResult result;
+    private OrderLifecycleTracker tracker;
+    private long startTime;
+
+    public SpoofingDetector() {
+        this(DEFAULT_CONFIG_PATH);
+    }
 
+    /**
+     * Create a detector whose thresholds default to the values in the given
+     * YML config, if it exists; setters override them per run.
+     */
     public SpoofingDetector(String configPath) {
         this.configPath = configPath;
+        this.config = configPath != null ? DetectorConfigLoader.load(configPath) : null;
+        if (config != null) {
+            cancelRateThreshold = config.getDouble("cancel_rate", cancelRateThreshold);
+            maxOrderLifetimeMs = config.getInt("max_order_lifetime_ms", maxOrderLifetimeMs);
+            minOrderCount = config.getInt("min_orders", minOrderCount);
+            minOrderSizeMultiplier = config.getDouble("min_order_size_multiplier", minOrderSizeMultiplier);
+        }
     }
 
     /**
      * Run spoofing detection with configured parameters.
+     * Order events supplied via {@link #setOrders} are consumed once by an
+     * {@link OrderLifecycleTracker}.
      */
     public DetectionResult detect() {
-        long startTime = System.currentTimeMillis();
-        DetectionResult result = new DetectionResult("spoofing");
+        begin();
+        for (OrderEvent order : orders) {
+            onOrder(order);
+        }
+        return finish();
+    }
+
+    @Override
+    public String getReportType() {
+        return REPORT_TYPE;
+    }
+
+    @Override
+    public void begin() {
+        startTime = System.currentTimeMillis();
+        result = new DetectionResult(REPORT_TYPE, alertSink);
         
         System.out.println("=== Spoofing Detection ===");
         System.out.println("Config: " + configPath);
-        System.out.println("Date Range: " + formatDate(startDate) + " to " + formatDate(endDate));
+        System.out.println("Date Range: " + Timestamps.formatDate(startNanos) + " to " + Timestamps.formatDate(endNanos));
         System.out.println("Account Filter: " + (accountId != null ? accountId : "ALL"));
         System.out.println("Symbol Filter: " + (symbol != null ? symbol : "ALL"));
         System.out.println("Cancel Rate Threshold: " + cancelRateThreshold);
         System.out.println("Max Order Lifetime: " + maxOrderLifetimeMs + " ms");
+        System.out.println("Min Order Count: " + minOrderCount);
+        System.out.println("Min Order Size Multiplier: " + minOrderSizeMultiplier);
         System.out.println();
         
-        // Simulate detection
-        if (accountId != null || symbol != null) {
-            DetectionResult.Alert alert = new DetectionResult.Alert(
-                "ORD-" + System.currentTimeMillis(),
-                accountId,
-                symbol,
-                "SPOOFING"
-            );
-            alert.setSeverity("HIGH");
-            alert.setDescription("High cancel rate detected: orders cancelled within " + maxOrderLifetimeMs + "ms");
-            alert.setTimestamp(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            result.addAlert(alert);
+        tracker = new OrderLifecycleTracker(maxOrderLifetimeMs * Timestamps.NANOS_PER_MILLI);
+    }
+
+    @Override
+    public void onOrder(OrderEvent order) {
+        if (accountId != null && !accountId.equals(order.getAccountId())) return;
+        if (symbol != null && !symbol.equals(order.getSymbol())) return;
+        if (order.getType() == OrderEvent.Type.NEW) {
+            long ts = order.getTimestampNanos();
+            if (ts < startNanos || ts > endNanos) return;
         }
+        tracker.onOrder(order);
+    }
+
+    @Override
+    public DetectionResult finish() {
+        System.out.println("Order Events Scanned: " + tracker.getEventCount());
+        
+        tracker.finish(cancelRateThreshold, minOrderCount, minOrderSizeMultiplier,
+            this::addAlert);
         
         long executionTime = System.currentTimeMillis() - startTime;
         result.setExecutionTimeMs(executionTime);
@@ -62,22 +131,57 @@ public class SpoofingDetector {
         
         System.out.println(result.getSummary());
         
+        if (alertSink != null) {
+            alertSink.complete(result);
+        }
         return result;
     }
 
-    private String formatDate(Date date) {
-        if (date == null) return "N/A";
-        return new SimpleDateFormat("yyyy-MM-dd").format(date);
+    private void addAlert(OrderLifecycleTracker.Flag flag) {
+        result.addAlert(
+            AlertType.SPOOFING,
+            Severity.HIGH,
+            flag.getOrderId(),
+            flag.getAccountId(),
+            flag.getSymbol(),
+            flag.getOrderTimeNanos(),
+            flag.getSide(), flag.getOrderLifetimeNanos() / Timestamps.NANOS_PER_MILLI, flag.getSizeMultiplier(),
+            flag.getCancelRate() * 100, flag.getTotalOrders(),
+            flag.getOrderTimeNanos(), flag.getCancelTimeNanos(), flag.getQuantity(), flag.getPrice());
+    }
+
+    @Override
+    public DetectorConfig getConfig() { return config; }
+
+    @Override
+    public ScanFilter getTradeFilter() {
+        return ScanFilter.NONE;
+    }
+
+    /**
+     * Only NEW events are limited to the date range; a later cancel or fill
+     * still counts towards the cancel rate, so the scan has no upper bound.
+     */
+    @Override
+    public ScanFilter getOrderFilter() {
+        return ScanFilter.between(startNanos, Timestamps.MAX).withAccount(accountId).withSymbol(symbol);
     }
 
     // Setters
-    public void setStartDate(Date startDate) { this.startDate = startDate; }
-    public void setEndDate(Date endDate) { this.endDate = endDate; }
+    @Override
+    public void setAlertSink(AlertSink alertSink) { this.alertSink = alertSink; }
+    public void setStartNanos(long startNanos) { this.startNanos = startNanos; }
+    public void setEndNanos(long endNanos) { this.endNanos = endNanos; }
+    @Parameter("startDate")
+    public void setStartDate(Date startDate) { this.startNanos = Timestamps.fromDate(startDate, Timestamps.MIN); }
+    @Parameter("endDate")
+    public void setEndDate(Date endDate) { this.endNanos = Timestamps.fromDate(endDate, Timestamps.MAX); }
     public void setAccountId(String accountId) { this.accountId = accountId; }
     public void setSymbol(String symbol) { this.symbol = symbol; }
     public void setCancelRateThreshold(double cancelRateThreshold) { this.cancelRateThreshold = cancelRateThreshold; }
     public void setMaxOrderLifetimeMs(int maxOrderLifetimeMs) { this.maxOrderLifetimeMs = maxOrderLifetimeMs; }
     public void setMinOrderCount(int minOrderCount) { this.minOrderCount = minOrderCount; }
     public void setPriceImpactThreshold(double priceImpactThreshold) { this.priceImpactThreshold = priceImpactThreshold; }
-    public void setMinOrderSizeMultiplier(double minOrderSizeMultiplier) { /* additional parameter */ }
+    public void setMinOrderSizeMultiplier(double minOrderSizeMultiplier) { this.minOrderSizeMultiplier = minOrderSizeMultiplier; }
+    public void setOrders(Iterable<? extends OrderEvent> orders) { this.orders = orders; }
 }
@@ -1,73 +1,126 @@
 package com.surveillance.detectors;
 
+import com.surveillance.config.DetectorConfig;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.core.AlertSink;
+import com.surveillance.core.AlertType;
 import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Detector;
+import com.surveillance.core.Parameter;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Severity;
+import com.surveillance.core.Timestamps;
+import com.surveillance.core.Trade;
+import java.util.Collections;
 import java.util.Date;
-import java.text.SimpleDateFormat;
 
 /**
  * Detector for wash trade patterns.
  * A wash trade occurs when an investor simultaneously sells and buys 
  * the same financial instruments to create misleading, artificial activity.
  */
-public class WashTradeDetector {
+public class WashTradeDetector implements Detector {
+
+    public static final String REPORT_TYPE = "wash_trade";
+    public static final String DEFAULT_CONFIG_PATH = "configs/wash_trade_detection.yml";
     
     private String configPath;
-    private Date startDate;
-    private Date endDate;
+    private DetectorConfig config;
+    private long startNanos = Timestamps.MIN;
+    private long endNanos = Timestamps.MAX;
+    @Parameter("accountId")
     private String accountId;
+    @Parameter("symbol")
     private String symbol;
+    @Parameter("minTradeCount")
     private int minTradeCount = 5;
+    @Parameter("priceTolerance")
     private double priceTolerance = 0.01;
+    @Parameter("timeWindowSeconds")
     private int timeWindowSeconds = 300;
+    @Parameter("quantityTolerance")
+    private double quantityTolerance = 0.05;
+    private Iterable<? extends Trade> trades = Collections.emptyList();
+    private AlertSink alertSink;
+
+    // Per-run state, set up by begin()
+    private DetectionResult result;
+    private WashTradeMatcher matcher;
+    private long startTime;
+
+    public WashTradeDetector() {
+        this(DEFAULT_CONFIG_PATH);
+    }
 
+    /**
+     * Create a detector whose thresholds default to the values in the given
+     * YML config, if it exists; setters override them per run.
+     */
     public WashTradeDetector(String configPath) {
         this.configPath = configPath;
+        this.config = configPath != null ? DetectorConfigLoader.load(configPath) : null;
+        if (config != null) {
+            minTradeCount = config.getInt("min_trade_count", minTradeCount);
+            priceTolerance = config.getDouble("price_tolerance", priceTolerance);
+            quantityTolerance = config.getDouble("quantity_tolerance", quantityTolerance);
+            timeWindowSeconds = config.getInt("time_window_seconds", timeWindowSeconds);
+        }
     }
 
     /**
      * Run wash trade detection with configured parameters.
+     * Trades supplied via {@link #setTrades} must be in time order; they are
+     * consumed once by a {@link WashTradeMatcher}.
      */
     public DetectionResult detect() {
-        long startTime = System.currentTimeMillis();
-        DetectionResult result = new DetectionResult("wash_trade");
+        begin();
+        for (Trade trade : trades) {
+            onTrade(trade);
+        }
+        return finish();
+    }
+
+    @Override
+    public String getReportType() {
+        return REPORT_TYPE;
+    }
+
+    @Override
+    public void begin() {
+        startTime = System.currentTimeMillis();
+        result = new DetectionResult(REPORT_TYPE, alertSink);
         
         System.out.println("=== Wash Trade Detection ===");
         System.out.println("Config: " + configPath);
-        System.out.println("Date Range: " + formatDate(startDate) + " to " + formatDate(endDate));
+        System.out.println("Date Range: " + Timestamps.formatDate(startNanos) + " to " + Timestamps.formatDate(endNanos));
         System.out.println("Account Filter: " + (accountId != null ? accountId : "ALL"));
         System.out.println("Symbol Filter: " + (symbol != null ? symbol : "ALL"));
         System.out.println("Min Trade Count: " + minTradeCount);
         System.out.println("Price Tolerance: " + priceTolerance);
         System.out.println("Time Window: " + timeWindowSeconds + " seconds");
+        System.out.println("Quantity Tolerance: " + quantityTolerance);
         System.out.println();
         
-        // Simulate detection - in real implementation, this would query a database
-        // and apply wash trade detection algorithms
-        
-        // Add sample alerts for demonstration
-        if (accountId != null && symbol != null) {
-            DetectionResult.Alert alert1 = new DetectionResult.Alert(
-                "TRD-" + System.currentTimeMillis(),
-                accountId,
-                symbol,
-                "WASH_TRADE"
-            );
-            alert1.setSeverity("HIGH");
-            alert1.setDescription("Potential wash trade detected: matching buy/sell within " + timeWindowSeconds + "s");
-            alert1.setTimestamp(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            result.addAlert(alert1);
-            
-            DetectionResult.Alert alert2 = new DetectionResult.Alert(
-                "TRD-" + (System.currentTimeMillis() + 1),
-                accountId,
-                symbol,
-                "WASH_TRADE"
-            );
-            alert2.setSeverity("MEDIUM");
-            alert2.setDescription("Suspicious trading pattern: same account, opposite trades");
-            alert2.setTimestamp(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
-            result.addAlert(alert2);
-        }
+        matcher = new WashTradeMatcher(
+            timeWindowSeconds * Timestamps.NANOS_PER_SECOND,
+            priceTolerance,
+            quantityTolerance,
+            this::addAlert
+        );
+    }
+
+    @Override
+    public void onTrade(Trade trade) {
+        long ts = trade.getTimestampNanos();
+        if (ts < startNanos || ts > endNanos) return;
+        if (accountId != null && !accountId.equals(trade.getAccountId())) return;
+        if (symbol != null && !symbol.equals(trade.getSymbol())) return;
+        matcher.onTrade(trade);
+    }
+
+    @Override
+    public DetectionResult finish() {
+        System.out.println("Trades Scanned: " + matcher.getTradeCount());
         
         long executionTime = System.currentTimeMillis() - startTime;
         result.setExecutionTimeMs(executionTime);
@@ -76,20 +129,55 @@ public class WashTradeDetector {
         
         System.out.println(result.getSummary());
         
+        if (alertSink != null) {
+            alertSink.complete(result);
+        }
         return result;
     }
 
-    private String formatDate(Date date) {
-        if (date == null) return "N/A";
-        return new SimpleDateFormat("yyyy-MM-dd").format(date);
+    private void addAlert(WashTradeMatcher.Match match) {
+        boolean exact = match.getBuyPrice() == match.getSellPrice()
+            && match.getBuyQuantity() == match.getSellQuantity();
+        result.addAlert(
+            AlertType.WASH_TRADE,
+            exact ? Severity.HIGH : Severity.MEDIUM,
+            match.getBuyTradeId(),
+            match.getAccountId(),
+            match.getSymbol(),
+            Math.max(match.getBuyTimeNanos(), match.getSellTimeNanos()),
+            match.getBuyTradeId(), match.getSellTradeId(),
+            match.getTimeGapNanos() / Timestamps.NANOS_PER_SECOND, match.getPriceDiffPct() * 100,
+            match.getBuyTimeNanos(), match.getSellTimeNanos(), match.getBuyQuantity(),
+            match.getBuyPrice(), match.getSellPrice());
+    }
+
+    @Override
+    public DetectorConfig getConfig() { return config; }
+
+    @Override
+    public ScanFilter getTradeFilter() {
+        return ScanFilter.between(startNanos, endNanos).withAccount(accountId).withSymbol(symbol);
+    }
+
+    @Override
+    public ScanFilter getOrderFilter() {
+        return ScanFilter.NONE;
     }
 
     // Setters
-    public void setStartDate(Date startDate) { this.startDate = startDate; }
-    public void setEndDate(Date endDate) { this.endDate = endDate; }
+    @Override
+    public void setAlertSink(AlertSink alertSink) { this.alertSink = alertSink; }
+    public void setStartNanos(long startNanos) { this.startNanos = startNanos; }
+    public void setEndNanos(long endNanos) { this.endNanos = endNanos; }
+    @Parameter("startDate")
+    public void setStartDate(Date startDate) { this.startNanos = Timestamps.fromDate(startDate, Timestamps.MIN); }
+    @Parameter("endDate")
+    public void setEndDate(Date endDate) { this.endNanos = Timestamps.fromDate(endDate, Timestamps.MAX); }
     public void setAccountId(String accountId) { this.accountId = accountId; }
     public void setSymbol(String symbol) { this.symbol = symbol; }
     public void setMinTradeCount(int minTradeCount) { this.minTradeCount = minTradeCount; }
     public void setPriceTolerance(double priceTolerance) { this.priceTolerance = priceTolerance; }
     public void setTimeWindowSeconds(int timeWindowSeconds) { this.timeWindowSeconds = timeWindowSeconds; }
+    public void setQuantityTolerance(double quantityTolerance) { this.quantityTolerance = quantityTolerance; }
+    public void setTrades(Iterable<? extends Trade> trades) { this.trades = trades; }
 }
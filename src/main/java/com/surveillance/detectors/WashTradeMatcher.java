@@ -0,0 +1,214 @@
+package com.surveillance.detectors;
+
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass wash trade matcher.
+ * Consumes trades in time order and keeps, per account and symbol, the buys and
+ * sells seen within the last time window indexed by price. Each incoming trade is
+ * matched against opposite-side trades inside its price band, so a trade costs
+ * O(log w + k) for a window of w trades and k matches instead of a self-join.
+ */
+public class WashTradeMatcher {
+
+    private final long timeWindowNanos;
+    private final double priceTolerance;
+    private final double quantityTolerance;
+    private final Consumer<Match> listener;
+    private final Map<String, Map<String, Book>> books = new HashMap<>();
+    private long lastTimestampNanos = Long.MIN_VALUE;
+    private long tradeCount;
+    private long matchCount;
+
+    public WashTradeMatcher(long timeWindowNanos, double priceTolerance, double quantityTolerance,
+                            Consumer<Match> listener) {
+        this.timeWindowNanos = timeWindowNanos;
+        this.priceTolerance = priceTolerance;
+        this.quantityTolerance = quantityTolerance;
+        this.listener = listener;
+    }
+
+    /**
+     * Feed the next trade. Trades must arrive in non-decreasing timestamp order.
+     */
+    public void onTrade(Trade trade) {
+        long now = trade.getTimestampNanos();
+        if (now < lastTimestampNanos) {
+            throw new IllegalArgumentException("Trades must be supplied in time order: trade "
+                + trade.getTradeId() + " is earlier than the previous trade");
+        }
+        lastTimestampNanos = now;
+        tradeCount++;
+
+        Book book = books
+            .computeIfAbsent(trade.getAccountId(), k -> new HashMap<>())
+            .computeIfAbsent(trade.getSymbol(), k -> new Book());
+        long cutoff = now - timeWindowNanos;
+        book.buys.evictBefore(cutoff);
+        book.sells.evictBefore(cutoff);
+
+        Entry entry = new Entry(trade.getTradeId(), now, trade.getPrice(), trade.getQuantity());
+        if (trade.getSide() == Side.BUY) {
+            matchBuy(entry, book.sells, trade);
+            book.buys.add(entry);
+        } else {
+            matchSell(entry, book.buys, trade);
+            book.sells.add(entry);
+        }
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    private void matchBuy(Entry buy, Window sells, Trade trade) {
+        double band = buy.price * priceTolerance;
+        NavigableMap<Double, ArrayDeque<Entry>> candidates =
+            sells.byPrice.subMap(Math.nextDown(buy.price - band), true, Math.nextUp(buy.price + band), true);
+        for (ArrayDeque<Entry> bucket : candidates.values()) {
+            for (Entry sell : bucket) {
+                if (matches(buy, sell)) {
+                    emit(buy, sell, trade);
+                }
+            }
+        }
+    }
+
+    private void matchSell(Entry sell, Window buys, Trade trade) {
+        // |buy - sell| / buy <= tolerance  =>  sell / (1 + tol) <= buy <= sell / (1 - tol)
+        double low = sell.price / (1 + priceTolerance);
+        double high = priceTolerance < 1 ? sell.price / (1 - priceTolerance) : Double.MAX_VALUE;
+        NavigableMap<Double, ArrayDeque<Entry>> candidates =
+            buys.byPrice.subMap(Math.nextDown(low), true, Math.nextUp(high), true);
+        for (ArrayDeque<Entry> bucket : candidates.values()) {
+            for (Entry buy : bucket) {
+                if (matches(buy, sell)) {
+                    emit(buy, sell, trade);
+                }
+            }
+        }
+    }
+
+    private boolean matches(Entry buy, Entry sell) {
+        if (buy.price <= 0 || buy.quantity <= 0) {
+            return false;
+        }
+        return Math.abs(buy.price - sell.price) / buy.price <= priceTolerance
+            && (double) Math.abs(buy.quantity - sell.quantity) / buy.quantity <= quantityTolerance;
+    }
+
+    private void emit(Entry buy, Entry sell, Trade trade) {
+        matchCount++;
+        listener.accept(new Match(
+            buy.tradeId, sell.tradeId,
+            trade.getAccountId(), trade.getSymbol(),
+            buy.timestampNanos, sell.timestampNanos,
+            buy.quantity, sell.quantity,
+            buy.price, sell.price));
+    }
+
+    /**
+     * A matched buy/sell pair, mirroring the columns of the wash trade SQL.
+     */
+    public static class Match {
+        private final long buyTradeId;
+        private final long sellTradeId;
+        private final String accountId;
+        private final String symbol;
+        private final long buyTimeNanos;
+        private final long sellTimeNanos;
+        private final long buyQuantity;
+        private final long sellQuantity;
+        private final double buyPrice;
+        private final double sellPrice;
+
+        public Match(long buyTradeId, long sellTradeId, String accountId, String symbol,
+                     long buyTimeNanos, long sellTimeNanos, long buyQuantity, long sellQuantity,
+                     double buyPrice, double sellPrice) {
+            this.buyTradeId = buyTradeId;
+            this.sellTradeId = sellTradeId;
+            this.accountId = accountId;
+            this.symbol = symbol;
+            this.buyTimeNanos = buyTimeNanos;
+            this.sellTimeNanos = sellTimeNanos;
+            this.buyQuantity = buyQuantity;
+            this.sellQuantity = sellQuantity;
+            this.buyPrice = buyPrice;
+            this.sellPrice = sellPrice;
+        }
+
+        public long getBuyTradeId() { return buyTradeId; }
+        public long getSellTradeId() { return sellTradeId; }
+        public String getAccountId() { return accountId; }
+        public String getSymbol() { return symbol; }
+        public long getBuyTimeNanos() { return buyTimeNanos; }
+        public long getSellTimeNanos() { return sellTimeNanos; }
+        public long getBuyQuantity() { return buyQuantity; }
+        public long getSellQuantity() { return sellQuantity; }
+        public double getBuyPrice() { return buyPrice; }
+        public double getSellPrice() { return sellPrice; }
+
+        public double getPriceDiffPct() {
+            return Math.abs(buyPrice - sellPrice) / buyPrice;
+        }
+
+        public long getTimeGapNanos() {
+            return Math.abs(sellTimeNanos - buyTimeNanos);
+        }
+    }
+
+    private static final class Entry {
+        final long tradeId;
+        final long timestampNanos;
+        final double price;
+        final long quantity;
+
+        Entry(long tradeId, long timestampNanos, double price, long quantity) {
+            this.tradeId = tradeId;
+            this.timestampNanos = timestampNanos;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Book {
+        final Window buys = new Window();
+        final Window sells = new Window();
+    }
+
+    /**
+     * One side of a book: trades in arrival order for eviction, and the same
+     * trades bucketed by price for band lookups.
+     */
+    private static final class Window {
+        final ArrayDeque<Entry> byTime = new ArrayDeque<>();
+        final TreeMap<Double, ArrayDeque<Entry>> byPrice = new TreeMap<>();
+
+        void add(Entry entry) {
+            byTime.addLast(entry);
+            byPrice.computeIfAbsent(entry.price, k -> new ArrayDeque<>()).addLast(entry);
+        }
+
+        void evictBefore(long cutoffNanos) {
+            while (!byTime.isEmpty() && byTime.peekFirst().timestampNanos < cutoffNanos) {
+                Entry oldest = byTime.pollFirst();
+                ArrayDeque<Entry> bucket = byPrice.get(oldest.price);
+                bucket.pollFirst();
+                if (bucket.isEmpty()) {
+                    byPrice.remove(oldest.price);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.surveillance.server;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Trade;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Input data held warm by the server between requests: time-ordered trade and
+ * order streams, the employee account mapping, and the resources (mapped
+ * segments) backing them. A data set is never modified once published, so
+ * concurrent runs can iterate it while a new one is being loaded.
+ *
+ * Streams are read through a {@link Source}, which lets partitioned data
+ * skip whatever cannot match a run's {@link ScanFilter}.
+ */
+public class DataSet implements Closeable {
+
+    private static final DataSet EMPTY = new DataSet("empty", Collections.emptyList(), Collections.emptyList(),
+        Collections.emptyMap(), 0, 0, Collections.emptyList());
+
+    private final String source;
+    private final Source<Trade> trades;
+    private final Source<OrderEvent> orders;
+    private final Map<String, String> employeeAccounts;
+    private final long tradeCount;
+    private final long orderCount;
+    private final List<? extends Closeable> resources;
+
+    public DataSet(String source, Iterable<? extends Trade> trades, Iterable<? extends OrderEvent> orders,
+                   Map<String, String> employeeAccounts, long tradeCount, long orderCount,
+                   List<? extends Closeable> resources) {
+        this(source, filter -> trades, filter -> orders, employeeAccounts, tradeCount, orderCount, resources);
+    }
+
+    public DataSet(String source, Source<Trade> trades, Source<OrderEvent> orders,
+                   Map<String, String> employeeAccounts, long tradeCount, long orderCount,
+                   List<? extends Closeable> resources) {
+        this.source = source;
+        this.trades = trades;
+        this.orders = orders;
+        this.employeeAccounts = employeeAccounts;
+        this.tradeCount = tradeCount;
+        this.orderCount = orderCount;
+        this.resources = resources;
+    }
+
+    public static DataSet empty() {
+        return EMPTY;
+    }
+
+    public String getSource() { return source; }
+    public Iterable<? extends Trade> getTrades() { return trades.select(ScanFilter.ALL); }
+    public Iterable<? extends OrderEvent> getOrders() { return orders.select(ScanFilter.ALL); }
+    public Iterable<? extends Trade> getTrades(ScanFilter filter) { return trades.select(filter); }
+    public Iterable<? extends OrderEvent> getOrders(ScanFilter filter) { return orders.select(filter); }
+    public Map<String, String> getEmployeeAccounts() { return employeeAccounts; }
+    public long getTradeCount() { return tradeCount; }
+    public long getOrderCount() { return orderCount; }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Time-ordered events of one kind.
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+        /**
+         * Events including at least all those matching the filter; others
+         * may be included.
+         */
+        Iterable<? extends T> select(ScanFilter filter);
+    }
+
+    /**
+     * Chain several time-ordered parts (for example consecutive segments) into one stream.
+     */
+    static <T> Iterable<T> concat(List<? extends Iterable<? extends T>> parts) {
+        return () -> new Iterator<T>() {
+            private int part;
+            private Iterator<? extends T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && part < parts.size()) {
+                    current = parts.get(part++).iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package com.surveillance.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON-RPC 2.0 dispatch for {@link SurveillanceService}, one request per line.
+ *
+ * Methods:
+ * <ul>
+ *   <li>{@code ping} - returns "pong"</li>
+ *   <li>{@code listDetectors} - registered report types</li>
+ *   <li>{@code run} - {reportType, parameters?, outputFormat?, reportName?, columns?}; columns
+ *       is a list of CSV column names or "config" for the detector config's output.columns</li>
+ *   <li>{@code loadSegments} - {directory, employeeAccounts?}</li>
+ *   <li>{@code generate} - {events, seed?}</li>
+ *   <li>{@code status} - the loaded data set</li>
+ *   <li>{@code shutdown} - stop the server after replying</li>
+ * </ul>
+ */
+public class JsonRpcHandler {
+
+    static final int PARSE_ERROR = -32700;
+    static final int INVALID_REQUEST = -32600;
+    static final int METHOD_NOT_FOUND = -32601;
+    static final int INVALID_PARAMS = -32602;
+    static final int SERVER_ERROR = -32000;
+    /** {@code columns} value selecting the detector config's {@code output.columns}. */
+    private static final String CONFIG_COLUMNS = "config";
+
+    private final SurveillanceService service;
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private volatile boolean shutdownRequested;
+
+    public JsonRpcHandler(SurveillanceService service) {
+        this.service = service;
+    }
+
+    /**
+     * Handle one request line and return the response line, or {@code null}
+     * for a notification (a request without an id).
+     */
+    public String handle(String line) {
+        JsonObject request;
+        try {
+            JsonElement parsed = JsonParser.parseString(line);
+            if (!parsed.isJsonObject()) {
+                return error(null, INVALID_REQUEST, "Request must be a JSON object");
+            }
+            request = parsed.getAsJsonObject();
+        } catch (JsonParseException e) {
+            return error(null, PARSE_ERROR, "Parse error: " + e.getMessage());
+        }
+
+        JsonElement id = request.get("id");
+        if (!request.has("method") || !request.get("method").isJsonPrimitive()) {
+            return error(id, INVALID_REQUEST, "Missing method");
+        }
+        JsonObject params = request.has("params") && request.get("params").isJsonObject()
+            ? request.getAsJsonObject("params") : new JsonObject();
+
+        Object result;
+        try {
+            result = dispatch(request.get("method").getAsString(), params);
+        } catch (NoSuchMethodException e) {
+            return id == null ? null : error(id, METHOD_NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return id == null ? null : error(id, INVALID_PARAMS, e.getMessage());
+        } catch (Exception e) {
+            return id == null ? null : error(id, SERVER_ERROR, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        if (id == null) {
+            return null;
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("result", gson.toJsonTree(result));
+        response.add("id", id);
+        return gson.toJson(response);
+    }
+
+    public boolean isShutdownRequested() {
+        return shutdownRequested;
+    }
+
+    private Object dispatch(String method, JsonObject params) throws Exception {
+        switch (method) {
+            case "ping":
+                return "pong";
+            case "listDetectors":
+                return service.listDetectors();
+            case "run":
+                return service.run(
+                    requireString(params, "reportType"),
+                    toStringMap(params, "parameters"),
+                    optionalString(params, "outputFormat", "csv"),
+                    optionalString(params, "reportName", null),
+                    isConfigColumns(params, "columns") ? null : toColumns(params, "columns"),
+                    isConfigColumns(params, "columns"));
+            case "loadSegments":
+                return service.loadSegments(Paths.get(requireString(params, "directory")),
+                    toStringMap(params, "employeeAccounts"));
+            case "generate":
+                if (!params.has("events")) {
+                    throw new IllegalArgumentException("Missing parameter: events");
+                }
+                return service.generate(params.get("events").getAsLong(),
+                    params.has("seed") ? params.get("seed").getAsLong() : 42L);
+            case "status":
+                return service.status();
+            case "shutdown":
+                shutdownRequested = true;
+                return "bye";
+            default:
+                throw new NoSuchMethodException("Method not found: " + method);
+        }
+    }
+
+    private static String requireString(JsonObject params, String name) {
+        String value = optionalString(params, name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String optionalString(JsonObject params, String name, String defaultValue) {
+        JsonElement value = params.get(name);
+        return value == null || value.isJsonNull() ? defaultValue : value.getAsString();
+    }
+
+    private static boolean isConfigColumns(JsonObject params, String name) {
+        JsonElement value = params.get(name);
+        return value != null && value.isJsonPrimitive() && CONFIG_COLUMNS.equals(value.getAsString());
+    }
+
+    private static List<String> toColumns(JsonObject params, String name) {
+        JsonElement value = params.get(name);
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        if (!value.isJsonArray()) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a list of column names or \""
+                + CONFIG_COLUMNS + "\"");
+        }
+        List<String> columns = new ArrayList<>();
+        for (JsonElement column : value.getAsJsonArray()) {
+            columns.add(column.getAsString());
+        }
+        return columns;
+    }
+
+    private static Map<String, String> toStringMap(JsonObject params, String name) {
+        JsonElement value = params.get(name);
+        if (value == null || value.isJsonNull()) {
+            return Collections.emptyMap();
+        }
+        if (!value.isJsonObject()) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an object");
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : value.getAsJsonObject().entrySet()) {
+            JsonElement element = entry.getValue();
+            map.put(entry.getKey(), element.isJsonNull() ? null : element.getAsString());
+        }
+        return map;
+    }
+
+    private String error(JsonElement id, int code, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("error", error);
+        response.add("id", id);
+        return gson.toJson(response);
+    }
+}
@@ -0,0 +1,150 @@
+package com.surveillance.server;
+
+import com.surveillance.config.ConfigWatcher;
+import com.surveillance.core.DetectorRegistry;
+import com.surveillance.core.ReportGenerator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived surveillance JVM. Keeps detectors, reference data and loaded
+ * segments warm so a report run costs milliseconds instead of a Maven build
+ * and JVM start per inquiry.
+ *
+ * Speaks line-delimited JSON-RPC 2.0 (see {@link JsonRpcHandler}) either on
+ * stdin/stdout, the default, or on a loopback TCP port:
+ * <pre>
+ *   SurveillanceServer [--port N] [--segments DIR] [--reports DIR] [--configs DIR]
+ * </pre>
+ * The config directory (default {@code configs}) is watched, so threshold
+ * changes apply to the next run without a restart. In stdio mode stdout carries only protocol messages; detector console
+ * output is redirected to stderr.
+ */
+public class SurveillanceServer {
+
+    static final int ACCEPT_TIMEOUT_MS = 200;
+
+    private final JsonRpcHandler handler;
+
+    public SurveillanceServer(SurveillanceService service) {
+        this.handler = new JsonRpcHandler(service);
+    }
+
+    /**
+     * Serve requests from one stream until it ends or shutdown is requested.
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String line;
+        while (!handler.isShutdownRequested() && (line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String response = handler.handle(line);
+            if (response != null) {
+                writer.write(response);
+                writer.newLine();
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Accept loopback connections on a port, one thread per connection, until
+     * shutdown is requested on any of them. Accept waits at most
+     * {@link #ACCEPT_TIMEOUT_MS} at a time so a shutdown is noticed promptly.
+     */
+    public void serve(int port) throws IOException {
+        ExecutorService connections = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "surveillance-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(ACCEPT_TIMEOUT_MS);
+            System.err.println("Surveillance server listening on " + serverSocket.getLocalSocketAddress());
+            while (!handler.isShutdownRequested()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                connections.execute(() -> {
+                    try (Socket s = socket) {
+                        serve(s.getInputStream(), s.getOutputStream());
+                    } catch (IOException e) {
+                        System.err.println("Connection error: " + e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            connections.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Integer port = null;
+        String segments = null;
+        String reports = "reports";
+        String configs = "configs";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--segments":
+                    segments = args[++i];
+                    break;
+                case "--reports":
+                    reports = args[++i];
+                    break;
+                case "--configs":
+                    configs = args[++i];
+                    break;
+                default:
+                    System.err.println("Usage: SurveillanceServer [--port N] [--segments DIR] [--reports DIR] [--configs DIR]");
+                    System.exit(1);
+            }
+        }
+
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+
+        SurveillanceService service = new SurveillanceService(
+            new DetectorRegistry(), new ReportGenerator(reports));
+        if (Files.isDirectory(Paths.get(configs))) {
+            service.setConfigWatcher(ConfigWatcher.start(Paths.get(configs)));
+        }
+        if (segments != null) {
+            service.loadSegments(Paths.get(segments), Collections.emptyMap());
+        }
+        SurveillanceServer server = new SurveillanceServer(service);
+        try {
+            if (port != null) {
+                server.serve(port);
+            } else {
+                server.serve(System.in, protocolOut);
+            }
+        } finally {
+            service.close();
+        }
+    }
+}
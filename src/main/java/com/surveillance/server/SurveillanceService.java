@@ -0,0 +1,235 @@
+package com.surveillance.server;
+
+import com.surveillance.config.ConfigWatcher;
+import com.surveillance.core.AlertSink;
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Detector;
+import com.surveillance.core.DetectorRegistry;
+import com.surveillance.core.ParameterBinder;
+import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.ScanDriver;
+import com.surveillance.core.Timestamps;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.segment.OrderSegment;
+import com.surveillance.data.segment.SegmentManifest;
+import com.surveillance.data.segment.SegmentStore;
+import com.surveillance.data.segment.TradeSegment;
+import com.surveillance.data.synthetic.GroundTruth;
+import com.surveillance.data.synthetic.MarketDataGenerator;
+import com.surveillance.detectors.FrontRunningDetector;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Operations exposed by the surveillance server. Holds the loaded data set
+ * between requests; every run gets fresh detector instances, so runs may
+ * execute concurrently with each other and with a data reload.
+ */
+public class SurveillanceService {
+
+    /** Numbers runs so that generated report names never repeat within a process. */
+    private static final AtomicLong RUN_SEQUENCE = new AtomicLong();
+
+    private final DetectorRegistry registry;
+    private final ReportGenerator reportGenerator;
+
+    private volatile DataSet dataSet = DataSet.empty();
+    private ConfigWatcher configWatcher;
+
+    public SurveillanceService() {
+        this(new DetectorRegistry(), new ReportGenerator());
+    }
+
+    public SurveillanceService(DetectorRegistry registry, ReportGenerator reportGenerator) {
+        this.registry = registry;
+        this.reportGenerator = reportGenerator;
+    }
+
+    /**
+     * Report types of all registered detectors.
+     */
+    public List<String> listDetectors() {
+        List<String> reportTypes = new ArrayList<>();
+        for (Detector detector : registry.createAll()) {
+            reportTypes.add(detector.getReportType());
+        }
+        return reportTypes;
+    }
+
+    /**
+     * Run one detector over the loaded data set and stream its alerts to a report file.
+     *
+     * @param parameters detector settings by name, e.g. "startDate" or "cancelRateThreshold"
+     * @param reportName report file name without extension; when {@code null} a name
+     *                   unique to this run is generated
+     * @param columns    CSV columns (see {@link com.surveillance.core.CsvAlertSink}); {@code null}
+     *                   for the defaults
+     * @param configColumns use the detector config's {@code output.columns} instead of
+     *                   {@code columns}, which must then be {@code null}
+     */
+    public Map<String, Object> run(String reportType, Map<String, String> parameters, String format,
+                                   String reportName, List<String> columns, boolean configColumns) throws IOException {
+        if (configColumns && columns != null) {
+            throw new IllegalArgumentException("Give either a column list or the config's columns, not both");
+        }
+        Detector detector = registry.create(reportType);
+        if (configColumns) {
+            columns = detector.getConfig() != null ? detector.getConfig().getOutputColumns() : null;
+        }
+        DataSet data = dataSet;
+        ParameterBinder.bind(detector, parameters);
+        if (detector instanceof FrontRunningDetector) {
+            ((FrontRunningDetector) detector).setEmployeeAccounts(data.getEmployeeAccounts());
+        }
+        String name = reportName != null ? reportName
+            : reportType + "_report_" + Timestamps.formatFileStamp(Timestamps.now()) + "_" + RUN_SEQUENCE.incrementAndGet();
+
+        DetectionResult result;
+        try (AlertSink sink = reportGenerator.openReportSink(reportType, format, name, columns)) {
+            detector.setAlertSink(sink);
+            result = new ScanDriver(List.of(detector))
+                .scan(data.getTrades(detector.getTradeFilter()), data.getOrders(detector.getOrderFilter())).get(0);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("reportType", reportType);
+        response.put("alertCount", result.getAlertCount());
+        response.put("executionTimeMs", result.getExecutionTimeMs());
+        response.put("summary", result.getSummary());
+        response.put("reportPath", reportGenerator.getReportPath(format, name));
+        return response;
+    }
+
+    /**
+     * Replace the data set with the trade and order segments in a directory.
+     * A day-partitioned directory with a {@link SegmentManifest} is opened
+     * lazily, and each run reads only the segments that may match its
+     * detector's scan filters (date range, account, symbol, quantity);
+     * otherwise every {@code trades-*.seg} and {@code orders-*.seg} file is
+     * opened and read in file name order.
+     */
+    public Map<String, Object> loadSegments(Path directory, Map<String, String> employeeAccounts) throws IOException {
+        if (SegmentManifest.exists(directory)) {
+            SegmentStore store = SegmentStore.open(directory);
+            return publish(new DataSet(directory.toString(), store::trades, store::orders, employeeAccounts,
+                store.getTradeCount(), store.getOrderCount(), List.of(store)));
+        }
+        List<TradeSegment> tradeSegments = new ArrayList<>();
+        List<OrderSegment> orderSegments = new ArrayList<>();
+        List<Closeable> resources = new ArrayList<>();
+        long tradeCount = 0;
+        long orderCount = 0;
+        try {
+            for (Path path : listSegments(directory, "trades-")) {
+                TradeSegment segment = TradeSegment.open(path);
+                resources.add(segment);
+                tradeSegments.add(segment);
+                tradeCount += segment.getRowCount();
+            }
+            for (Path path : listSegments(directory, "orders-")) {
+                OrderSegment segment = OrderSegment.open(path);
+                resources.add(segment);
+                orderSegments.add(segment);
+                orderCount += segment.getRowCount();
+            }
+        } catch (IOException e) {
+            new DataSet(directory.toString(), Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyMap(), 0, 0, resources).close();
+            throw e;
+        }
+        return publish(new DataSet(directory.toString(), DataSet.concat(tradeSegments), DataSet.concat(orderSegments),
+            employeeAccounts, tradeCount, orderCount, resources));
+    }
+
+    /**
+     * Replace the data set with freshly generated synthetic data held in memory.
+     */
+    public Map<String, Object> generate(long events, long seed) throws IOException {
+        MarketDataGenerator generator = new MarketDataGenerator();
+        generator.setTotalEvents(events);
+        generator.setSeed(seed);
+        TradeStore trades = new TradeStore();
+        OrderStore orders = new OrderStore(trades.getAccounts(), trades.getSymbols());
+        GroundTruth truth = generator.generateInto(trades, orders);
+
+        Map<String, Object> response = publish(new DataSet("synthetic:" + seed, trades, orders,
+            generator.getReferenceData().getEmployeeAccounts(), trades.size(), orders.size(), Collections.emptyList()));
+        response.put("injectedWashTrades", truth.getWashTradeBuyIds().size());
+        response.put("injectedSpoofs", truth.getSpoofOrderIds().size());
+        response.put("injectedFrontRunning", truth.getFrontRunningTradeIds().size());
+        return response;
+    }
+
+    /**
+     * Describe the loaded data set.
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> response = describe(dataSet);
+        if (configWatcher != null) {
+            response.put("configVersion", configWatcher.getSnapshot().getVersion());
+        }
+        return response;
+    }
+
+    /**
+     * Watcher whose snapshot version is reported by {@link #status()}; the
+     * service closes it on {@link #close()}.
+     */
+    public void setConfigWatcher(ConfigWatcher configWatcher) {
+        this.configWatcher = configWatcher;
+    }
+
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * Release the loaded data set.
+     */
+    public synchronized void close() throws IOException {
+        DataSet previous = dataSet;
+        dataSet = DataSet.empty();
+        previous.close();
+        if (configWatcher != null) {
+            configWatcher.close();
+        }
+    }
+
+    private synchronized Map<String, Object> publish(DataSet next) throws IOException {
+        DataSet previous = dataSet;
+        dataSet = next;
+        // Runs still iterating the previous set keep working: closing a segment's
+        // channel does not unmap its buffer
+        previous.close();
+        return describe(next);
+    }
+
+    private static Map<String, Object> describe(DataSet data) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("source", data.getSource());
+        response.put("trades", data.getTradeCount());
+        response.put("orders", data.getOrderCount());
+        response.put("employeeAccounts", data.getEmployeeAccounts().size());
+        return response;
+    }
+
+    private static List<Path> listSegments(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(p -> p.getFileName().toString().startsWith(prefix) && p.getFileName().toString().endsWith(".seg"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+}
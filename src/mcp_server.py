@@ -445,6 +445,54 @@ def execute_java_test(
     }
 
 
+_report_executor = None
+
+
+@mcp.tool()
+def run_surveillance_report(
+    report_type: str,
+    parameters: dict = None,
+    output_format: str = "csv",
+    data_dir: str = None
+) -> dict:
+    """
+    Run a surveillance detector in the persistent Java server.
+    
+    Faster than execute_java_test: the JVM stays warm between calls and
+    parameters are applied at runtime, without rewriting or recompiling tests.
+    
+    Args:
+        report_type: Report type (wash_trade, spoofing, front_running)
+        parameters: Detector parameters, e.g. {"startDate": "2024-01-01", "symbol": "AAPL"}
+        output_format: Report format (csv or json)
+        data_dir: Segment directory to scan (default: TRADE_SURVEILLANCE_DATA_DIR)
+    
+    Returns:
+        Execution result including success status, summary, and report path.
+    """
+    global _report_executor
+    from src.java_executor import JavaExecutor
+    
+    if _report_executor is None:
+        _report_executor = JavaExecutor(project_dir=get_project_dir())
+    
+    result = _report_executor.run_report(
+        report_type,
+        parameters,
+        output_format,
+        output_dir=os.path.join(get_project_dir(), "reports"),
+        data_dir=data_dir,
+    )
+    
+    return {
+        "success": result.success,
+        "execution_time_ms": result.execution_time_ms,
+        "report_path": result.report_path,
+        "summary": result.stdout or None,
+        "error_message": result.error_message,
+    }
+
+
 @mcp.tool()
 def process_surveillance_inquiry(
     subject: str,
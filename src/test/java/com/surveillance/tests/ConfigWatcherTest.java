@@ -0,0 +1,94 @@
+package com.surveillance.tests;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.surveillance.config.ConfigSnapshot;
+import com.surveillance.config.ConfigWatcher;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Config hot reload test.
+ */
+public class ConfigWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ConfigWatcher watcher;
+
+    @After
+    public void tearDown() throws Exception {
+        if (watcher != null) {
+            watcher.close();
+        }
+        DetectorConfigLoader.clearCache();
+    }
+
+    @Test
+    public void testReloadsChangedConfig() throws Exception {
+        Path path = writeConfig("wash.yml", 0.01);
+        watcher = ConfigWatcher.start(folder.getRoot().toPath());
+        ConfigSnapshot before = watcher.getSnapshot();
+        WashTradeDetector running = new WashTradeDetector(path.toString());
+
+        writeConfig("wash.yml", 0.02);
+        ConfigSnapshot after = awaitNewerThan(before);
+
+        assertEquals(0.01, before.get(path.toAbsolutePath()).getDouble("price_tolerance", 0), 0.0);
+        assertEquals(0.02, after.get(path.toAbsolutePath()).getDouble("price_tolerance", 0), 0.0);
+        assertEquals(0.02, DetectorConfigLoader.load(path).getDouble("price_tolerance", 0), 0.0);
+        assertEquals(0.01, running.getConfig().getDouble("price_tolerance", 0), 0.0);
+        assertEquals(0.02, new WashTradeDetector(path.toString()).getConfig().getDouble("price_tolerance", 0), 0.0);
+    }
+
+    @Test
+    public void testInvalidEditKeepsPreviousConfig() throws Exception {
+        Path path = writeConfig("wash.yml", 0.01);
+        watcher = ConfigWatcher.start(folder.getRoot().toPath());
+        ConfigSnapshot before = watcher.getSnapshot();
+
+        Files.write(path, "wash_trade_detection: [".getBytes(StandardCharsets.UTF_8));
+        Path added = writeConfig("other.yml", 0.03);
+        ConfigSnapshot after = awaitNewerThan(before);
+
+        assertEquals(0.01, DetectorConfigLoader.load(path).getDouble("price_tolerance", 0), 0.0);
+        assertEquals(0.03, after.get(added.toAbsolutePath()).getDouble("price_tolerance", 0), 0.0);
+
+        Files.delete(added);
+        awaitNewerThan(after);
+        assertNull(DetectorConfigLoader.load(added));
+    }
+
+    private ConfigSnapshot awaitNewerThan(ConfigSnapshot snapshot) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (watcher.getSnapshot().getVersion() == snapshot.getVersion()) {
+            assertTrue("Config was not reloaded", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+        return watcher.getSnapshot();
+    }
+
+    private Path writeConfig(String fileName, double priceTolerance) throws Exception {
+        String yml = "wash_trade_detection:\n"
+            + "  metadata:\n"
+            + "    report_type: wash_trade\n"
+            + "  parameters:\n"
+            + "    price_tolerance: " + priceTolerance + "\n";
+        Path path = Paths.get(folder.getRoot().getPath(), fileName);
+        Files.write(path, yml.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
@@ -0,0 +1,219 @@
+package com.surveillance.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.surveillance.core.AlertType;
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Severity;
+import com.surveillance.core.Side;
+import com.surveillance.core.Timestamps;
+
+/**
+ * Columnar alert storage test.
+ */
+public class DetectionResultTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAlertViewsRoundTrip() {
+        DetectionResult result = new DetectionResult("mixed");
+        result.addAlert(AlertType.WASH_TRADE, Severity.HIGH, 1, "ACC-1", "AAPL", 1_000L, 1L, 3L, 10L, 0.5,
+            990L, 1_000L, 100L, 10.0, 10.05);
+        result.addAlert(AlertType.SPOOFING, Severity.MEDIUM, 7, "ACC-2", "MSFT", 2_000L,
+            Side.SELL, 120L, 6.5, 80.0, 20L, 2_000L, 2_120L, 500L, 10.5);
+        result.addAlert(AlertType.FRONT_RUNNING, Severity.CRITICAL, 9, "EMP-ACC-1", "AAPL", 3_000L,
+            "E-1", Side.BUY, 500L, 250L, 11L, 50000L, 3_000L, 3_250L);
+
+        assertEquals(3, result.getAlertCount());
+        DetectionResult.Alert wash = result.getAlerts().get(0);
+        assertEquals("TRD-1", wash.getTradeId());
+        assertEquals("ACC-1", wash.getAccountId());
+        assertEquals("AAPL", wash.getSymbol());
+        assertEquals("WASH_TRADE", wash.getAlertType());
+        assertEquals("HIGH", wash.getSeverity());
+        assertEquals(1_000L, wash.getTimestampNanos());
+        assertEquals(Timestamps.format(1_000L), wash.getTimestamp());
+        assertEquals("Potential wash trade detected: BUY TRD-1 matched SELL TRD-3 within 10s (price diff 0.5000%)",
+            wash.getDescription());
+
+        DetectionResult.Alert spoof = result.getAlerts().get(1);
+        assertEquals("ORD-7", spoof.getTradeId());
+        assertSame(Severity.MEDIUM, spoof.getSeverityLevel());
+        assertEquals("High cancel rate detected: SELL order cancelled after 120ms at 6.5x average size"
+            + " (cancel rate 80% over 20 orders)", spoof.getDescription());
+
+        DetectionResult.Alert frontRunning = result.getAlerts().get(2);
+        assertSame(AlertType.FRONT_RUNNING, frontRunning.getType());
+        assertEquals("Potential front running: employee E-1 BUY 500 traded 250ms before customer order ORD-11"
+            + " for 50000", frontRunning.getDescription());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testLegacyAlertConstructor() {
+        DetectionResult.Alert alert = new DetectionResult.Alert("ORD-7", "ACC-2", "MSFT", "SPOOFING");
+
+        assertEquals("ORD-7", alert.getTradeId());
+        assertEquals(7L, alert.getId());
+        assertEquals("SPOOFING", alert.getAlertType());
+        assertEquals("MEDIUM", alert.getSeverity());
+        assertNull(alert.getDescription());
+        try {
+            new DetectionResult("spoofing").addAlert(alert);
+            fail("added an alert without arguments");
+        } catch (IllegalArgumentException expected) {
+            // SPOOFING alerts need their template arguments
+        }
+    }
+
+    @Test
+    public void testDescriptionsIgnoreDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals("Potential wash trade detected: BUY TRD-1 matched SELL TRD-2 within 3s (price diff 0.5000%)",
+                AlertType.WASH_TRADE.describe(1L, 2L, 3L, 0.5));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testAddAllCopiesAlerts() {
+        DetectionResult part = new DetectionResult("wash_trade");
+        for (int i = 0; i < 200; i++) {
+            part.addAlert(AlertType.WASH_TRADE, Severity.MEDIUM, i, "ACC-" + (i % 3), "SYM" + (i % 5),
+                i * 10L, (long) i, i + 1L, 1L, 0.0, i * 10L, i * 10L, 100L, 10.0, 10.0);
+        }
+        DetectionResult merged = new DetectionResult("wash_trade");
+        merged.addAll(part);
+        merged.addAll(part);
+
+        assertEquals(400, merged.getAlertCount());
+        assertEquals(400, merged.getAlerts().size());
+        assertEquals("TRD-199", merged.getAlerts().get(399).getTradeId());
+        assertEquals("ACC-1", merged.getAlerts().get(399).getAccountId());
+        assertEquals(1990L, merged.getAlerts().get(399).getTimestampNanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsWrongArgumentCount() {
+        new DetectionResult("wash_trade").addAlert(AlertType.WASH_TRADE, Severity.LOW, 1, "ACC-1", "AAPL", 0L, 1L);
+    }
+
+    @Test
+    public void testSpillsSortedRunsOverMemoryBudget() throws Exception {
+        int count = 5000;
+        DetectionResult result = new DetectionResult("wash_trade");
+        result.setMemoryBudgetBytes(16 * 1024);
+        for (int i = 0; i < count; i++) {
+            long timestamp = (i * 7919L) % count;
+            result.addAlert(AlertType.WASH_TRADE, Severity.MEDIUM, i, "ACC-" + (i % 7), "SYM" + (i % 11),
+                timestamp, (long) i, i + 1L, 1L, 0.25, timestamp, timestamp, 100L, 10.0, 10.025);
+        }
+
+        try {
+            assertTrue(result.isSpilled());
+            assertTrue(result.getSpillCount() > 1);
+            long previous = Long.MIN_VALUE;
+            int read = 0;
+            try (DetectionResult.AlertReader alerts = result.readAlerts()) {
+                for (DetectionResult.Alert alert : alerts) {
+                    assertTrue(alert.getTimestampNanos() >= previous);
+                    assertEquals("ACC-" + (alert.getId() % 7), alert.getAccountId());
+                    previous = alert.getTimestampNanos();
+                    read++;
+                }
+            }
+            assertEquals(count, read);
+            try (DetectionResult.AlertReader abandoned = result.readAlerts()) {
+                abandoned.iterator().next();
+            }
+
+            ReportGenerator generator = new ReportGenerator(folder.getRoot().getPath());
+            List<String> lines = Files.readAllLines(Paths.get(generator.generateReport(result, "csv", "spilled")));
+            assertEquals("# Total Alerts: " + count, lines.get(count + 4));
+            assertEquals(0, result.getSpillCount());
+            try {
+                result.readAlerts();
+                fail("Expected the spill files to be gone");
+            } catch (IllegalStateException e) {
+                // consumed by the report
+            }
+        } finally {
+            result.deleteSpillFiles();
+        }
+    }
+
+    @Test
+    public void testReadsInTimestampThenInsertionOrderWhetherSpilledOrNot() {
+        long[][] cases = {
+            {5, 3, 5, 1, 3, 5, 0, 2},
+            {Long.MAX_VALUE, Long.MIN_VALUE, 0, Long.MAX_VALUE, -1, Long.MIN_VALUE, 1}};
+        for (long[] timestamps : cases) {
+            DetectionResult kept = new DetectionResult("wash_trade");
+            DetectionResult spilled = new DetectionResult("wash_trade");
+            for (int i = 0; i < timestamps.length; i++) {
+                if (i == timestamps.length - 1) {
+                    spilled.setMemoryBudgetBytes(0);
+                }
+                for (DetectionResult result : List.of(kept, spilled)) {
+                    result.addAlert(AlertType.WASH_TRADE, Severity.LOW, i, "ACC-1", "AAPL", timestamps[i],
+                        (long) i, i + 1L, 0L, 0.0, 0L, 0L, 100L, 10.0, 10.0);
+                }
+            }
+            try {
+                assertEquals(0, kept.getSpillCount());
+                assertEquals(1, spilled.getSpillCount());
+                List<Long> keptIds = readIds(kept);
+                assertEquals(keptIds, readIds(spilled));
+                assertEquals(timestamps.length, keptIds.size());
+                for (int i = 1; i < keptIds.size(); i++) {
+                    long previous = timestamps[keptIds.get(i - 1).intValue()];
+                    long current = timestamps[keptIds.get(i).intValue()];
+                    assertTrue(previous < current || previous == current && keptIds.get(i - 1) < keptIds.get(i));
+                }
+            } finally {
+                spilled.deleteSpillFiles();
+            }
+        }
+    }
+
+    private static List<Long> readIds(DetectionResult result) {
+        List<Long> ids = new ArrayList<>();
+        try (DetectionResult.AlertReader alerts = result.readAlerts()) {
+            for (DetectionResult.Alert alert : alerts) {
+                ids.add(alert.getId());
+            }
+        }
+        return ids;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSpilledResultHasNoListView() {
+        DetectionResult result = new DetectionResult("wash_trade");
+        result.setMemoryBudgetBytes(0);
+        result.addAlert(AlertType.WASH_TRADE, Severity.LOW, 1, "ACC-1", "AAPL", 0L, 1L, 2L, 0L, 0.0,
+            0L, 0L, 100L, 10.0, 10.0);
+        try {
+            result.getAlerts();
+        } finally {
+            result.deleteSpillFiles();
+        }
+    }
+}
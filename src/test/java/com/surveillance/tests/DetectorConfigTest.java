@@ -0,0 +1,118 @@
+package com.surveillance.tests;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+
+import com.surveillance.config.DetectorConfig;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Detector YML config loading and caching test.
+ */
+public class DetectorConfigTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        DetectorConfigLoader.clearCache();
+    }
+
+    @Test
+    public void testParsesProjectConfigs() {
+        DetectorConfig wash = DetectorConfigLoader.load("configs/wash_trade_detection.yml");
+        DetectorConfig spoofing = DetectorConfigLoader.load("configs/spoofing_detection.yml");
+        DetectorConfig frontRunning = DetectorConfigLoader.load("configs/front_running_detection.yml");
+
+        assertEquals("wash_trade", wash.getReportType());
+        assertEquals("1.0", wash.getVersion());
+        assertEquals(0.01, wash.getDouble("price_tolerance", 0), 0.0);
+        assertEquals(5, wash.getInt("min_trade_count", 0));
+        assertTrue(wash.getSql().contains("FROM trades t1"));
+        assertEquals("buy_trade_id", wash.getOutputColumns().get(0));
+        assertEquals(0.75, spoofing.getDouble("cancel_rate", 0), 0.0);
+        assertEquals("spoofing", spoofing.getReportType());
+        assertEquals(300, frontRunning.getInt("time_window_before_seconds", 0));
+        assertEquals(10_000, frontRunning.getInt("min_large_order_qty", 0));
+        assertFalse(wash.has("min_volume") || wash.has("max_time_gap_seconds"));
+        assertEquals("csv", frontRunning.getOutputFormat());
+        assertNull(DetectorConfigLoader.load("configs/no_such_detection.yml"));
+    }
+
+    @Test
+    public void testCachesUntilFileChanges() throws Exception {
+        Path path = writeConfig("wash.yml", 0.01, 300);
+        DetectorConfig first = DetectorConfigLoader.load(path);
+
+        assertSame(first, DetectorConfigLoader.load(path));
+        assertSame(first, DetectorConfigLoader.load(path.getParent().resolve("./wash.yml")));
+
+        writeConfig("wash.yml", 0.02, 300);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() + 2_000));
+        DetectorConfig second = DetectorConfigLoader.load(path);
+
+        assertNotSame(first, second);
+        assertEquals(0.02, second.getDouble("price_tolerance", 0), 0.0);
+    }
+
+    @Test
+    public void testDetectorDefaultsComeFromConfig() throws Exception {
+        Path path = writeConfig("wash.yml", 0.01, 10);
+        long base = 1_709_251_200L * SECOND; // 2024-03-01T00:00:00Z
+        WashTradeDetector detector = new WashTradeDetector(path.toString());
+        detector.setStartDate(new SimpleDateFormat("yyyy-MM-dd").parse("2024-01-01"));
+        detector.setEndDate(new SimpleDateFormat("yyyy-MM-dd").parse("2024-12-31"));
+        detector.setTrades(Arrays.asList(
+            Trade.of(1, "ACC-1", "AAPL", Side.BUY, base, 100.0, 1000),
+            Trade.of(2, "ACC-1", "AAPL", Side.SELL, base + 20 * SECOND, 100.0, 1000)));
+
+        DetectionResult configured = detector.detect();
+        detector.setTimeWindowSeconds(60);
+        DetectionResult overridden = detector.detect();
+
+        assertSame(DetectorConfigLoader.load(path), detector.getConfig());
+        assertEquals(0, configured.getAlertCount());
+        assertEquals(1, overridden.getAlertCount());
+    }
+
+    private Path writeConfig(String fileName, double priceTolerance, int timeWindowSeconds) throws Exception {
+        String yml = "wash_trade_detection:\n"
+            + "  metadata:\n"
+            + "    name: wash_trade_detection\n"
+            + "    report_type: wash_trade\n"
+            + "    version: \"1.0\"\n"
+            + "  parameters:\n"
+            + "    price_tolerance: " + priceTolerance + "\n"
+            + "    time_window_seconds: " + timeWindowSeconds + "\n"
+            + "  thresholds:\n"
+            + "    min_trade_count: 5\n"
+            + "  output:\n"
+            + "    columns:\n"
+            + "      - buy_trade_id\n";
+        Path path = Paths.get(folder.getRoot().getPath(), fileName);
+        Files.write(path, yml.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
@@ -0,0 +1,293 @@
+package com.surveillance.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Trade;
+import com.surveillance.data.ConcurrentDictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.Prices;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.importer.FlatFileImporter;
+import com.surveillance.data.segment.SegmentManifest;
+import com.surveillance.data.segment.SegmentStore;
+import com.surveillance.data.synthetic.MarketDataGenerator;
+
+/**
+ * Flat file importer test: chunked parallel parsing into segments, tokenizer
+ * edge cases and error reporting.
+ */
+public class FlatFileImporterTest {
+
+    private static final long BASE = 1_704_189_600_000_000_000L; // 2024-01-02 10:00 UTC
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testImportsGeneratedDataInParallelChunks() throws Exception {
+        MarketDataGenerator generator = new MarketDataGenerator();
+        generator.setSeed(3);
+        generator.setTotalEvents(20_000);
+        generator.setSymbolCount(50);
+        generator.setAccountCount(300);
+        TradeStore trades = new TradeStore();
+        OrderStore orders = new OrderStore(trades.getAccounts(), trades.getSymbols());
+        generator.generateInto(trades, orders);
+
+        Path tradeFile = folder.getRoot().toPath().resolve("trades.csv");
+        try (Writer out = Files.newBufferedWriter(tradeFile, StandardCharsets.UTF_8)) {
+            // Extra column, columns out of order, CRLF line ends and some quoted fields
+            out.write("Trade_Id,Venue,Timestamp,Symbol,AccountId,Side,Price,Quantity\r\n");
+            for (int row = 0; row < trades.size(); row++) {
+                Trade trade = trades.row(row);
+                String account = row % 3 == 0 ? '"' + trade.getAccountId() + '"' : trade.getAccountId();
+                out.write(trade.getTradeId() + ",XNYS," + trade.getTimestampNanos() + "," + trade.getSymbol() + ","
+                    + account + "," + trade.getSide() + "," + price(trades.getPriceTicks(row)) + ","
+                    + trade.getQuantity() + "\r\n");
+            }
+        }
+        Path orderFile = folder.getRoot().toPath().resolve("orders.csv");
+        try (Writer out = Files.newBufferedWriter(orderFile, StandardCharsets.UTF_8)) {
+            out.write("order_id,timestamp,account_id,symbol,side,type,price,quantity\n");
+            for (int row = 0; row < orders.size(); row++) {
+                OrderEvent order = orders.row(row);
+                out.write(order.getOrderId() + "," + order.getTimestampNanos() + "," + order.getAccountId() + ","
+                    + order.getSymbol() + "," + order.getSide() + "," + order.getType() + ","
+                    + price(orders.getPriceTicks(row)) + "," + order.getQuantity() + "\n");
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            FlatFileImporter importer = new FlatFileImporter(pool);
+            importer.setChunkBytes(4_096);
+            importer.setRowsPerSegment(1_000);
+            Path directory = folder.getRoot().toPath().resolve("segments");
+
+            FlatFileImporter.Summary summary = importer.importFiles(tradeFile, orderFile, directory);
+
+            assertEquals(trades.size(), summary.getTradeCount());
+            assertEquals(orders.size(), summary.getOrderCount());
+            assertEquals(trades.getSymbols().size(), summary.getSymbolCount());
+            try (SegmentStore store = SegmentStore.open(directory)) {
+                assertEquals(trades.size(), store.getTradeCount());
+                int row = 0;
+                for (Trade trade : store.trades(ScanFilter.ALL)) {
+                    assertEquals(trades.getTradeId(row), trade.getTradeId());
+                    assertEquals(trades.getTimestampNanos(row), trade.getTimestampNanos());
+                    assertEquals(trades.row(row).getAccountId(), trade.getAccountId());
+                    assertEquals(trades.row(row).getSymbol(), trade.getSymbol());
+                    assertEquals(trades.row(row).getSide(), trade.getSide());
+                    assertEquals(trades.getPriceTicks(row), Prices.toTicks(trade.getPrice()));
+                    assertEquals(trades.getQuantity(row), trade.getQuantity());
+                    row++;
+                }
+                assertEquals(trades.size(), row);
+                row = 0;
+                for (OrderEvent order : store.orders(ScanFilter.ALL)) {
+                    assertEquals(orders.getOrderId(row), order.getOrderId());
+                    assertEquals(orders.row(row).getType(), order.getType());
+                    assertEquals(orders.row(row).getAccountId(), order.getAccountId());
+                    assertEquals(orders.getPriceTicks(row), Prices.toTicks(order.getPrice()));
+                    row++;
+                }
+                assertEquals(orders.size(), row);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParsesFlatFileQuirks() throws Exception {
+        Path orderFile = folder.getRoot().toPath().resolve("orders.psv");
+        String text = "\uFEFFOrderId|Timestamp|AccountId|Symbol|Side|Type|Price|Quantity\n"
+            + "1|" + BASE + "| \"ACC \"\"X\"\"\" |AAPL|buy|New|10.00005|100\n"
+            + "\n"
+            + "2|" + (BASE + 1) + "|ACC-2|  MSFT  |SELL|cancel|10.00004999|+200\r\n"
+            + "3|" + (BASE + 2) + "|ACC-2|MSFT|Sell|FILL|7|300";
+        Files.write(orderFile, text.getBytes(StandardCharsets.UTF_8));
+        FlatFileImporter importer = new FlatFileImporter();
+        importer.setDelimiter('|');
+        Path directory = folder.getRoot().toPath().resolve("segments");
+
+        FlatFileImporter.Summary summary = importer.importFiles(null, orderFile, directory);
+
+        assertEquals(3, summary.getOrderCount());
+        assertEquals(2, summary.getAccountCount());
+        List<String> rows = new ArrayList<>();
+        try (SegmentStore store = SegmentStore.open(directory)) {
+            assertEquals(0, store.getTradeCount());
+            for (OrderEvent order : store.orders(ScanFilter.ALL)) {
+                rows.add(order.getAccountId() + "/" + order.getSymbol() + "/" + order.getSide() + "/" + order.getType()
+                    + "/" + Prices.toTicks(order.getPrice()) + "/" + order.getQuantity());
+            }
+        }
+        assertEquals(List.of(
+            "ACC \"X\"/AAPL/BUY/NEW/100001/100",
+            "ACC-2/MSFT/SELL/CANCEL/100000/200",
+            "ACC-2/MSFT/SELL/FILL/70000/300"), rows);
+    }
+
+    @Test
+    public void testMalformedRowFailsWithoutManifest() throws Exception {
+        Path tradeFile = folder.getRoot().toPath().resolve("trades.csv");
+        String header = "TradeId,Timestamp,AccountId,Symbol,Side,Price,Quantity\n";
+        String good = "1," + BASE + ",ACC-1,AAPL,BUY,100.0,10\n";
+        Files.write(tradeFile, (header + good + "2," + BASE + ",ACC-1,AAPL,BUY,100.0,1O\n")
+            .getBytes(StandardCharsets.UTF_8));
+        Path directory = folder.getRoot().toPath().resolve("segments");
+
+        try {
+            new FlatFileImporter().importFiles(tradeFile, null, directory);
+            fail("Expected a malformed row");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("at byte " + (header.length() + good.length())));
+            assertTrue(e.getMessage(), e.getMessage().contains("field 7: 1O"));
+        }
+        assertFalse(SegmentManifest.exists(directory));
+
+        Files.write(tradeFile, "TradeId,Timestamp,AccountId,Symbol,Side,Price\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            new FlatFileImporter().importFiles(tradeFile, null, directory);
+            fail("Expected a missing column");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Missing column quantity"));
+        }
+    }
+
+    @Test
+    public void testRowsOutOfTimeOrderAreMalformed() throws Exception {
+        Path orderFile = folder.getRoot().toPath().resolve("orders.csv");
+        String header = "OrderId,Timestamp,AccountId,Symbol,Side,Type,Price,Quantity\n";
+        String first = "1," + (BASE + 5) + ",ACC-1,AAPL,BUY,NEW,100.0,10\n";
+        String second = "2," + (BASE + 9) + ",ACC-1,AAPL,BUY,NEW,100.0,10\n";
+        String late = "3," + (BASE + 7) + ",ACC-1,AAPL,BUY,CANCEL,100.0,10\n";
+        Files.write(orderFile, (header + first + second + late).getBytes(StandardCharsets.UTF_8));
+        Path directory = folder.getRoot().toPath().resolve("segments");
+        long offset = header.length() + first.length() + second.length();
+
+        // Within one chunk, and with every row in a chunk of its own
+        for (int chunkBytes : new int[] {FlatFileImporter.DEFAULT_CHUNK_BYTES, 1}) {
+            FlatFileImporter importer = new FlatFileImporter();
+            importer.setChunkBytes(chunkBytes);
+            try {
+                importer.importFiles(null, orderFile, directory);
+                fail("Expected an out of order row");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("at byte " + offset));
+                assertTrue(e.getMessage(), e.getMessage().contains("timestamp " + (BASE + 7) + " is before"));
+            }
+            assertFalse(SegmentManifest.exists(directory));
+        }
+    }
+
+    @Test
+    public void testFailedReimportRemovesItsSegmentsAndTheOldManifest() throws Exception {
+        Path tradeFile = folder.getRoot().toPath().resolve("trades.csv");
+        StringBuilder text = new StringBuilder("TradeId,Timestamp,AccountId,Symbol,Side,Price,Quantity\n");
+        for (int i = 0; i < 20; i++) {
+            text.append(i).append(',').append(BASE + i).append(",ACC-1,AAPL,BUY,100.0,10\n");
+        }
+        Files.write(tradeFile, text.toString().getBytes(StandardCharsets.UTF_8));
+        Path directory = folder.getRoot().toPath().resolve("segments");
+        FlatFileImporter importer = new FlatFileImporter();
+        importer.setChunkBytes(64);
+        importer.setRowsPerSegment(2);
+
+        importer.importFiles(tradeFile, null, directory);
+        assertTrue(SegmentManifest.exists(directory));
+        assertEquals(10, segmentFiles(directory).size());
+
+        // Rewrite the first half of the day, then fail
+        text.setLength(text.indexOf("10," + (BASE + 10)));
+        text.append("10,").append(BASE + 10).append(",ACC-1,AAPL,BUY,100.0,1O\n");
+        Files.write(tradeFile, text.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            importer.importFiles(tradeFile, null, directory);
+            fail("Expected a malformed row");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("field 7: 1O"));
+        }
+        assertFalse(SegmentManifest.exists(directory));
+        List<String> left = segmentFiles(directory);
+        assertFalse(left.toString(), left.contains("trades-2024-01-02-000.seg"));
+        assertTrue(left.toString(), left.contains("trades-2024-01-02-009.seg"));
+    }
+
+    @Test
+    public void testConcurrentDictionaryAssignsDenseIds() throws Exception {
+        ConcurrentDictionary dictionary = new ConcurrentDictionary();
+        ConcurrentHashMap<String, Integer> seen = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(5);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 250;
+            tasks.add(pool.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    String value = "ACC-" + (offset + i) % 1_500;
+                    int id = dictionary.encode(value);
+                    Integer previous = seen.putIfAbsent(value, id);
+                    assertEquals(previous != null ? previous : id, id);
+                }
+            }));
+        }
+        // Decoding takes no lock and must see every id below the size
+        Future<?> reader = pool.submit(() -> {
+            while (dictionary.size() < 1_500) {
+                int size = dictionary.size();
+                for (int id = 0; id < size; id++) {
+                    assertTrue(dictionary.decode(id).startsWith("ACC-"));
+                }
+            }
+        });
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        reader.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1_500, dictionary.size());
+        Set<Integer> ids = new HashSet<>(seen.values());
+        assertEquals(1_500, ids.size());
+        for (String value : seen.keySet()) {
+            assertEquals(value, dictionary.decode(dictionary.lookup(value)));
+            assertTrue(dictionary.lookup(value) < 1_500);
+        }
+    }
+
+    private static List<String> segmentFiles(Path directory) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(".seg")).forEach(names::add);
+        }
+        return names;
+    }
+
+    private static String price(long ticks) {
+        return BigDecimal.valueOf(ticks, 4).toPlainString();
+    }
+}
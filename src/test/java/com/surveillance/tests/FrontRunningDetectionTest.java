@@ -2,12 +2,19 @@ package com.surveillance.tests;
 
 import org.junit.Test;
 import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.text.SimpleDateFormat;
 
 import com.surveillance.core.Parameter;
+import com.surveillance.core.ParameterBinder;
 import com.surveillance.core.DetectionResult;
+import com.surveillance.core.OrderEvent;
 import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
 import com.surveillance.detectors.FrontRunningDetector;
 
 /**
@@ -55,6 +62,8 @@ public class FrontRunningDetectionTest {
 
     @Before
     public void setUp() {
+        // Parameters passed as -D system properties override the field defaults
+        ParameterBinder.bindSystemProperties(this);
         detector = new FrontRunningDetector(configPath);
         reportGenerator = new ReportGenerator();
         
@@ -139,6 +148,35 @@ public class FrontRunningDetectionTest {
         System.out.println("Insider trading report generated: " + reportPath);
     }
 
+    @Test
+    public void testSweepMatchesTradesAheadOfLargeOrders() {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long second = 1_000_000_000L;
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setEmployeeId(null);
+        detector.setSymbol(null);
+        detector.setTimeWindowBeforeSeconds(300);
+        detector.setMinLargeOrderQty(10000);
+        detector.setEmployeeAccounts(Collections.singletonMap("EMP-ACC-1", "E-1"));
+        detector.setTrades(Arrays.asList(
+            Trade.of(1, "EMP-ACC-1", "AAPL", Side.BUY, base, 150.0, 500),                // match
+            Trade.of(2, "EMP-ACC-1", "AAPL", Side.SELL, base + 10 * second, 150.0, 500),  // wrong side
+            Trade.of(3, "CLIENT-9", "AAPL", Side.BUY, base + 20 * second, 150.0, 500),    // not an employee
+            Trade.of(4, "EMP-ACC-1", "MSFT", Side.BUY, base + 30 * second, 400.0, 100)    // no large order
+        ));
+        detector.setOrders(Arrays.asList(
+            OrderEvent.of(100, "CLIENT-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + 60 * second, 150.2, 20000),
+            OrderEvent.of(101, "CLIENT-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + 900 * second, 150.4, 20000),
+            OrderEvent.of(102, "CLIENT-2", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + 70 * second, 150.2, 50)
+        ));
+        
+        DetectionResult result = detector.detect();
+        
+        assertEquals(1, result.getAlertCount());
+        assertEquals("TRD-1", result.getAlerts().get(0).getTradeId());
+    }
+
     private Date parseDate(String dateStr) {
         try {
             return new SimpleDateFormat("yyyy-MM-dd").parse(dateStr);
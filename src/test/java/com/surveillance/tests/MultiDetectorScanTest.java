@@ -0,0 +1,156 @@
+package com.surveillance.tests;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Detector;
+import com.surveillance.core.DetectorRegistry;
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ParallelScanDriver;
+import com.surveillance.core.ScanDriver;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.synthetic.MarketDataGenerator;
+import com.surveillance.detectors.FrontRunningDetector;
+
+/**
+ * Multi-detector scan test: all registered detectors share one pass over
+ * the trade and order streams.
+ */
+public class MultiDetectorScanTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long MILLI = 1_000_000L;
+
+    private List<Trade> trades;
+    private List<OrderEvent> orders;
+    private Map<String, String> employeeAccounts = Collections.singletonMap("EMP-ACC-1", "E-1");
+
+    @Before
+    public void setUp() {
+        long base = 1_709_251_200L * SECOND; // 2024-03-01T00:00:00Z
+        trades = Arrays.asList(
+            Trade.of(1, "EMP-ACC-1", "AAPL", Side.BUY, base, 150.0, 500),
+            // Prices finer than a tick must reach the detectors unchanged
+            Trade.of(2, "ACC-1", "MSFT", Side.BUY, base + SECOND, 400.00004, 1000),
+            Trade.of(3, "ACC-1", "MSFT", Side.SELL, base + 20 * SECOND, 400.00001, 1000)
+        );
+        orders = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            orders.add(OrderEvent.of(i, "ACC-2", "TSLA", Side.BUY, OrderEvent.Type.NEW, base + i * MILLI, 200.0, 100));
+        }
+        orders.add(OrderEvent.of(10, "ACC-2", "TSLA", Side.SELL, OrderEvent.Type.NEW, base + 10 * MILLI, 201.0, 5000));
+        for (int i = 1; i <= 7; i++) {
+            orders.add(OrderEvent.of(i, "ACC-2", "TSLA", Side.BUY, OrderEvent.Type.CANCEL, base + (50 + i) * MILLI, 200.0, 100));
+        }
+        orders.add(OrderEvent.of(10, "ACC-2", "TSLA", Side.SELL, OrderEvent.Type.CANCEL, base + 110 * MILLI, 201.0, 5000));
+        orders.add(OrderEvent.of(100, "CLIENT-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + 500 * MILLI, 150.2, 20000));
+    }
+
+    @Test
+    public void testRegistryDiscoversAllDetectors() {
+        List<Detector> detectors = new DetectorRegistry().createAll();
+
+        assertEquals(3, detectors.size());
+    }
+
+    @Test
+    public void testFusedScanFeedsEveryDetector() {
+        List<Detector> detectors = createDetectors();
+
+        ScanDriver driver = new ScanDriver(detectors);
+        List<DetectionResult> results = driver.scan(trades, orders);
+
+        System.out.println("Events scanned: " + (driver.getTradeCount() + driver.getOrderCount()));
+        assertEquals(3, driver.getTradeCount());
+        assertEquals(orders.size(), driver.getOrderCount());
+        assertEquals(1, results.get(0).getAlertCount());
+        assertEquals(1, results.get(1).getAlertCount());
+        assertEquals(1, results.get(2).getAlertCount());
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScan() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelScanDriver parallel = new ParallelScanDriver(this::createDetectors, pool, 8);
+            List<DetectionResult> parallelResults = parallel.scan(trades, orders);
+            List<DetectionResult> sequentialResults = new ScanDriver(createDetectors()).scan(trades, orders);
+
+            assertSameAlerts(sequentialResults, parallelResults);
+            assertEquals("MEDIUM", parallelResults.get(0).getAlerts().get(0).getSeverity());
+            System.out.println(parallelResults.get(0).getSummary());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScanOnGeneratedData() {
+        MarketDataGenerator generator = new MarketDataGenerator();
+        generator.setSeed(11);
+        generator.setTotalEvents(100_000);
+        TradeStore storeTrades = new TradeStore();
+        OrderStore storeOrders = new OrderStore(storeTrades.getAccounts(), storeTrades.getSymbols());
+        generator.generateInto(storeTrades, storeOrders);
+        employeeAccounts = generator.getReferenceData().getEmployeeAccounts();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<DetectionResult> parallelResults = new ParallelScanDriver(this::createDetectors, pool, 6)
+                .scan(storeTrades, storeOrders);
+            List<DetectionResult> sequentialResults = new ScanDriver(createDetectors()).scan(storeTrades, storeOrders);
+
+            assertSameAlerts(sequentialResults, parallelResults);
+            assertTrue(parallelResults.get(0).getAlertCount() > 0);
+            assertTrue(parallelResults.get(1).getAlertCount() > 0);
+            assertTrue(parallelResults.get(2).getAlertCount() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameAlerts(List<DetectionResult> expected, List<DetectionResult> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getReportType(), actual.get(i).getReportType());
+            assertEquals(expected.get(i).getAlertCount(), actual.get(i).getAlertCount());
+            // Partitions are merged in partition order, so compare the alerts as sorted rows
+            assertEquals(rows(expected.get(i)), rows(actual.get(i)));
+        }
+    }
+
+    private static List<String> rows(DetectionResult result) {
+        List<String> rows = new ArrayList<>();
+        for (DetectionResult.Alert alert : result.getAlerts()) {
+            StringBuilder row = new StringBuilder()
+                .append(alert.getTradeId()).append('|').append(alert.getAccountId()).append('|')
+                .append(alert.getSymbol()).append('|').append(alert.getSeverity()).append('|')
+                .append(alert.getTimestampNanos()).append('|').append(alert.getDescription());
+            for (int a = 0; a < alert.getType().getArgCount(); a++) {
+                row.append('|').append(alert.getArg(a));
+            }
+            rows.add(row.toString());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    private List<Detector> createDetectors() {
+        List<Detector> detectors = new DetectorRegistry().create(
+            Arrays.asList("wash_trade", "spoofing", "front_running"));
+        ((FrontRunningDetector) detectors.get(2)).setEmployeeAccounts(employeeAccounts);
+        return detectors;
+    }
+}
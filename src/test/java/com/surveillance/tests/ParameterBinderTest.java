@@ -0,0 +1,113 @@
+package com.surveillance.tests;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.Parameter;
+import com.surveillance.core.ParameterBinder;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.detectors.FrontRunningDetector;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Runtime @Parameter binding test.
+ */
+public class ParameterBinderTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    static class Fixture {
+        @Parameter("symbol")
+        private String symbol = "AAPL";
+        @Parameter("minCount")
+        private int minCount = 5;
+        @Parameter("tolerance")
+        private double tolerance = 0.01;
+        @Parameter("startDate")
+        private Date startDate;
+        private long windowMs;
+
+        @Parameter("windowSeconds")
+        void setWindowSeconds(int seconds) { this.windowMs = seconds * 1000L; }
+    }
+
+    @Test
+    public void testBindsConvertedValues() {
+        Fixture fixture = new Fixture();
+        Map<String, Object> values = new HashMap<>();
+        values.put("symbol", null);
+        values.put("minCount", "12");
+        values.put("tolerance", 0.25);
+        values.put("startDate", "2024-03-01");
+        values.put("windowSeconds", 30);
+
+        ParameterBinder.bind(fixture, values);
+
+        assertNull(fixture.symbol);
+        assertEquals(12, fixture.minCount);
+        assertEquals(0.25, fixture.tolerance, 0.0);
+        assertEquals("2024-03-01", new SimpleDateFormat("yyyy-MM-dd").format(fixture.startDate));
+        assertEquals(30_000L, fixture.windowMs);
+        assertSame(ParameterBinder.forClass(Fixture.class), ParameterBinder.forClass(Fixture.class));
+    }
+
+    @Test
+    public void testRejectsUnknownAndInvalidValues() {
+        Fixture fixture = new Fixture();
+
+        assertInvalid(fixture, "noSuchParameter", "1");
+        assertInvalid(fixture, "minCount", "twelve");
+        assertInvalid(fixture, "minCount", null);
+        assertInvalid(fixture, "startDate", "03/01/2024");
+        assertEquals(5, fixture.minCount);
+    }
+
+    @Test
+    public void testBindsDetectorParameters() {
+        assertTrue(ParameterBinder.forClass(FrontRunningDetector.class).getParameterNames()
+            .containsAll(Arrays.asList("startDate", "employeeId", "timeWindowBeforeSeconds", "minLargeOrderQty")));
+        // Not implemented, so a run asking for them must fail rather than ignore them
+        assertFalse(ParameterBinder.forClass(FrontRunningDetector.class).getParameterNames().contains("department"));
+        assertFalse(ParameterBinder.forClass(FrontRunningDetector.class).getParameterNames().contains("minPriceMovePct"));
+
+        long base = 1_709_251_200L * SECOND; // 2024-03-01T00:00:00Z
+        WashTradeDetector detector = new WashTradeDetector();
+        detector.setTrades(Arrays.asList(
+            Trade.of(1, "ACC-1", "AAPL", Side.BUY, base, 100.0, 1000),
+            Trade.of(2, "ACC-1", "AAPL", Side.SELL, base + 20 * SECOND, 100.0, 1000)));
+        Map<String, String> values = new HashMap<>();
+        values.put("startDate", "2024-01-01");
+        values.put("endDate", "2024-12-31");
+        values.put("timeWindowSeconds", "10");
+
+        ParameterBinder.bind(detector, values);
+        DetectionResult outsideWindow = detector.detect();
+        ParameterBinder.bind(detector, Map.of("timeWindowSeconds", "60"));
+        DetectionResult insideWindow = detector.detect();
+
+        assertEquals(0, outsideWindow.getAlertCount());
+        assertEquals(1, insideWindow.getAlertCount());
+    }
+
+    private void assertInvalid(Object target, String name, String value) {
+        Map<String, String> values = new HashMap<>();
+        values.put(name, value);
+        try {
+            ParameterBinder.bind(target, values);
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("Expected " + name + "=" + value + " to be rejected");
+    }
+}
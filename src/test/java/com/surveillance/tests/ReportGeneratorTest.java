@@ -0,0 +1,209 @@
+package com.surveillance.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.surveillance.config.DetectorConfigLoader;
+import com.surveillance.core.AlertType;
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.ParallelGzipOutputStream;
+import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Severity;
+import com.surveillance.core.Side;
+import com.surveillance.core.Timestamps;
+
+/**
+ * Report output format test.
+ */
+public class ReportGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReportGenerator generator;
+    private DetectionResult result;
+
+    @Before
+    public void setUp() {
+        generator = new ReportGenerator(folder.getRoot().getPath());
+        result = new DetectionResult("front_running");
+        result.addAlert(AlertType.FRONT_RUNNING, Severity.CRITICAL, 1, "ACC \"quoted\"", "A\\B", 0L,
+            "E-1, desk \"A\"", Side.BUY, 100L, 5L, 2L, 20000L, 0L, 5L);
+        result.addAlert(AlertType.FRONT_RUNNING, Severity.HIGH, 2, "ACC-2", "MSFT", 0L,
+            "E-2\nnext", Side.SELL, 200L, 6L, 3L, 30000L, 0L, 6L);
+        result.setExecutionTimeMs(7);
+    }
+
+    @Test
+    public void testJsonIsEscaped() throws Exception {
+        String path = generator.generateReport(result, "json", "escaped");
+        JsonObject report = JsonParser.parseString(read(path)).getAsJsonObject();
+        JsonArray alerts = report.getAsJsonArray("alerts");
+
+        assertEquals("front_running", report.get("reportType").getAsString());
+        assertEquals(2, report.get("alertCount").getAsInt());
+        assertEquals(2, alerts.size());
+        assertEquals("ACC \"quoted\"", alerts.get(0).getAsJsonObject().get("accountId").getAsString());
+        assertEquals("A\\B", alerts.get(0).getAsJsonObject().get("symbol").getAsString());
+        assertEquals(result.getAlerts().get(1).getDescription(),
+            alerts.get(1).getAsJsonObject().get("description").getAsString());
+    }
+
+    @Test
+    public void testNdjsonHasOneObjectPerLine() throws Exception {
+        String path = generator.generateReport(result, "ndjson", "lines");
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+
+        assertEquals(3, lines.size());
+        assertEquals("TRD-1", JsonParser.parseString(lines.get(0)).getAsJsonObject().get("tradeId").getAsString());
+        assertTrue(JsonParser.parseString(lines.get(1)).getAsJsonObject()
+            .get("description").getAsString().contains("employee E-2\nnext SELL"));
+        assertEquals(2, JsonParser.parseString(lines.get(2)).getAsJsonObject().get("alertCount").getAsInt());
+    }
+
+    @Test
+    public void testCsvQuotesValues() throws Exception {
+        String path = generator.generateReport(result, "csv", "quoted");
+        List<CSVRecord> records = parseCsv(path);
+
+        assertEquals("TradeId", records.get(0).get(0));
+        assertEquals("ACC \"quoted\"", records.get(1).get(1));
+        assertEquals(result.getAlerts().get(0).getDescription(), records.get(1).get(5));
+        assertEquals(result.getAlerts().get(1).getDescription(), records.get(2).get(5));
+        assertEquals(3, records.size());
+    }
+
+    @Test
+    public void testCsvProjectsConfigColumns() throws Exception {
+        List<String> columns = DetectorConfigLoader.load("configs/wash_trade_detection.yml").getOutputColumns();
+        DetectionResult wash = new DetectionResult("wash_trade");
+        long buyTime = 1_704_189_600_000_000_000L;
+        long sellTime = buyTime + 12_000_000_000L;
+        wash.addAlert(AlertType.WASH_TRADE, Severity.HIGH, 5, "ACC-1", "AAPL", sellTime, 5L, 8L, 12L, 0.25,
+            buyTime, sellTime, 300L, 100.0, 100.25);
+
+        String path = generator.generateReport(wash, "csv", "projected", columns);
+        List<CSVRecord> records = parseCsv(path);
+
+        assertEquals(columns, records.get(0).toList());
+        CSVRecord row = records.get(1);
+        for (String column : columns) {
+            assertFalse(column, row.get(columns.indexOf(column)).isEmpty());
+        }
+        assertEquals("5", row.get(columns.indexOf("buy_trade_id")));
+        assertEquals("8", row.get(columns.indexOf("sell_trade_id")));
+        assertEquals("ACC-1", row.get(columns.indexOf("account_id")));
+        assertEquals(Timestamps.format(buyTime), row.get(columns.indexOf("buy_time")));
+        assertEquals(Timestamps.format(sellTime), row.get(columns.indexOf("sell_time")));
+        assertEquals("300", row.get(columns.indexOf("quantity")));
+        assertEquals("100.0", row.get(columns.indexOf("buy_price")));
+        assertEquals("100.25", row.get(columns.indexOf("sell_price")));
+        assertEquals("0.25", row.get(columns.indexOf("price_diff_pct")));
+        assertEquals("12", row.get(columns.indexOf("time_gap_seconds")));
+    }
+
+    @Test
+    public void testConfigColumnsAreCarriedByAlerts() throws Exception {
+        String[][] configs = {
+            {"configs/wash_trade_detection.yml", "WASH_TRADE"},
+            {"configs/spoofing_detection.yml", "SPOOFING"},
+            {"configs/front_running_detection.yml", "FRONT_RUNNING"}};
+        for (String[] config : configs) {
+            AlertType type = AlertType.valueOf(config[1]);
+            List<String> known = new ArrayList<>(type.getArgNames());
+            known.addAll(List.of(type.getIdColumn(), "account_id", "symbol"));
+            for (String column : DetectorConfigLoader.load(config[0]).getOutputColumns()) {
+                assertTrue(config[0] + ": " + column, known.contains(column));
+            }
+        }
+    }
+
+    @Test
+    public void testGzipReportsMatchPlain() throws Exception {
+        String plain = generator.generateReport(result, "csv", "plain");
+        String gzipped = generator.generateReport(result, "csv.gz", "gzipped");
+
+        assertTrue(gzipped.endsWith("gzipped.csv.gz"));
+        assertEquals(withoutGenerated(read(plain)), withoutGenerated(gunzip(Files.readAllBytes(Paths.get(gzipped)))));
+
+        String json = generator.generateReport(result, "json.gz", "gzipped");
+        JsonObject report = JsonParser.parseString(gunzip(Files.readAllBytes(Paths.get(json)))).getAsJsonObject();
+        assertEquals(2, report.getAsJsonArray("alerts").size());
+    }
+
+    @Test
+    public void testParallelGzipWritesConcatenatedMembers() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < 1_000_000; i++) {
+            text.append("TRD-").append(i).append(",ACC-").append(i % 97).append(",AAPL\n");
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, executor, 64 * 1024)) {
+                out.write(data, 0, 1000);
+                out.write(data[1000]);
+                out.write(data, 1001, data.length - 1001);
+            }
+            assertArrayEquals(data, gunzipBytes(compressed.toByteArray()));
+            assertTrue(compressed.size() < data.length / 4);
+
+            ByteArrayOutputStream empty = new ByteArrayOutputStream();
+            new ParallelGzipOutputStream(empty, executor, 64 * 1024).close();
+            assertEquals(0, gunzipBytes(empty.toByteArray()).length);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String withoutGenerated(String text) {
+        return text.lines().filter(line -> !line.startsWith("# Generated")).collect(Collectors.joining("\n"));
+    }
+
+    private static String gunzip(byte[] compressed) throws Exception {
+        return new String(gunzipBytes(compressed), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzipBytes(byte[] compressed) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private List<CSVRecord> parseCsv(String path) throws Exception {
+        CSVFormat format = CSVFormat.RFC4180.builder().setCommentMarker('#').setIgnoreEmptyLines(true).build();
+        try (CSVParser parser = CSVParser.parse(Paths.get(path), StandardCharsets.UTF_8, format)) {
+            return parser.getRecords();
+        }
+    }
+
+    private String read(String path) throws Exception {
+        return new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+    }
+}
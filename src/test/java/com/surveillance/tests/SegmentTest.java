@@ -0,0 +1,395 @@
+package com.surveillance.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.ScanFilter;
+import com.surveillance.core.Side;
+import com.surveillance.core.Timestamps;
+import com.surveillance.core.Trade;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.Prices;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.segment.BloomFilter;
+import com.surveillance.data.segment.OrderSegment;
+import com.surveillance.data.segment.PartitionedSegmentWriter;
+import com.surveillance.data.segment.RowBitmap;
+import com.surveillance.data.segment.SegmentFormat;
+import com.surveillance.data.segment.SegmentManifest;
+import com.surveillance.data.segment.SegmentStore;
+import com.surveillance.data.segment.SegmentWriter;
+import com.surveillance.data.segment.TradeSegment;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Memory-mapped segment format test.
+ */
+public class SegmentTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long BASE = 1_709_251_200L * SECOND; // 2024-03-01T00:00:00Z
+    private static final long HOUR = 3_600L * SECOND;
+    private static final long DAY = 24 * HOUR;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTradeSegmentRoundTrip() throws Exception {
+        TradeStore store = new TradeStore();
+        store.append(7, "ACC-9", "TSLA", Side.SELL, BASE - SECOND, 199.5, 10); // not written
+        store.append(1, "ACC-1", "AAPL", Side.BUY, BASE, 100.00, 1000);
+        store.append(2, "ACC-1", "AAPL", Side.SELL, BASE + 10 * SECOND, 100.20, 990);
+        store.append(3, "ACC-2", "MSFT", Side.SELL, BASE + 20 * SECOND, 410.55, 50);
+        Path path = folder.getRoot().toPath().resolve("trades.seg");
+
+        SegmentWriter.writeTrades(store, 1, store.size(), path);
+
+        try (TradeSegment segment = TradeSegment.open(path)) {
+            assertEquals(3, segment.getRowCount());
+            assertEquals(BASE, segment.getMinTimestampNanos());
+            assertEquals(BASE + 20 * SECOND, segment.getMaxTimestampNanos());
+            assertEquals(0, segment.getAccountId(0));
+
+            Trade last = segment.row(2);
+            assertEquals(3, last.getTradeId());
+            assertEquals("ACC-2", last.getAccountId());
+            assertEquals("MSFT", last.getSymbol());
+            assertEquals(Side.SELL, last.getSide());
+            assertEquals(410.55, last.getPrice(), 1e-9);
+            assertEquals(50, last.getQuantity());
+
+            WashTradeDetector detector = new WashTradeDetector();
+            detector.setTrades(segment);
+            DetectionResult result = detector.detect();
+            assertEquals(1, result.getAlertCount());
+        }
+    }
+
+    @Test
+    public void testOrderSegmentRoundTrip() throws Exception {
+        OrderStore store = new OrderStore();
+        store.append(10, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, BASE, 100.0, 500);
+        store.append(10, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.CANCEL, BASE + SECOND, 100.0, 500);
+        Path path = folder.getRoot().toPath().resolve("orders.seg");
+
+        SegmentWriter.writeOrders(store, path);
+
+        try (OrderSegment segment = OrderSegment.open(path)) {
+            int rows = 0;
+            for (OrderEvent order : segment) {
+                assertEquals(10, order.getOrderId());
+                assertEquals(rows == 0 ? OrderEvent.Type.NEW : OrderEvent.Type.CANCEL, order.getType());
+                rows++;
+            }
+            assertEquals(2, rows);
+        }
+    }
+
+    @Test
+    public void testPartitionedStorePrunesByDate() throws Exception {
+        // Noon keeps each day's events on one local day in any time zone within +/-11h
+        long noon = BASE + 12 * HOUR;
+        Path directory = folder.getRoot().toPath().resolve("partitioned");
+        TradeStore trades = new TradeStore();
+        trades.append(1, "ACC-1", "AAPL", Side.BUY, noon, 100.00, 100);
+        trades.append(2, "ACC-1", "AAPL", Side.SELL, noon + 10 * SECOND, 100.10, 100);
+        trades.append(3, "ACC-2", "MSFT", Side.BUY, noon + 20 * SECOND, 410.00, 50);
+        trades.append(4, "ACC-2", "MSFT", Side.SELL, noon + DAY, 411.00, 50);
+        trades.append(5, "ACC-3", "TSLA", Side.BUY, noon + 2 * DAY, 199.00, 10);
+        OrderStore orders = new OrderStore();
+        orders.append(10, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, noon + DAY, 100.0, 500);
+        orders.append(10, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.CANCEL, noon + DAY + SECOND, 100.0, 500);
+
+        try (PartitionedSegmentWriter writer = new PartitionedSegmentWriter(directory, 2)) {
+            for (Trade trade : trades) {
+                writer.append(trade);
+            }
+            for (OrderEvent order : orders) {
+                writer.append(order);
+            }
+        }
+
+        SegmentManifest manifest = SegmentManifest.read(directory);
+        List<SegmentManifest.Entry> tradeEntries = manifest.overlapping(SegmentFormat.KIND_TRADES,
+            Timestamps.MIN, Timestamps.MAX);
+        assertEquals(4, tradeEntries.size());
+        assertEquals(Timestamps.formatDate(noon), tradeEntries.get(1).getDay());
+        assertEquals(noon + 20 * SECOND, tradeEntries.get(1).getMaxTimestampNanos());
+        assertEquals(Timestamps.formatDate(noon + DAY), tradeEntries.get(2).getDay());
+        assertEquals(5, manifest.getRowCount(SegmentFormat.KIND_TRADES));
+        assertEquals(2, manifest.getRowCount(SegmentFormat.KIND_ORDERS));
+
+        try (SegmentStore store = SegmentStore.open(directory)) {
+            assertEquals(List.of(4L), tradeIds(store.trades(noon + DAY - HOUR, noon + DAY + HOUR)));
+            assertEquals(1, store.getOpenSegmentCount());
+            int orderEvents = 0;
+            for (OrderEvent order : store.orders(noon + DAY - HOUR, noon + DAY + HOUR)) {
+                assertEquals(10, order.getOrderId());
+                orderEvents++;
+            }
+            assertEquals(2, orderEvents);
+            assertEquals(0, tradeIds(store.trades(noon + 3 * DAY, noon + 4 * DAY)).size());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), tradeIds(store.trades(Timestamps.MIN, Timestamps.MAX)));
+        }
+    }
+
+    @Test
+    public void testBloomFiltersAndZoneMapsSkipSegments() throws Exception {
+        long noon = BASE + 12 * HOUR;
+        Path directory = folder.getRoot().toPath().resolve("filtered");
+        TradeStore trades = new TradeStore();
+        trades.append(1, "ACC-1", "AAPL", Side.BUY, noon, 100.00, 100);
+        trades.append(2, "ACC-2", "MSFT", Side.BUY, noon + DAY, 410.00, 50);
+        trades.append(3, "ACC-1", "TSLA", Side.SELL, noon + 2 * DAY, 199.00, 10);
+        OrderStore orders = new OrderStore();
+        orders.append(10, "ACC-3", "AAPL", Side.BUY, OrderEvent.Type.NEW, noon, 100.0, 500);
+        orders.append(11, "ACC-4", "AAPL", Side.SELL, OrderEvent.Type.NEW, noon + DAY, 100.5, 20_000);
+        try (PartitionedSegmentWriter writer = new PartitionedSegmentWriter(directory, 1_000)) {
+            for (Trade trade : trades) {
+                writer.append(trade);
+            }
+            for (OrderEvent order : orders) {
+                writer.append(order);
+            }
+        }
+
+        SegmentManifest.Entry entry = SegmentManifest.read(directory).getEntries().get(1);
+        assertEquals(50, entry.getMinQuantity());
+        assertEquals(50, entry.getMaxQuantity());
+
+        try (SegmentStore store = SegmentStore.open(directory)) {
+            assertEquals(List.of(2L), tradeIds(store.trades(ScanFilter.ALL.withAccount("ACC-2"))));
+            assertEquals(1, store.getOpenSegmentCount());
+            assertEquals(List.of(3L), tradeIds(store.trades(ScanFilter.ALL.withAccount("ACC-1").withSymbol("TSLA"))));
+            assertEquals(0, tradeIds(store.trades(ScanFilter.ALL.withAccount("ACC-9"))).size());
+            assertEquals(0, tradeIds(store.trades(ScanFilter.ALL.withQuantityRange(1_000, 2_000))).size());
+            assertEquals(2, store.getOpenSegmentCount());
+
+            int largeOrders = 0;
+            for (OrderEvent order : store.orders(ScanFilter.ALL.withQuantityRange(10_000, Long.MAX_VALUE))) {
+                assertEquals(11, order.getOrderId());
+                largeOrders++;
+            }
+            assertEquals(1, largeOrders);
+            assertEquals(0, tradeIds(store.trades(ScanFilter.NONE)).size());
+        }
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.forCount(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("ACC-" + i);
+        }
+        BloomFilter decoded = BloomFilter.decode(filter.encode());
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(decoded.mightContain("ACC-" + i));
+        }
+        for (int i = 1_000; i < 11_000; i++) {
+            if (decoded.mightContain("ACC-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positives: " + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void testIndexedScanVisitsOnlyMatchingRows() throws Exception {
+        TradeStore store = new TradeStore();
+        String[] accounts = {"ACC-1", "ACC-2", "ACC-3"};
+        String[] symbols = {"AAPL", "MSFT"};
+        for (int i = 0; i < 10_000; i++) {
+            store.append(i, accounts[i % 3], symbols[i % 2], Side.BUY, BASE + i * SECOND, 100.0, 100);
+        }
+        Path path = folder.getRoot().toPath().resolve("indexed.seg");
+        SegmentWriter.writeTrades(store, path);
+
+        try (TradeSegment segment = TradeSegment.open(path)) {
+            assertTrue(segment.isIndexed());
+            assertEquals(3_334, segment.accountRows("ACC-1").cardinality());
+            int rows = 0;
+            Iterator<Trade> it = segment.iterator(ScanFilter.ALL.withAccount("ACC-2").withSymbol("MSFT"));
+            while (it.hasNext()) {
+                Trade trade = it.next();
+                assertEquals("ACC-2", trade.getAccountId());
+                assertEquals("MSFT", trade.getSymbol());
+                assertEquals(1, trade.getTradeId() % 6);
+                rows++;
+            }
+            assertEquals(1_667, rows);
+            assertTrue(segment.rowsMatching(ScanFilter.ALL.withAccount("ACC-9")).isEmpty());
+            assertEquals(null, segment.rowsMatching(ScanFilter.ALL));
+        }
+    }
+
+    @Test
+    public void testEncodedColumnsRoundTrip() throws Exception {
+        Random random = new Random(5);
+        TradeStore store = new TradeStore();
+        long timestamp = BASE;
+        for (int i = 0; i < 2_500; i++) {
+            // Mostly rising by up to a second, sometimes stepping back or jumping a day
+            timestamp += random.nextInt(10) == 0 ? -random.nextInt(1_000) : random.nextInt(1_000_000_000);
+            if (i == 1_500) {
+                timestamp += DAY;
+            }
+            double price = i < 1_024 ? 100.0 + random.nextInt(200) / 100.0
+                : i < 2_048 ? (i % 2 == 0 ? 0.0001 : 90_000_000.0) : 42.0;
+            store.append(i, "ACC-1", "AAPL", Side.BUY, timestamp, price, 100);
+        }
+        Path path = folder.getRoot().toPath().resolve("encoded.seg");
+        SegmentWriter.writeTrades(store, path);
+
+        try (TradeSegment segment = TradeSegment.open(path)) {
+            int row = 0;
+            for (Trade trade : segment) {
+                assertEquals(store.getTimestampNanos(row), trade.getTimestampNanos());
+                assertEquals(store.getPriceTicks(row), Prices.toTicks(trade.getPrice()));
+                row++;
+            }
+            assertEquals(2_500, row);
+            for (int i = 2_499; i >= 0; i -= 7) {
+                assertEquals(store.getTimestampNanos(i), segment.getTimestampNanos(i));
+                assertEquals(store.getPriceTicks(i), segment.getPriceTicks(i));
+                assertEquals(store.getTimestampNanos(i), segment.row(i).getTimestampNanos());
+            }
+        }
+    }
+
+    @Test
+    public void testReadsVersion1Segment() throws Exception {
+        // Version 1: plain columns, no index; written by hand as older builds did
+        int rows = 1_500;
+        byte[][] accounts = {"ACC-1".getBytes(StandardCharsets.UTF_8), "ACC-2".getBytes(StandardCharsets.UTF_8)};
+        byte[] symbol = "AAPL".getBytes(StandardCharsets.UTF_8);
+        long[] widths = {8, 8, 4, 4, 8, 8, 1};
+        int header = SegmentFormat.headerBytes(widths.length);
+        int dictionary = 4 + accounts[0].length + 4 + accounts[1].length + 4 + symbol.length;
+        ByteBuffer buffer = ByteBuffer.allocate(header + dictionary + rows * 41).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SegmentFormat.MAGIC).putShort((short) 1).put(SegmentFormat.KIND_TRADES).put((byte) 0);
+        buffer.putInt(rows).putLong(BASE).putLong(BASE + (rows - 1) * SECOND);
+        buffer.putInt(accounts.length).putInt(1).putInt(widths.length);
+        long offset = header + dictionary;
+        for (long width : widths) {
+            buffer.putLong(offset).putLong(width * rows);
+            offset += width * rows;
+        }
+        for (byte[] account : accounts) {
+            buffer.putInt(account.length).put(account);
+        }
+        buffer.putInt(symbol.length).put(symbol);
+        for (int i = 0; i < rows; i++) buffer.putLong(i);
+        for (int i = 0; i < rows; i++) buffer.putLong(BASE + i * SECOND);
+        for (int i = 0; i < rows; i++) buffer.putInt(i % 2);
+        for (int i = 0; i < rows; i++) buffer.putInt(0);
+        for (int i = 0; i < rows; i++) buffer.putLong(1_000_000L + i);
+        for (int i = 0; i < rows; i++) buffer.putLong(100);
+        for (int i = 0; i < rows; i++) buffer.put((byte) (i % 2));
+        Path path = folder.getRoot().toPath().resolve("v1.seg");
+        Files.write(path, buffer.array());
+
+        try (TradeSegment segment = TradeSegment.open(path)) {
+            assertEquals(rows, segment.getRowCount());
+            int row = 0;
+            for (Trade trade : segment) {
+                assertEquals(row, trade.getTradeId());
+                assertEquals(BASE + row * SECOND, trade.getTimestampNanos());
+                assertEquals(1_000_000L + row, Prices.toTicks(trade.getPrice()));
+                assertEquals(row % 2 == 0 ? "ACC-1" : "ACC-2", trade.getAccountId());
+                assertEquals(row % 2 == 0 ? Side.BUY : Side.SELL, trade.getSide());
+                row++;
+            }
+            assertEquals(rows, row);
+            assertEquals(BASE + 1_234 * SECOND, segment.getTimestampNanos(1_234));
+            assertEquals(1_001_234L, segment.getPriceTicks(1_234));
+            assertFalse(segment.isIndexed());
+        }
+    }
+
+    @Test
+    public void testEncodedColumnsShrinkSegments() throws Exception {
+        TradeStore store = new TradeStore();
+        int rows = 10_000;
+        for (int i = 0; i < rows; i++) {
+            store.append(i, "ACC-1", "AAPL", Side.BUY, BASE + i * 1_000_000L, 100.0 + i % 50 / 100.0, 100);
+        }
+        Path path = folder.getRoot().toPath().resolve("small.seg");
+        SegmentWriter.writeTrades(store, path);
+
+        // Millisecond steps take 3 bytes a row and prices within 4900 ticks 2 bytes,
+        // instead of 8 each; the two row bitmaps take under 2 bytes a row
+        long encodedBytes = rows * (8L + 3 + 4 + 4 + 2 + 8 + 1);
+        assertTrue(Files.size(path) < encodedBytes + rows * 2L);
+    }
+
+    @Test
+    public void testRowBitmapMatchesBitSet() {
+        Random random = new Random(11);
+        RowBitmap dense = new RowBitmap();
+        RowBitmap sparse = new RowBitmap();
+        BitSet denseRows = new BitSet();
+        BitSet sparseRows = new BitSet();
+        for (int row = 0; row < 300_000; row++) {
+            if (random.nextInt(4) == 0) {
+                dense.add(row);
+                denseRows.set(row);
+            }
+            if (random.nextInt(100) == 0) {
+                sparse.add(row);
+                sparseRows.set(row);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(dense.serializedBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        dense.writeTo(buffer);
+        RowBitmap decoded = RowBitmap.read(buffer, 0);
+
+        BitSet and = (BitSet) denseRows.clone();
+        and.and(sparseRows);
+        BitSet or = (BitSet) denseRows.clone();
+        or.or(sparseRows);
+        assertEquals(denseRows, toBitSet(decoded));
+        assertEquals(and, toBitSet(decoded.and(sparse)));
+        assertEquals(or, toBitSet(sparse.or(decoded)));
+        assertEquals(denseRows.cardinality(), decoded.cardinality());
+    }
+
+    private static BitSet toBitSet(RowBitmap bitmap) {
+        BitSet rows = new BitSet();
+        PrimitiveIterator.OfInt it = bitmap.iterator();
+        int previous = -1;
+        while (it.hasNext()) {
+            int row = it.nextInt();
+            assertTrue(row > previous);
+            rows.set(row);
+            previous = row;
+        }
+        return rows;
+    }
+
+    private static List<Long> tradeIds(Iterable<Trade> trades) {
+        List<Long> ids = new ArrayList<>();
+        for (Trade trade : trades) {
+            ids.add(trade.getTradeId());
+        }
+        return ids;
+    }
+}
@@ -2,12 +2,19 @@ package com.surveillance.tests;
 
 import org.junit.Test;
 import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.text.SimpleDateFormat;
 
 import com.surveillance.core.Parameter;
+import com.surveillance.core.ParameterBinder;
 import com.surveillance.core.DetectionResult;
+import com.surveillance.core.OrderEvent;
 import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Side;
 import com.surveillance.detectors.SpoofingDetector;
 
 /**
@@ -43,6 +50,9 @@ public class SpoofingDetectionTest {
     @Parameter("minOrderSizeMultiplier")
     private double minOrderSizeMultiplier = 5.0;
     
+    @Parameter("minOrderCount")
+    private int minOrderCount = 10;
+    
     @Parameter("outputFormat")
     private String outputFormat = "csv";
 
@@ -52,6 +62,8 @@ public class SpoofingDetectionTest {
 
     @Before
     public void setUp() {
+        // Parameters passed as -D system properties override the field defaults
+        ParameterBinder.bindSystemProperties(this);
         detector = new SpoofingDetector(configPath);
         reportGenerator = new ReportGenerator();
         
@@ -63,6 +75,7 @@ public class SpoofingDetectionTest {
         detector.setCancelRateThreshold(cancelRateThreshold);
         detector.setMaxOrderLifetimeMs(maxOrderLifetimeMs);
         detector.setMinOrderSizeMultiplier(minOrderSizeMultiplier);
+        detector.setMinOrderCount(minOrderCount);
     }
 
     @Test
@@ -118,6 +131,118 @@ public class SpoofingDetectionTest {
         System.out.println("Account-specific spoofing report generated: " + reportPath);
     }
 
+    @Test
+    public void testFlagsShortLivedOversizedCancels() {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long milli = 1_000_000L;
+        List<OrderEvent> orders = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            orders.add(OrderEvent.of(i, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + i * milli, 150.0, 100));
+        }
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.NEW, base + 10 * milli, 150.5, 5000));
+        for (int i = 1; i <= 7; i++) {
+            orders.add(OrderEvent.of(i, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.CANCEL, base + (50 + i) * milli, 150.0, 100));
+        }
+        orders.add(OrderEvent.of(8, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.FILL, base + 60 * milli, 150.0, 100));
+        orders.add(OrderEvent.of(9, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.FILL, base + 70 * milli, 150.0, 100));
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.CANCEL, base + 110 * milli, 150.5, 5000));
+        
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setAccountId(null);
+        detector.setSymbol(null);
+        detector.setCancelRateThreshold(0.75);
+        detector.setMaxOrderLifetimeMs(500);
+        detector.setMinOrderCount(10);
+        detector.setMinOrderSizeMultiplier(5.0);
+        detector.setOrders(orders);
+        
+        DetectionResult result = detector.detect();
+        
+        // 8 of 10 orders cancelled; only the 5000-lot order is large enough to flag
+        assertEquals(1, result.getAlertCount());
+        assertEquals("ORD-10", result.getAlerts().get(0).getTradeId());
+    }
+
+    @Test
+    public void testCountsPartlyFilledCancelsOnce() {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long milli = 1_000_000L;
+        List<OrderEvent> orders = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            orders.add(OrderEvent.of(i, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.NEW, base + i * milli, 150.0, 100));
+        }
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.NEW, base + 10 * milli, 150.5, 5000));
+        // A repeated NEW is the same order, not an eleventh one
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.NEW, base + 11 * milli, 150.5, 5000));
+        for (int i = 1; i <= 7; i++) {
+            orders.add(OrderEvent.of(i, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.CANCEL, base + (50 + i) * milli, 150.0, 100));
+        }
+        orders.add(OrderEvent.of(8, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.FILL, base + 60 * milli, 150.0, 100));
+        orders.add(OrderEvent.of(9, "ACC-1", "AAPL", Side.BUY, OrderEvent.Type.FILL, base + 70 * milli, 150.0, 100));
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.FILL, base + 80 * milli, 150.5, 2000));
+        orders.add(OrderEvent.of(10, "ACC-1", "AAPL", Side.SELL, OrderEvent.Type.CANCEL, base + 110 * milli, 150.5, 3000));
+
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setAccountId(null);
+        detector.setSymbol(null);
+        detector.setCancelRateThreshold(0.75);
+        detector.setMaxOrderLifetimeMs(500);
+        detector.setMinOrderCount(10);
+        detector.setMinOrderSizeMultiplier(5.0);
+        detector.setOrders(orders);
+
+        DetectionResult result = detector.detect();
+
+        // 8 of 10 orders cancelled, counting the partly filled one
+        assertEquals(1, result.getAlertCount());
+        DetectionResult.Alert alert = result.getAlerts().get(0);
+        assertEquals("ORD-10", alert.getTradeId());
+        assertTrue(alert.getDescription(), alert.getDescription().endsWith("(cancel rate 80% over 10 orders)"));
+    }
+
+    @Test
+    public void testFlagsInFirstSeenOrder() {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long milli = 1_000_000L;
+        List<OrderEvent> orders = new ArrayList<>();
+        // Accounts and symbols first seen in an order their hashes would not give
+        String[][] keys = {{"ACC-9", "TSLA"}, {"ACC-2", "MSFT"}, {"ACC-1", "AAPL"}, {"ACC-2", "AAPL"}};
+        for (int k = 0; k < keys.length; k++) {
+            long id = 100L * (k + 1);
+            long start = base + k * 1_000 * milli;
+            for (int i = 0; i < 9; i++) {
+                orders.add(OrderEvent.of(id + i, keys[k][0], keys[k][1], Side.BUY, OrderEvent.Type.NEW,
+                    start + i * milli, 100.0, 100));
+            }
+            orders.add(OrderEvent.of(id + 9, keys[k][0], keys[k][1], Side.SELL, OrderEvent.Type.NEW,
+                start + 9 * milli, 100.0, 5000));
+            for (int i = 0; i <= 9; i++) {
+                orders.add(OrderEvent.of(id + i, keys[k][0], keys[k][1], Side.BUY, OrderEvent.Type.CANCEL,
+                    start + (20 + i) * milli, 100.0, i == 9 ? 5000 : 100));
+            }
+        }
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setAccountId(null);
+        detector.setSymbol(null);
+        detector.setCancelRateThreshold(0.75);
+        detector.setMaxOrderLifetimeMs(500);
+        detector.setMinOrderCount(10);
+        detector.setMinOrderSizeMultiplier(5.0);
+        detector.setOrders(orders);
+
+        DetectionResult result = detector.detect();
+
+        List<String> flagged = new ArrayList<>();
+        for (DetectionResult.Alert alert : result.getAlerts()) {
+            flagged.add(alert.getTradeId());
+        }
+        // Grouped by account, then symbol, each in first-seen order
+        assertEquals(List.of("ORD-109", "ORD-209", "ORD-409", "ORD-309"), flagged);
+    }
+
     private Date parseDate(String dateStr) {
         try {
             return new SimpleDateFormat("yyyy-MM-dd").parse(dateStr);
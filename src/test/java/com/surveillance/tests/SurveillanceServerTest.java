@@ -0,0 +1,163 @@
+package com.surveillance.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.surveillance.core.DetectorRegistry;
+import com.surveillance.core.ReportGenerator;
+import com.surveillance.server.JsonRpcHandler;
+import com.surveillance.server.SurveillanceServer;
+import com.surveillance.server.SurveillanceService;
+
+/**
+ * Surveillance server JSON-RPC test.
+ */
+public class SurveillanceServerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SurveillanceService service;
+    private JsonRpcHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new SurveillanceService(new DetectorRegistry(),
+            new ReportGenerator(folder.newFolder("reports").getPath()));
+        handler = new JsonRpcHandler(service);
+    }
+
+    @Test
+    public void testRunsDetectorOnWarmData() throws Exception {
+        JsonObject generated = call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"generate\","
+            + "\"params\":{\"events\":50000,\"seed\":3}}");
+        assertTrue(generated.getAsJsonObject("result").get("injectedWashTrades").getAsInt() > 0);
+
+        for (int i = 0; i < 2; i++) {
+            JsonObject response = call("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"run\",\"params\":{"
+                + "\"reportType\":\"wash_trade\",\"reportName\":\"wash_" + i + "\","
+                + (i == 1 ? "\"columns\":\"config\"," : "")
+                + "\"parameters\":{\"startDate\":\"2024-01-01\",\"endDate\":\"2024-12-31\",\"priceTolerance\":0.01}}}");
+
+            JsonObject result = response.getAsJsonObject("result");
+            assertEquals(2, response.get("id").getAsInt());
+            assertTrue(result.get("alertCount").getAsInt() > 0);
+            String header = Files.readAllLines(Paths.get(result.get("reportPath").getAsString())).get(0);
+            assertTrue(header, header.startsWith(i == 1 ? "buy_trade_id,sell_trade_id," : "TradeId,"));
+        }
+    }
+
+    @Test
+    public void testGeneratedReportNamesAreUnique() throws Exception {
+        String first = (String) service.run("spoofing", Map.of(), "csv", null, null, false).get("reportPath");
+        String second = (String) service.run("spoofing", Map.of(), "csv", null, null, false).get("reportPath");
+
+        assertNotEquals(first, second);
+        assertTrue(Files.exists(Paths.get(first)));
+        assertTrue(Files.exists(Paths.get(second)));
+    }
+
+    @Test
+    public void testReportsErrors() {
+        assertEquals(-32700, errorCode(call("{not json")));
+        assertEquals(-32601, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"explode\"}")));
+        assertEquals(-32602, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"run\","
+            + "\"params\":{\"reportType\":\"spoofing\",\"parameters\":{\"noSuchThreshold\":1}}}")));
+        assertEquals(-32602, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"run\","
+            + "\"params\":{\"reportType\":\"layering\"}}")));
+        assertEquals(-32602, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"run\","
+            + "\"params\":{\"reportType\":\"spoofing\",\"columns\":5}}")));
+        assertEquals(-32602, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"run\","
+            + "\"params\":{\"reportType\":\"spoofing\",\"reportName\":\"../escaped\"}}")));
+        assertEquals(-32602, errorCode(call("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"run\","
+            + "\"params\":{\"reportType\":\"spoofing\",\"outputFormat\":\"csv/../../escaped\"}}")));
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("escaped.csv")));
+    }
+
+    @Test
+    public void testServesStdioUntilShutdown() throws Exception {
+        String requests = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"ping\"}\n"
+            + "{\"jsonrpc\":\"2.0\",\"method\":\"status\"}\n"
+            + "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"shutdown\"}\n"
+            + "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"ping\"}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new SurveillanceServer(service).serve(
+            new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("pong", JsonParser.parseString(lines[0]).getAsJsonObject().get("result").getAsString());
+        assertEquals(2, JsonParser.parseString(lines[1]).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    public void testServesSocketUntilShutdown() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = probe.getLocalPort();
+        }
+        SurveillanceServer server = new SurveillanceServer(service);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> serving = executor.submit(() -> {
+                server.serve(port);
+                return null;
+            });
+            Socket socket = null;
+            for (int attempt = 0; socket == null; attempt++) {
+                try {
+                    socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                } catch (ConnectException e) {
+                    if (attempt == 50) {
+                        throw e;
+                    }
+                    Thread.sleep(100);
+                }
+            }
+            try (Socket s = socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8))) {
+                s.getOutputStream().write(("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"ping\"}\n"
+                    + "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"shutdown\"}\n").getBytes(StandardCharsets.UTF_8));
+                s.getOutputStream().flush();
+                assertEquals("pong", JsonParser.parseString(in.readLine()).getAsJsonObject().get("result").getAsString());
+                assertEquals(2, JsonParser.parseString(in.readLine()).getAsJsonObject().get("id").getAsInt());
+            }
+            serving.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private JsonObject call(String request) {
+        return JsonParser.parseString(handler.handle(request)).getAsJsonObject();
+    }
+
+    private int errorCode(JsonObject response) {
+        return response.getAsJsonObject("error").get("code").getAsInt();
+    }
+}
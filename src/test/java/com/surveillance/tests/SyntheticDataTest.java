@@ -0,0 +1,132 @@
+package com.surveillance.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.data.segment.SegmentFormat;
+import com.surveillance.data.segment.SegmentManifest;
+import com.surveillance.data.segment.TradeSegment;
+import com.surveillance.data.synthetic.GroundTruth;
+import com.surveillance.data.synthetic.MarketDataGenerator;
+import com.surveillance.detectors.FrontRunningDetector;
+import com.surveillance.detectors.SpoofingDetector;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Synthetic market data generator test: determinism and detector recall
+ * on injected manipulation.
+ */
+public class SyntheticDataTest {
+
+    private static final int EVENTS = 200_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameSeedGeneratesSameData() {
+        TradeStore firstTrades = new TradeStore();
+        OrderStore firstOrders = new OrderStore();
+        TradeStore secondTrades = new TradeStore();
+        OrderStore secondOrders = new OrderStore();
+
+        GroundTruth first = createGenerator().generateInto(firstTrades, firstOrders);
+        GroundTruth second = createGenerator().generateInto(secondTrades, secondOrders);
+
+        assertEquals(EVENTS, firstTrades.size() + firstOrders.size());
+        assertEquals(firstTrades.size(), secondTrades.size());
+        assertEquals(firstOrders.size(), secondOrders.size());
+        for (int row = 0; row < firstTrades.size(); row++) {
+            assertEquals(firstTrades.getTradeId(row), secondTrades.getTradeId(row));
+            assertEquals(firstTrades.getPriceTicks(row), secondTrades.getPriceTicks(row));
+            if (row > 0) {
+                assertTrue(firstTrades.getTimestampNanos(row) >= firstTrades.getTimestampNanos(row - 1));
+            }
+        }
+        assertEquals(first.getWashTradeBuyIds(), second.getWashTradeBuyIds());
+        assertEquals(first.getSpoofOrderIds(), second.getSpoofOrderIds());
+        assertEquals(first.getFrontRunningTradeIds(), second.getFrontRunningTradeIds());
+    }
+
+    @Test
+    public void testDetectorsRecallInjectedPatterns() throws Exception {
+        TradeStore trades = new TradeStore();
+        OrderStore orders = new OrderStore();
+        MarketDataGenerator generator = createGenerator();
+        GroundTruth truth = generator.generateInto(trades, orders);
+        assertTrue(truth.getWashTradeBuyIds().size() > 10);
+        assertTrue(truth.getSpoofOrderIds().size() > 5);
+        assertTrue(truth.getFrontRunningTradeIds().size() > 10);
+
+        WashTradeDetector washDetector = new WashTradeDetector();
+        washDetector.setStartDate(parseDate("2024-01-01"));
+        washDetector.setEndDate(parseDate("2024-12-31"));
+        washDetector.setTrades(trades);
+        SpoofingDetector spoofingDetector = new SpoofingDetector();
+        spoofingDetector.setStartDate(parseDate("2024-01-01"));
+        spoofingDetector.setEndDate(parseDate("2024-12-31"));
+        spoofingDetector.setOrders(orders);
+        FrontRunningDetector frontRunningDetector = new FrontRunningDetector();
+        frontRunningDetector.setStartDate(parseDate("2024-01-01"));
+        frontRunningDetector.setEndDate(parseDate("2024-12-31"));
+        frontRunningDetector.setEmployeeAccounts(generator.getReferenceData().getEmployeeAccounts());
+        frontRunningDetector.setTrades(trades);
+        frontRunningDetector.setOrders(orders);
+
+        for (DetectionResult result : List.of(washDetector.detect(), spoofingDetector.detect(),
+                frontRunningDetector.detect())) {
+            assertEquals(result.getReportType(), 1.0, truth.recall(result), 0.0);
+        }
+    }
+
+    @Test
+    public void testWritesSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        MarketDataGenerator generator = createGenerator();
+        generator.setTotalEvents(10_000);
+
+        generator.writeSegments(directory, 2_000);
+
+        long tradeRows = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files.filter(p -> p.getFileName().toString().startsWith("trades-"))::iterator) {
+                try (TradeSegment segment = TradeSegment.open(path)) {
+                    assertTrue(segment.getRowCount() <= 2_000);
+                    tradeRows += segment.getRowCount();
+                }
+            }
+        }
+        TradeStore trades = new TradeStore();
+        OrderStore orders = new OrderStore();
+        generator.generateInto(trades, orders);
+        assertEquals(trades.size(), tradeRows);
+        assertEquals(trades.size(), SegmentManifest.read(directory).getRowCount(SegmentFormat.KIND_TRADES));
+        assertEquals(orders.size(), SegmentManifest.read(directory).getRowCount(SegmentFormat.KIND_ORDERS));
+    }
+
+    private MarketDataGenerator createGenerator() {
+        MarketDataGenerator generator = new MarketDataGenerator();
+        generator.setSeed(7);
+        generator.setTotalEvents(EVENTS);
+        generator.setSymbolCount(200);
+        generator.setAccountCount(2_000);
+        generator.setEmployeeCount(20);
+        return generator;
+    }
+
+    private Date parseDate(String dateStr) throws Exception {
+        return new SimpleDateFormat("yyyy-MM-dd").parse(dateStr);
+    }
+}
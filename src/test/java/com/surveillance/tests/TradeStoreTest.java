@@ -0,0 +1,103 @@
+package com.surveillance.tests;
+
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.surveillance.core.DetectionResult;
+import com.surveillance.core.OrderEvent;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
+import com.surveillance.data.Dictionary;
+import com.surveillance.data.OrderStore;
+import com.surveillance.data.TradeStore;
+import com.surveillance.detectors.SpoofingDetector;
+import com.surveillance.detectors.WashTradeDetector;
+
+/**
+ * Columnar trade and order store test.
+ */
+public class TradeStoreTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long MILLI = 1_000_000L;
+    private static final long BASE = 1_709_251_200L * SECOND; // 2024-03-01T00:00:00Z
+
+    private Dictionary accounts;
+    private Dictionary symbols;
+    private TradeStore trades;
+    private OrderStore orders;
+
+    @Before
+    public void setUp() {
+        accounts = new Dictionary();
+        symbols = new Dictionary();
+        trades = new TradeStore(accounts, symbols, 2);
+        orders = new OrderStore(accounts, symbols, 2);
+    }
+
+    @Test
+    public void testDictionaryEncodesKeysDensely() {
+        trades.append(1, "ACC-1", "AAPL", Side.BUY, BASE, 150.25, 100);
+        trades.append(2, "ACC-2", "AAPL", Side.SELL, BASE + SECOND, 150.30, 200);
+        trades.append(3, "ACC-1", "MSFT", Side.BUY, BASE + 2 * SECOND, 410.10, 300);
+
+        assertEquals(3, trades.size());
+        assertEquals(2, accounts.size());
+        assertEquals(2, symbols.size());
+        assertEquals(0, trades.getAccountId(2));
+        assertEquals(1, trades.getSymbolId(2));
+        assertEquals(1_502_500L, trades.getPriceTicks(0));
+        assertEquals(Dictionary.NOT_FOUND, accounts.lookup("ACC-9"));
+    }
+
+    @Test
+    public void testIteratorReusesOneView() {
+        trades.append(1, "ACC-1", "AAPL", Side.BUY, BASE, 150.25, 100);
+        trades.append(2, "ACC-2", "AAPL", Side.SELL, BASE + SECOND, 150.30, 200);
+
+        Trade previous = null;
+        int rows = 0;
+        for (Trade trade : trades) {
+            if (previous != null) {
+                assertSame(previous, trade);
+            }
+            previous = trade;
+            rows++;
+        }
+        assertEquals(2, rows);
+        assertEquals("ACC-2", previous.getAccountId());
+        assertEquals(Side.SELL, previous.getSide());
+        assertEquals(150.30, previous.getPrice(), 1e-9);
+    }
+
+    @Test
+    public void testDetectorsReadFromStores() {
+        trades.append(1, "ACC-1", "AAPL", Side.BUY, BASE, 100.00, 1000);
+        trades.append(2, "ACC-1", "AAPL", Side.SELL, BASE + 10 * SECOND, 100.20, 990);
+        trades.append(3, "ACC-1", "AAPL", Side.SELL, BASE + 20 * SECOND, 110.00, 1000);
+        WashTradeDetector washDetector = new WashTradeDetector();
+        washDetector.setTrades(trades);
+
+        DetectionResult washResult = washDetector.detect();
+
+        assertEquals(1, washResult.getAlertCount());
+
+        for (int i = 1; i <= 9; i++) {
+            orders.append(i, "ACC-2", "TSLA", Side.BUY, OrderEvent.Type.NEW, BASE + i * MILLI, 200.0, 100);
+        }
+        orders.append(10, "ACC-2", "TSLA", Side.SELL, OrderEvent.Type.NEW, BASE + 10 * MILLI, 201.0, 5000);
+        for (int i = 1; i <= 7; i++) {
+            orders.append(i, "ACC-2", "TSLA", Side.BUY, OrderEvent.Type.CANCEL, BASE + (50 + i) * MILLI, 200.0, 100);
+        }
+        orders.append(10, "ACC-2", "TSLA", Side.SELL, OrderEvent.Type.CANCEL, BASE + 110 * MILLI, 201.0, 5000);
+        SpoofingDetector spoofingDetector = new SpoofingDetector();
+        spoofingDetector.setOrders(orders);
+
+        DetectionResult spoofingResult = spoofingDetector.detect();
+
+        assertEquals(1, spoofingResult.getAlertCount());
+        assertEquals("ORD-10", spoofingResult.getAlerts().get(0).getTradeId());
+    }
+}
@@ -2,12 +2,26 @@ package com.surveillance.tests;
 
 import org.junit.Test;
 import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Date;
 import java.text.SimpleDateFormat;
 
+import com.surveillance.core.AlertSink;
 import com.surveillance.core.Parameter;
+import com.surveillance.core.ParameterBinder;
 import com.surveillance.core.DetectionResult;
 import com.surveillance.core.ReportGenerator;
+import com.surveillance.core.Side;
+import com.surveillance.core.Trade;
 import com.surveillance.detectors.WashTradeDetector;
 
 /**
@@ -43,15 +57,23 @@ public class WashTradeDetectionTest {
     @Parameter("timeWindowSeconds")
     private int timeWindowSeconds = Integer.parseInt(System.getProperty("timeWindowSeconds", "300"));
     
+    @Parameter("quantityTolerance")
+    private double quantityTolerance = Double.parseDouble(System.getProperty("quantityTolerance", "0.05"));
+    
     @Parameter("outputFormat")
     private String outputFormat = System.getProperty("outputFormat", "csv");
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private WashTradeDetector detector;
     private ReportGenerator reportGenerator;
     private String configPath = "configs/wash_trade_detection.yml";
 
     @Before
     public void setUp() {
+        // Parameters passed as -D system properties override the field defaults
+        ParameterBinder.bindSystemProperties(this);
         detector = new WashTradeDetector(configPath);
         reportGenerator = new ReportGenerator();
         
@@ -63,6 +85,7 @@ public class WashTradeDetectionTest {
         detector.setMinTradeCount(minTradeCount);
         detector.setPriceTolerance(priceTolerance);
         detector.setTimeWindowSeconds(timeWindowSeconds);
+        detector.setQuantityTolerance(quantityTolerance);
     }
 
     @Test
@@ -120,6 +143,77 @@ public class WashTradeDetectionTest {
         System.out.println("Symbol-specific report generated: " + reportPath);
     }
 
+    @Test
+    public void testMatchesOppositeTradesWithinWindow() {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long second = 1_000_000_000L;
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setAccountId(null);
+        detector.setSymbol(null);
+        detector.setPriceTolerance(0.01);
+        detector.setQuantityTolerance(0.05);
+        detector.setTimeWindowSeconds(300);
+        detector.setTrades(Arrays.asList(
+            Trade.of(1, "ACC-1", "AAPL", Side.BUY, base, 100.00, 1000),
+            Trade.of(2, "ACC-2", "AAPL", Side.SELL, base + 5 * second, 100.00, 1000),   // other account
+            Trade.of(3, "ACC-1", "AAPL", Side.SELL, base + 10 * second, 100.50, 980),   // match
+            Trade.of(4, "ACC-1", "AAPL", Side.SELL, base + 20 * second, 102.00, 1000),  // price too far
+            Trade.of(5, "ACC-1", "AAPL", Side.SELL, base + 30 * second, 100.00, 800),   // quantity too far
+            Trade.of(6, "ACC-1", "AAPL", Side.SELL, base + 400 * second, 100.00, 1000)  // outside window
+        ));
+        
+        DetectionResult result = detector.detect();
+        
+        assertEquals(1, result.getAlertCount());
+        assertEquals("TRD-1", result.getAlerts().get(0).getTradeId());
+        assertEquals("ACC-1", result.getAlerts().get(0).getAccountId());
+        assertEquals(base + 10 * second, result.getAlerts().get(0).getTimestampNanos());
+    }
+
+    @Test
+    public void testStreamsAlertsToReportSink() throws Exception {
+        long base = parseDate("2024-03-01").getTime() * 1_000_000L;
+        long second = 1_000_000_000L;
+        detector.setStartDate(parseDate("2024-01-01"));
+        detector.setEndDate(parseDate("2024-12-31"));
+        detector.setAccountId(null);
+        detector.setSymbol(null);
+        detector.setTrades(Arrays.asList(
+            Trade.of(1, "ACC-1", "AAPL", Side.BUY, base, 100.00, 1000),
+            Trade.of(2, "ACC-1", "AAPL", Side.SELL, base + second, 100.00, 1000),
+            Trade.of(3, "ACC-1", "AAPL", Side.BUY, base + 2 * second, 100.00, 1000)
+        ));
+        ReportGenerator streamingGenerator = new ReportGenerator(folder.getRoot().getPath());
+        
+        DetectionResult result;
+        try (AlertSink sink = streamingGenerator.openReportSink("wash_trade", "csv", "streamed")) {
+            detector.setAlertSink(sink);
+            result = detector.detect();
+        }
+        
+        List<String> lines = Files.readAllLines(Paths.get(streamingGenerator.getReportPath("csv", "streamed")));
+        assertEquals(2, result.getAlertCount());
+        List<String> rows = lines.subList(1, lines.indexOf(""));
+        assertEquals(2, rows.size());
+        for (String row : rows) {
+            assertTrue(row, row.contains(",ACC-1,AAPL,WASH_TRADE,"));
+        }
+        assertTrue(rows.get(0).endsWith(",2024-03-01 00:00:01"));
+        assertTrue(lines.contains("# Total Alerts: 2"));
+        try {
+            result.getAlerts();
+            fail("Streamed alerts are not kept");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            streamingGenerator.generateReport(result, "csv", "again");
+            fail("Streamed alerts are not kept");
+        } catch (IllegalStateException expected) {
+        }
+        assertFalse(Files.exists(Paths.get(streamingGenerator.getReportPath("csv", "again"))));
+    }
+
     private Date parseDate(String dateStr) {
         try {
             return new SimpleDateFormat("yyyy-MM-dd").parse(dateStr);
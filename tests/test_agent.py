@@ -2,13 +2,20 @@
 Tests for the Trade Surveillance Support Agent.
 """
 
+import os
+import shutil
+import subprocess
+from pathlib import Path
+
 import pytest
 from datetime import datetime
 from src.email_parser import EmailParser, ParsedInquiry
 from src.config_searcher import ConfigSearcher, SearchCriteria
-from src.java_executor import JavaCodeModifier
+from src.java_executor import JavaCodeModifier, JavaDaemonClient, JavaExecutor
 from src.agent import TradeSurveillanceAgent
 
+PROJECT_DIR = Path(__file__).resolve().parent.parent
+
 
 class TestEmailParser:
     """Tests for the EmailParser class."""
@@ -173,5 +180,42 @@ class TestTradeSurveillanceAgent:
         assert "Found" in response.message
 
 
+@pytest.mark.skipif(shutil.which('java') is None or shutil.which('mvn') is None,
+                    reason='needs java and mvn')
+class TestJavaDaemonClient:
+    """Tests for the persistent surveillance JVM client."""
+    
+    def test_run_report_scans_data_dir(self, tmp_path):
+        """Test that run_report loads the segment directory before running."""
+        classpath = JavaDaemonClient(project_dir=str(PROJECT_DIR))._resolve_classpath()
+        segments = tmp_path / 'segments'
+        subprocess.run(
+            ['java', '-cp', os.pathsep.join(classpath),
+             'com.surveillance.data.synthetic.MarketDataGenerator', '20000', str(segments), '7'],
+            check=True,
+            capture_output=True,
+        )
+        executor = JavaExecutor(project_dir=str(PROJECT_DIR), data_dir=str(segments))
+        try:
+            result = executor.run_report('wash_trade', {}, 'csv', output_dir=str(tmp_path / 'reports'))
+        finally:
+            executor.close()
+        
+        assert result.success, result.error_message
+        assert 'Found 0 alerts' not in result.stdout
+        rows = Path(result.report_path).read_text(encoding='utf-8').splitlines()
+        assert len(rows) > 1
+    
+    def test_run_report_without_data_dir_fails(self, monkeypatch):
+        """Test that a report is not run against an empty data set."""
+        monkeypatch.delenv('TRADE_SURVEILLANCE_DATA_DIR', raising=False)
+        executor = JavaExecutor(project_dir=str(PROJECT_DIR))
+        
+        result = executor.run_report('wash_trade')
+        
+        assert not result.success
+        assert 'TRADE_SURVEILLANCE_DATA_DIR' in result.error_message
+
+
 if __name__ == "__main__":
     pytest.main([__file__, "-v"])